@@ -0,0 +1,42 @@
+package ru.practicum.shareitbenchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import ru.practicum.shareitserver.booking.dto.BookingResponseDto;
+import ru.practicum.shareitserver.booking.service.BookingService;
+
+import java.util.Collection;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BookingServiceBenchmark {
+
+    @Param({"ALL", "PAST", "FUTURE", "WAITING"})
+    private String state;
+
+    private ConfigurableApplicationContext context;
+    private BookingService bookingService;
+
+    @Setup
+    public void setUp() {
+        context = ServerFixture.start();
+        bookingService = context.getBean(BookingService.class);
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Collection<BookingResponseDto> findAllByOwner() {
+        long ownerId = ThreadLocalRandom.current().nextLong(1, ServerFixture.USERS + 1);
+        return bookingService.findAllByOwner(ownerId, state, 0, 20, null);
+    }
+}
@@ -0,0 +1,93 @@
+package ru.practicum.shareitbenchmarks;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.core.env.MapPropertySource;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.reactive.function.client.WebClient;
+import ru.practicum.shareitgateway.client.ClientMode;
+import ru.practicum.shareitgateway.item.ItemClient;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A GET through {@link ItemClient} with the gateway's own client beans (connection pools, single flight,
+ * response cache, upstream guards, retries) against a local stub that answers at once, so the numbers are
+ * the gateway's overhead per call. Run with {@code -t} to see contention.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class GatewayClientBenchmark {
+
+    private static final int ITEMS = 1_000;
+
+    @Param({"BLOCKING", "REACTIVE"})
+    private ClientMode mode;
+
+    private HttpServer server;
+    private AnnotationConfigApplicationContext context;
+    private ItemClient itemClient;
+
+    @Setup
+    public void setUp() throws IOException {
+        // Without it the stub's header and body writes wait out delayed ACKs and every call costs ~40 ms.
+        System.setProperty("sun.net.httpserver.nodelay", "true");
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.setExecutor(Executors.newCachedThreadPool());
+        server.createContext("/items", GatewayClientBenchmark::handle);
+        server.start();
+
+        context = new AnnotationConfigApplicationContext();
+        context.getEnvironment().getPropertySources().addFirst(new MapPropertySource("benchmark", Map.of(
+                "shareit-server.url", "http://localhost:" + server.getAddress().getPort(),
+                "shareit-server.client-mode", mode.name())));
+        context.registerBean(MeterRegistry.class, SimpleMeterRegistry::new);
+        context.registerBean(ObjectMapper.class, () -> new ObjectMapper());
+        context.registerBean(RestTemplateBuilder.class, () -> new RestTemplateBuilder());
+        context.registerBean(WebClient.Builder.class, WebClient::builder);
+        context.scan("ru.practicum.shareitgateway.client");
+        context.register(ItemClient.class);
+        context.refresh();
+        itemClient = context.getBean(ItemClient.class);
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+        server.stop(0);
+    }
+
+    @Benchmark
+    public ResponseEntity<Object> getById() {
+        long itemId = ThreadLocalRandom.current().nextLong(1, ITEMS + 1);
+        return itemClient.getById(1L, itemId).block();
+    }
+
+    private static void handle(HttpExchange exchange) throws IOException {
+        String path = exchange.getRequestURI().getPath();
+        String id = path.substring(path.lastIndexOf('/') + 1);
+        byte[] body = ("{\"id\":" + id + ",\"name\":\"Item " + id + "\",\"description\":\"Description " + id
+                + "\",\"available\":true,\"lastBooking\":null,\"nextBooking\":null,\"comments\":[]}")
+                .getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(200, body.length);
+        exchange.getResponseBody().write(body);
+        exchange.close();
+    }
+}
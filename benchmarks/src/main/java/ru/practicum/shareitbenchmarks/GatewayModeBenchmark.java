@@ -0,0 +1,117 @@
+package ru.practicum.shareitbenchmarks;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import ru.practicum.shareitgateway.ShareItGatewayApplication;
+import ru.practicum.shareitgateway.client.ClientMode;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * GETs through a running gateway, Tomcat capped at {@link #GATEWAY_THREADS} threads, against a stub that
+ * answers after {@code shareit.benchmark.latency-ms}. Tomcat threads are released in both modes; BLOCKING
+ * mode holds a bounded elastic thread for every call in flight, REACTIVE mode none. Replaces the opt-in
+ * gateway JUnit benchmark.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 5)
+@Threads(100)
+@Fork(1)
+public class GatewayModeBenchmark {
+
+    private static final int LATENCY_MS = Integer.getInteger("shareit.benchmark.latency-ms", 50);
+    private static final int GATEWAY_THREADS = 20;
+    private static final int USERS = 1_000;
+
+    @Param({"BLOCKING", "REACTIVE"})
+    private ClientMode mode;
+
+    private ExecutorService stubThreads;
+    private HttpServer server;
+    private ConfigurableApplicationContext gateway;
+    private HttpClient http;
+    private String gatewayUrl;
+
+    @Setup
+    public void setUp() throws IOException {
+        System.setProperty("sun.net.httpserver.nodelay", "true");
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 1_000);
+        stubThreads = Executors.newCachedThreadPool();
+        server.setExecutor(stubThreads);
+        server.createContext("/users", GatewayModeBenchmark::handle);
+        server.start();
+
+        // The server's application.properties comes first on this classpath: the gateway gets its settings
+        // here, and the server's datasource is kept out.
+        gateway = new SpringApplicationBuilder(ShareItGatewayApplication.class)
+                .run("--server.port=0",
+                        "--server.tomcat.threads.max=" + GATEWAY_THREADS,
+                        "--server.tomcat.accept-count=1000",
+                        "--spring.autoconfigure.exclude="
+                                + "org.springframework.boot.autoconfigure.jdbc.DataSourceAutoConfiguration,"
+                                + "org.springframework.boot.autoconfigure.orm.jpa.HibernateJpaAutoConfiguration",
+                        "--spring.main.banner-mode=off",
+                        "--logging.level.root=WARN",
+                        "--shareit-server.url=http://localhost:" + server.getAddress().getPort(),
+                        "--shareit-server.client-mode=" + mode,
+                        "--shareit-server.single-flight.enabled=false",
+                        "--shareit-server.response-cache.enabled=false",
+                        "--shareit-server.guard.enabled=false",
+                        "--shareit.rate-limit.enabled=false");
+        gatewayUrl = "http://localhost:" + ((WebServerApplicationContext) gateway).getWebServer().getPort();
+        http = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .build();
+    }
+
+    @TearDown
+    public void tearDown() {
+        gateway.close();
+        server.stop(0);
+        stubThreads.shutdownNow();
+    }
+
+    @Benchmark
+    public int getUser() throws IOException, InterruptedException {
+        long userId = ThreadLocalRandom.current().nextLong(1, USERS + 1);
+        HttpRequest request = HttpRequest.newBuilder(URI.create(gatewayUrl + "/users/" + userId)).build();
+        int status = http.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+        if (status != 200) {
+            throw new IllegalStateException("Gateway answered " + status);
+        }
+        return status;
+    }
+
+    private static void handle(HttpExchange exchange) throws IOException {
+        try {
+            Thread.sleep(LATENCY_MS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        String path = exchange.getRequestURI().getPath();
+        String id = path.substring(path.lastIndexOf('/') + 1);
+        byte[] body = ("{\"id\":" + id + ",\"name\":\"User\",\"email\":\"user" + id + "@email.com\"}")
+                .getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(200, body.length);
+        exchange.getResponseBody().write(body);
+        exchange.close();
+    }
+}
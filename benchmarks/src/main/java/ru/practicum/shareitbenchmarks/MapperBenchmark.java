@@ -0,0 +1,79 @@
+package ru.practicum.shareitbenchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import ru.practicum.shareitserver.booking.BookingMapper;
+import ru.practicum.shareitserver.booking.dto.BookingResponseDto;
+import ru.practicum.shareitserver.booking.model.Booking;
+import ru.practicum.shareitserver.booking.model.Status;
+import ru.practicum.shareitserver.item.dto.CommentDto;
+import ru.practicum.shareitserver.item.dto.ItemDto;
+import ru.practicum.shareitserver.item.mapper.CommentMapper;
+import ru.practicum.shareitserver.item.mapper.ItemMapper;
+import ru.practicum.shareitserver.item.model.Comment;
+import ru.practicum.shareitserver.item.model.Item;
+import ru.practicum.shareitserver.request.dto.ItemRequestDto;
+import ru.practicum.shareitserver.request.mapper.ItemRequestMapper;
+import ru.practicum.shareitserver.request.model.ItemRequest;
+import ru.practicum.shareitserver.user.model.User;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MapperBenchmark {
+
+    @Param({"20", "1000"})
+    private int size;
+
+    private List<Item> items;
+    private List<Booking> bookings;
+    private List<Comment> comments;
+    private List<ItemRequest> requests;
+
+    @Setup
+    public void setUp() {
+        LocalDateTime now = LocalDateTime.now();
+        User user = new User(1L, "User", "user@email.com");
+        items = new ArrayList<>();
+        bookings = new ArrayList<>();
+        comments = new ArrayList<>();
+        requests = new ArrayList<>();
+        for (long i = 1; i <= size; i++) {
+            ItemRequest request = new ItemRequest(i, "Request " + i, now, user, 0L);
+            Item item = new Item(i, "Item " + i, "Description " + i, true, user, i % 2 == 0 ? request : null, 0L);
+            requests.add(request);
+            items.add(item);
+            bookings.add(new Booking(i, now.plusHours(i), now.plusHours(i + 1), item, user, Status.APPROVED, 0L));
+            comments.add(new Comment(i, "Comment " + i, item, user, now));
+        }
+    }
+
+    @Benchmark
+    public Collection<ItemDto> mapItems() {
+        return ItemMapper.mapToItemDto(items);
+    }
+
+    @Benchmark
+    public List<BookingResponseDto> mapBookings() {
+        return bookings.stream().map(BookingMapper::mapToBookingResponseDto).collect(Collectors.toList());
+    }
+
+    @Benchmark
+    public Collection<CommentDto> mapComments() {
+        return CommentMapper.mapToCommentDto(comments);
+    }
+
+    @Benchmark
+    public Collection<ItemRequestDto> mapRequests() {
+        return ItemRequestMapper.mapToItemRequestDto(requests);
+    }
+}
@@ -0,0 +1,42 @@
+package ru.practicum.shareitbenchmarks;
+
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import ru.practicum.shareitbenchmarks.load.DataGenerator;
+import ru.practicum.shareitserver.ShareItServerApplication;
+
+import java.util.UUID;
+
+/**
+ * Server context without the web layer on an in-memory H2 seeded with {@code shareit.benchmark.*} volumes
+ * and no skew, so that every call costs about the same whichever owner it picks.
+ */
+public final class ServerFixture {
+
+    public static final int USERS = Integer.getInteger("shareit.benchmark.users", 1_000);
+    public static final int ITEMS = Integer.getInteger("shareit.benchmark.items", 20_000);
+    public static final int BOOKINGS = Integer.getInteger("shareit.benchmark.bookings", 200_000);
+
+    private ServerFixture() {
+    }
+
+    public static ConfigurableApplicationContext start() {
+        ConfigurableApplicationContext context = new SpringApplicationBuilder(ShareItServerApplication.class)
+                .web(WebApplicationType.NONE)
+                .profiles("test")
+                .run("--spring.datasource.url=jdbc:h2:mem:" + UUID.randomUUID(),
+                        "--spring.main.banner-mode=off",
+                        "--logging.level.root=WARN");
+        DataGenerator.Settings settings = DataGenerator.Settings.builder()
+                .users(USERS)
+                .items(ITEMS)
+                .bookings(BOOKINGS)
+                .ownerSkew(0)
+                .itemSkew(0)
+                .build();
+        new DataGenerator(settings).generate(context.getBean(JdbcTemplate.class));
+        return context;
+    }
+}
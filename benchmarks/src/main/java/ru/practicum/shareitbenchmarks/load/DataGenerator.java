@@ -0,0 +1,210 @@
+package ru.practicum.shareitbenchmarks.load;
+
+import lombok.Builder;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import ru.practicum.shareitserver.booking.model.Status;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Fills an empty schema with users, requests, items, bookings and comments. Item owners are drawn from a
+ * Zipf distribution over users and booked items from one over items, so with a positive skew user 1 owns
+ * the most items and item 1 has the densest calendar. Every item's bookings follow each other without
+ * overlapping and straddle the current time. The same settings and seed give the same rows.
+ */
+@Slf4j
+public class DataGenerator {
+
+    private static final int BATCH = 5_000;
+    private static final int MAX_COMMENTABLE = 10_000;
+
+    private final Settings settings;
+
+    public DataGenerator(Settings settings) {
+        this.settings = settings;
+    }
+
+    public Dataset generate(JdbcTemplate jdbcTemplate) {
+        Random random = new Random(settings.getSeed());
+        LocalDateTime now = LocalDateTime.now().withNano(0);
+        clear(jdbcTemplate);
+
+        List<Object[]> rows = new ArrayList<>();
+        for (long i = 1; i <= settings.getUsers(); i++) {
+            rows.add(new Object[]{i, "User " + i, "user" + i + "@email.com"});
+        }
+        insert(jdbcTemplate, "INSERT INTO users (id, name, email) VALUES (?, ?, ?)", rows);
+
+        for (long i = 1; i <= settings.getRequests(); i++) {
+            rows.add(new Object[]{i, "Нужна вещь " + i, Timestamp.valueOf(now.minusMinutes(random.nextInt(525_600))),
+                    randomUser(random)});
+        }
+        insert(jdbcTemplate, "INSERT INTO requests (id, description, created_date, requestor_id) "
+                + "VALUES (?, ?, ?, ?)", rows);
+
+        Zipf owners = new Zipf(settings.getUsers(), settings.getOwnerSkew());
+        long[] itemOwners = new long[settings.getItems() + 1];
+        for (int i = 1; i <= settings.getItems(); i++) {
+            itemOwners[i] = owners.next(random);
+            Long requestId = settings.getRequests() > 0 && random.nextInt(10) == 0
+                    ? (long) random.nextInt(settings.getRequests()) + 1 : null;
+            rows.add(new Object[]{(long) i, "Item " + i, "Description of item " + i, random.nextInt(10) != 0,
+                    itemOwners[i], requestId});
+        }
+        insert(jdbcTemplate, "INSERT INTO items (id, name, description, is_available, owner_id, request_id) "
+                + "VALUES (?, ?, ?, ?, ?, ?)", rows);
+
+        Zipf bookedItems = new Zipf(settings.getItems(), settings.getItemSkew());
+        int[] bookingsPerItem = new int[settings.getItems() + 1];
+        for (int i = 0; i < settings.getBookings(); i++) {
+            bookingsPerItem[(int) bookedItems.next(random)]++;
+        }
+        List<Object[]> comments = new ArrayList<>();
+        List<long[]> commentable = new ArrayList<>();
+        long bookingId = 0;
+        for (int item = 1; item <= settings.getItems(); item++) {
+            // Slots last 2..24 hours with gaps of 0..12 hours, about 19 hours apart on average.
+            LocalDateTime start = now.minusHours(bookingsPerItem[item] * 19L / 2);
+            for (int i = 0; i < bookingsPerItem[item]; i++) {
+                start = start.plusHours(random.nextInt(13));
+                LocalDateTime end = start.plusHours(2 + random.nextInt(23));
+                long bookerId = randomUser(random);
+                while (bookerId == itemOwners[item] && settings.getUsers() > 1) {
+                    bookerId = randomUser(random);
+                }
+                Status status = status(start, end, now, random);
+                rows.add(new Object[]{++bookingId, Timestamp.valueOf(start), Timestamp.valueOf(end), (long) item,
+                        bookerId, status.name()});
+                if (status == Status.APPROVED && end.isBefore(now)) {
+                    if (random.nextDouble() < settings.getCommentRatio()) {
+                        comments.add(new Object[]{(long) comments.size() + 1, "Отзыв " + bookingId, (long) item,
+                                bookerId, Timestamp.valueOf(end.plusHours(1))});
+                    } else if (commentable.size() < MAX_COMMENTABLE) {
+                        commentable.add(new long[]{bookerId, item});
+                    }
+                }
+                start = end;
+            }
+            if (rows.size() >= BATCH) {
+                insert(jdbcTemplate, "INSERT INTO bookings (id, start_date, end_date, item_id, booker_id, status) "
+                        + "VALUES (?, ?, ?, ?, ?, ?)", rows);
+            }
+        }
+        insert(jdbcTemplate, "INSERT INTO bookings (id, start_date, end_date, item_id, booker_id, status) "
+                + "VALUES (?, ?, ?, ?, ?, ?)", rows);
+        int commentCount = comments.size();
+        insert(jdbcTemplate, "INSERT INTO comments (id, text, item_id, author_id, created) "
+                + "VALUES (?, ?, ?, ?, ?)", comments);
+
+        restartSequence(jdbcTemplate, "users_seq", settings.getUsers());
+        restartSequence(jdbcTemplate, "requests_seq", settings.getRequests());
+        restartSequence(jdbcTemplate, "items_seq", settings.getItems());
+        restartSequence(jdbcTemplate, "bookings_seq", bookingId);
+        restartSequence(jdbcTemplate, "comments_seq", commentCount);
+        jdbcTemplate.execute("ANALYZE");
+        log.info("Generated {} users, {} requests, {} items, {} bookings, {} comments; user 1 owns {} items, "
+                        + "item 1 has {} bookings", settings.getUsers(), settings.getRequests(), settings.getItems(),
+                bookingId, commentCount, countOwned(itemOwners, 1), bookingsPerItem.length > 1 ? bookingsPerItem[1] : 0);
+        return new Dataset(settings, itemOwners, commentable);
+    }
+
+    private long randomUser(Random random) {
+        return random.nextInt(settings.getUsers()) + 1;
+    }
+
+    private static Status status(LocalDateTime start, LocalDateTime end, LocalDateTime now, Random random) {
+        int dice = random.nextInt(10);
+        if (end.isBefore(now)) {
+            return dice < 8 ? Status.APPROVED : dice < 9 ? Status.REJECTED : Status.CANCELED;
+        }
+        if (start.isBefore(now)) {
+            return Status.APPROVED;
+        }
+        return dice < 5 ? Status.WAITING : Status.APPROVED;
+    }
+
+    private static void clear(JdbcTemplate jdbcTemplate) {
+        for (String table : List.of("comments", "bookings", "items", "requests", "users")) {
+            jdbcTemplate.update("DELETE FROM " + table);
+        }
+    }
+
+    private static void insert(JdbcTemplate jdbcTemplate, String sql, List<Object[]> rows) {
+        for (int from = 0; from < rows.size(); from += BATCH) {
+            jdbcTemplate.batchUpdate(sql, rows.subList(from, Math.min(from + BATCH, rows.size())));
+        }
+        rows.clear();
+    }
+
+    /**
+     * Hibernate's pooled optimizer hands out the 50 ids below each sequence value, so the sequence has to
+     * start a full block above the generated ids.
+     */
+    private static void restartSequence(JdbcTemplate jdbcTemplate, String sequence, long maxId) {
+        jdbcTemplate.execute("ALTER SEQUENCE " + sequence + " RESTART WITH " + (maxId + 100));
+    }
+
+    private static long countOwned(long[] itemOwners, long userId) {
+        long count = 0;
+        for (int i = 1; i < itemOwners.length; i++) {
+            if (itemOwners[i] == userId) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    @Getter
+    @Builder
+    public static class Settings {
+
+        @Builder.Default
+        private final int users = 2_000;
+        @Builder.Default
+        private final int requests = 1_000;
+        @Builder.Default
+        private final int items = 20_000;
+        @Builder.Default
+        private final int bookings = 200_000;
+        /**
+         * Share of past approved bookings that got a comment.
+         */
+        @Builder.Default
+        private final double commentRatio = 0.25;
+        @Builder.Default
+        private final double ownerSkew = 1.1;
+        @Builder.Default
+        private final double itemSkew = 1.0;
+        @Builder.Default
+        private final long seed = 42;
+    }
+
+    /**
+     * What the workload needs to know about the generated rows.
+     */
+    @Getter
+    public static class Dataset {
+
+        private final Settings settings;
+        /**
+         * Owner of every item, indexed by item id.
+         */
+        private final long[] itemOwners;
+        /**
+         * Booker and item of past approved bookings that have no comment yet.
+         */
+        private final List<long[]> commentable;
+
+        Dataset(Settings settings, long[] itemOwners, List<long[]> commentable) {
+            this.settings = settings;
+            this.itemOwners = itemOwners;
+            this.commentable = commentable;
+        }
+    }
+}
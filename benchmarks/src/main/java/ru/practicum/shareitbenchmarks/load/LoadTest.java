@@ -0,0 +1,140 @@
+package ru.practicum.shareitbenchmarks.load;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceAutoConfiguration;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernateJpaAutoConfiguration;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.core.env.SimpleCommandLinePropertySource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import ru.practicum.shareitgateway.ShareItGatewayApplication;
+import ru.practicum.shareitserver.ShareItServerApplication;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+/**
+ * Seeds the database with {@link DataGenerator} and runs a {@link Workload} against the gateway. By default
+ * the server (on an in-memory H2) and the gateway are started in this JVM, so nothing else is needed:
+ * <pre>
+ * java -cp benchmarks/target/benchmarks.jar ru.practicum.shareitbenchmarks.load.LoadTest --threads=32
+ * </pre>
+ * {@code --db=postgres} points the embedded server at the database from {@code docker-compose.yml}
+ * ({@code --jdbc-url}, {@code --db-user}, {@code --db-password} to override). With {@code --gateway-url}
+ * nothing is started and the load goes to a running gateway; the rows are then written straight to
+ * {@code --jdbc-url} right before the run. The server and gateway behind it must be freshly started and
+ * not have served any requests: ids already taken from the sequences would collide with the seeded rows
+ * and cached entities would hide them. Restart the server with {@code --spring.sql.init.mode=never}
+ * between runs, since the default mode drops and recreates the tables from {@code schema.sql}.
+ * Other options: {@code --users}, {@code --requests}, {@code --items}, {@code --bookings},
+ * {@code --comment-ratio}, {@code --owner-skew}, {@code --item-skew}, {@code --seed}, {@code --warmup-s},
+ * {@code --duration-s}, {@code --client-mode} and {@code --mix=GET_ITEM:50,ADD_BOOKING:0} to change the
+ * weights of some {@link Operation operations}.
+ */
+@Slf4j
+public class LoadTest {
+
+    private static final String POSTGRES_URL = "jdbc:postgresql://localhost:6541/shareit";
+
+    public static void main(String[] args) throws InterruptedException {
+        SimpleCommandLinePropertySource options = new SimpleCommandLinePropertySource(args);
+        DataGenerator.Settings settings = DataGenerator.Settings.builder()
+                .users(Integer.parseInt(option(options, "users", "2000")))
+                .requests(Integer.parseInt(option(options, "requests", "1000")))
+                .items(Integer.parseInt(option(options, "items", "20000")))
+                .bookings(Integer.parseInt(option(options, "bookings", "200000")))
+                .commentRatio(Double.parseDouble(option(options, "comment-ratio", "0.25")))
+                .ownerSkew(Double.parseDouble(option(options, "owner-skew", "1.1")))
+                .itemSkew(Double.parseDouble(option(options, "item-skew", "1.0")))
+                .seed(Long.parseLong(option(options, "seed", "42")))
+                .build();
+        boolean postgres = "postgres".equals(option(options, "db", "h2"));
+        String jdbcUrl = option(options, "jdbc-url", postgres ? POSTGRES_URL : "jdbc:h2:mem:" + UUID.randomUUID());
+        String dbUser = option(options, "db-user", postgres ? "root" : "test");
+        String dbPassword = option(options, "db-password", postgres ? "password" : "test");
+
+        List<ConfigurableApplicationContext> contexts = new ArrayList<>();
+        try {
+            String gatewayUrl = options.getProperty("gateway-url");
+            DataGenerator.Dataset dataset;
+            if (gatewayUrl == null) {
+                ConfigurableApplicationContext server = new SpringApplicationBuilder(ShareItServerApplication.class)
+                        .profiles(postgres ? "default" : "test")
+                        .run(args("--server.port=0",
+                                "--spring.datasource.url=" + jdbcUrl,
+                                "--spring.datasource.username=" + dbUser,
+                                "--spring.datasource.password=" + dbPassword));
+                contexts.add(server);
+                dataset = new DataGenerator(settings).generate(server.getBean(JdbcTemplate.class));
+                // The server's application.properties comes first on this classpath, so the gateway reads
+                // none and runs on its defaults. It has no entities, but JPA is on its classpath too.
+                ConfigurableApplicationContext gateway = new SpringApplicationBuilder(ShareItGatewayApplication.class)
+                        .run(args("--spring.config.name=shareit-gateway",
+                                "--spring.autoconfigure.exclude=" + DataSourceAutoConfiguration.class.getName()
+                                        + "," + HibernateJpaAutoConfiguration.class.getName(),
+                                "--server.port=0",
+                                "--shareit-server.url=http://localhost:" + port(server),
+                                "--shareit-server.client-mode=" + option(options, "client-mode", "BLOCKING"),
+                                "--shareit.rate-limit.enabled=false"));
+                contexts.add(gateway);
+                gatewayUrl = "http://localhost:" + port(gateway);
+            } else {
+                dataset = new DataGenerator(settings)
+                        .generate(new JdbcTemplate(new DriverManagerDataSource(jdbcUrl, dbUser, dbPassword)));
+            }
+
+            log.info("Running the workload against {}", gatewayUrl);
+            new Workload(gatewayUrl, dataset, weights(option(options, "mix", "")), settings.getSeed())
+                    .run(Integer.parseInt(option(options, "threads", "16")),
+                            Duration.ofSeconds(Long.parseLong(option(options, "warmup-s", "10"))),
+                            Duration.ofSeconds(Long.parseLong(option(options, "duration-s", "60"))),
+                            System.out);
+        } finally {
+            for (int i = contexts.size() - 1; i >= 0; i--) {
+                contexts.get(i).close();
+            }
+        }
+    }
+
+    /**
+     * Both contexts share one logging system, so each of them sets the same levels.
+     */
+    private static String[] args(String... args) {
+        return Stream.concat(Stream.of(args), Stream.of(
+                "--spring.main.banner-mode=off",
+                "--logging.level.root=WARN",
+                // Rejected bookings are part of the mix, not worth a line each.
+                "--logging.level.ru.practicum.shareitserver.exception=ERROR",
+                "--logging.level.ru.practicum.shareitgateway.exception=ERROR",
+                "--logging.level.ru.practicum.shareitbenchmarks=INFO")).toArray(String[]::new);
+    }
+
+    private static String option(SimpleCommandLinePropertySource options, String name, String defaultValue) {
+        return options.containsProperty(name) ? options.getProperty(name) : defaultValue;
+    }
+
+    private static Map<Operation, Integer> weights(String mix) {
+        Map<Operation, Integer> weights = new EnumMap<>(Operation.class);
+        for (Operation operation : Operation.values()) {
+            weights.put(operation, operation.getDefaultWeight());
+        }
+        for (String entry : mix.split(",")) {
+            if (!entry.isBlank()) {
+                String[] parts = entry.split(":");
+                weights.put(Operation.valueOf(parts[0].trim()), Integer.parseInt(parts[1].trim()));
+            }
+        }
+        return weights;
+    }
+
+    private static int port(ConfigurableApplicationContext context) {
+        return ((WebServerApplicationContext) context).getWebServer().getPort();
+    }
+}
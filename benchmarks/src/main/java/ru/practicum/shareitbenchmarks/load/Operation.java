@@ -0,0 +1,29 @@
+package ru.practicum.shareitbenchmarks.load;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Gateway calls the workload makes, with their default share of the mix: about three reads to one write.
+ */
+@Getter
+@RequiredArgsConstructor
+public enum Operation {
+    GET_ITEM("GET /items/{id}", 25),
+    GET_OWNER_ITEMS("GET /items", 8),
+    SEARCH_ITEMS("GET /items/search", 8),
+    GET_AVAILABILITY("GET /items/{id}/availability", 5),
+    GET_BOOKER_BOOKINGS("GET /bookings", 8),
+    GET_OWNER_BOOKINGS("GET /bookings/owner", 8),
+    GET_REQUESTS("GET /requests/all", 4),
+    GET_USER("GET /users/{id}", 4),
+    ADD_BOOKING("POST /bookings", 10),
+    APPROVE_BOOKING("PATCH /bookings/{id}", 6),
+    ADD_ITEM("POST /items", 3),
+    CHANGE_ITEM("PATCH /items/{id}", 2),
+    ADD_COMMENT("POST /items/{id}/comment", 2),
+    ADD_REQUEST("POST /requests", 1);
+
+    private final String endpoint;
+    private final int defaultWeight;
+}
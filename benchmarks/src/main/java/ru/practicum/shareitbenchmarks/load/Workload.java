@@ -0,0 +1,252 @@
+package ru.practicum.shareitbenchmarks.load;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Random;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Closed-loop load on the gateway: every thread sends one request at a time, picking the endpoint by
+ * {@link Operation} weight and the item by the same Zipf skew the data was generated with, so hot items
+ * get the most reads and bookings. Bookings it creates are approved later by their item owners.
+ */
+@Slf4j
+public class Workload {
+
+    private static final String HEADER_ID = "X-Sharer-User-Id";
+    private static final long MAX_LATENCY_US = TimeUnit.MINUTES.toMicros(1);
+
+    private final String gatewayUrl;
+    private final DataGenerator.Dataset dataset;
+    private final Map<Operation, Integer> weights;
+    private final long seed;
+    private final HttpClient http = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final Zipf items;
+    private final Queue<long[]> waitingBookings = new ConcurrentLinkedQueue<>();
+    private final Queue<long[]> commentable;
+    private final Map<Operation, Stats> stats = new EnumMap<>(Operation.class);
+    private final int totalWeight;
+    private volatile long measureFrom;
+
+    public Workload(String gatewayUrl, DataGenerator.Dataset dataset, Map<Operation, Integer> weights, long seed) {
+        this.gatewayUrl = gatewayUrl;
+        this.dataset = dataset;
+        this.weights = new EnumMap<>(weights);
+        this.totalWeight = weights.values().stream().mapToInt(Integer::intValue).sum();
+        if (totalWeight <= 0) {
+            throw new IllegalArgumentException("Веса операций не заданы");
+        }
+        this.seed = seed;
+        this.items = new Zipf(dataset.getSettings().getItems(), dataset.getSettings().getItemSkew());
+        this.commentable = new ConcurrentLinkedQueue<>(dataset.getCommentable());
+        for (Operation operation : Operation.values()) {
+            stats.put(operation, new Stats());
+        }
+    }
+
+    public void run(int threads, Duration warmup, Duration duration, PrintStream out) throws InterruptedException {
+        measureFrom = System.nanoTime() + warmup.toNanos();
+        long deadline = measureFrom + duration.toNanos();
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        for (int i = 0; i < threads; i++) {
+            Random random = new Random(seed + i);
+            executor.execute(() -> {
+                while (System.nanoTime() < deadline && !Thread.currentThread().isInterrupted()) {
+                    step(random);
+                }
+            });
+        }
+        executor.shutdown();
+        if (!executor.awaitTermination(warmup.plus(duration).plusMinutes(1).toMillis(), TimeUnit.MILLISECONDS)) {
+            executor.shutdownNow();
+        }
+        report(out, duration);
+    }
+
+    private void step(Random random) {
+        Operation operation = pick(random);
+        HttpRequest request = request(operation, random);
+        if (request == null) {
+            return;
+        }
+        long sent = System.nanoTime();
+        try {
+            HttpResponse<byte[]> response = http.send(request, HttpResponse.BodyHandlers.ofByteArray());
+            record(operation, sent, response.statusCode());
+            if (operation == Operation.ADD_BOOKING && response.statusCode() == 200) {
+                rememberBooking(request, response.body());
+            }
+        } catch (IOException e) {
+            record(operation, sent, 0);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private Operation pick(Random random) {
+        int value = random.nextInt(totalWeight);
+        for (Map.Entry<Operation, Integer> entry : weights.entrySet()) {
+            value -= entry.getValue();
+            if (value < 0) {
+                return entry.getKey();
+            }
+        }
+        throw new IllegalStateException("Сумма весов операций изменилась");
+    }
+
+    /**
+     * Returns {@code null} when there is nothing to approve or comment on yet.
+     */
+    private HttpRequest request(Operation operation, Random random) {
+        long itemId = items.next(random);
+        long ownerId = dataset.getItemOwners()[(int) itemId];
+        long userId = random.nextInt(dataset.getSettings().getUsers()) + 1;
+        switch (operation) {
+            case GET_ITEM:
+                return get("/items/" + itemId, userId);
+            case GET_OWNER_ITEMS:
+                return get("/items?from=0&size=20", ownerId);
+            case SEARCH_ITEMS:
+                return get("/items/search?from=0&size=20&text="
+                        + URLEncoder.encode("Item " + itemId, StandardCharsets.UTF_8), userId);
+            case GET_AVAILABILITY:
+                return get("/items/" + itemId + "/availability", userId);
+            case GET_BOOKER_BOOKINGS:
+                return get("/bookings?state=ALL&from=0&size=20", userId);
+            case GET_OWNER_BOOKINGS:
+                return get("/bookings/owner?state=ALL&from=0&size=20", ownerId);
+            case GET_REQUESTS:
+                return get("/requests/all?from=0&size=20", userId);
+            case GET_USER:
+                return get("/users/" + userId, userId);
+            case ADD_BOOKING:
+                long bookerId = userId != ownerId ? userId : userId % dataset.getSettings().getUsers() + 1;
+                LocalDateTime start = LocalDateTime.now().truncatedTo(ChronoUnit.HOURS)
+                        .plusHours(1 + random.nextInt(24 * 365));
+                return send("POST", "/bookings", bookerId, "{\"itemId\":" + itemId + ",\"start\":\"" + start
+                        + "\",\"end\":\"" + start.plusHours(1 + random.nextInt(48)) + "\"}");
+            case APPROVE_BOOKING:
+                long[] booking = waitingBookings.poll();
+                return booking == null ? null : send("PATCH", "/bookings/" + booking[0] + "?approved="
+                        + (random.nextInt(5) != 0), booking[1], null);
+            case ADD_ITEM:
+                return send("POST", "/items", userId, "{\"name\":\"Новая вещь\",\"description\":\"Описание вещи\","
+                        + "\"available\":true}");
+            case CHANGE_ITEM:
+                return send("PATCH", "/items/" + itemId, ownerId, "{\"description\":\"Обновлено "
+                        + random.nextInt() + "\"}");
+            case ADD_COMMENT:
+                long[] past = commentable.poll();
+                return past == null ? null : send("POST", "/items/" + past[1] + "/comment", past[0],
+                        "{\"text\":\"Отличная вещь\"}");
+            case ADD_REQUEST:
+                return send("POST", "/requests", userId, "{\"description\":\"Нужна вещь\"}");
+            default:
+                throw new IllegalArgumentException("Неизвестная операция " + operation);
+        }
+    }
+
+    private HttpRequest get(String path, long userId) {
+        return HttpRequest.newBuilder(URI.create(gatewayUrl + path))
+                .header(HEADER_ID, String.valueOf(userId))
+                .GET()
+                .build();
+    }
+
+    private HttpRequest send(String method, String path, long userId, String body) {
+        return HttpRequest.newBuilder(URI.create(gatewayUrl + path))
+                .header(HEADER_ID, String.valueOf(userId))
+                .header("Content-Type", "application/json")
+                .method(method, body == null ? HttpRequest.BodyPublishers.noBody()
+                        : HttpRequest.BodyPublishers.ofString(body))
+                .build();
+    }
+
+    private void rememberBooking(HttpRequest request, byte[] body) {
+        try {
+            JsonNode booking = objectMapper.readTree(body);
+            long itemId = booking.path("item").path("id").asLong();
+            if (booking.hasNonNull("id") && itemId > 0 && itemId < dataset.getItemOwners().length) {
+                waitingBookings.add(new long[]{booking.get("id").asLong(), dataset.getItemOwners()[(int) itemId]});
+            }
+        } catch (IOException e) {
+            log.debug("Unreadable booking in the response to {}: {}", request.uri(), e.getMessage());
+        }
+    }
+
+    private void record(Operation operation, long sent, int status) {
+        if (sent < measureFrom) {
+            return;
+        }
+        Stats operationStats = stats.get(operation);
+        operationStats.latency.recordValue(Math.min(TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - sent),
+                MAX_LATENCY_US));
+        if (status == 0 || status >= 500) {
+            operationStats.serverErrors.increment();
+        } else if (status >= 400) {
+            operationStats.clientErrors.increment();
+        }
+    }
+
+    private void report(PrintStream out, Duration duration) {
+        double seconds = duration.toMillis() / 1000.0;
+        Histogram total = new Histogram(MAX_LATENCY_US, 3);
+        long clientErrors = 0;
+        long serverErrors = 0;
+        out.printf("%-32s %9s %9s %7s %7s %9s %9s %9s %9s%n",
+                "endpoint", "requests", "req/s", "4xx", "5xx", "p50 ms", "p99 ms", "p999 ms", "max ms");
+        for (Operation operation : Operation.values()) {
+            Stats operationStats = stats.get(operation);
+            if (operationStats.latency.getTotalCount() == 0) {
+                continue;
+            }
+            total.add(operationStats.latency);
+            clientErrors += operationStats.clientErrors.sum();
+            serverErrors += operationStats.serverErrors.sum();
+            print(out, operation.getEndpoint(), operationStats.latency, seconds,
+                    operationStats.clientErrors.sum(), operationStats.serverErrors.sum());
+        }
+        print(out, "total", total, seconds, clientErrors, serverErrors);
+    }
+
+    private static void print(PrintStream out, String endpoint, Histogram latency, double seconds,
+                              long clientErrors, long serverErrors) {
+        out.printf("%-32s %9d %9.1f %7d %7d %9.2f %9.2f %9.2f %9.2f%n", endpoint, latency.getTotalCount(),
+                latency.getTotalCount() / seconds, clientErrors, serverErrors,
+                latency.getValueAtPercentile(50) / 1000.0, latency.getValueAtPercentile(99) / 1000.0,
+                latency.getValueAtPercentile(99.9) / 1000.0, latency.getMaxValue() / 1000.0);
+    }
+
+    private static class Stats {
+
+        private final Histogram latency = new ConcurrentHistogram(MAX_LATENCY_US, 3);
+        private final LongAdder clientErrors = new LongAdder();
+        private final LongAdder serverErrors = new LongAdder();
+    }
+}
@@ -0,0 +1,28 @@
+package ru.practicum.shareitbenchmarks.load;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Ranks {@code 1..n} drawn with probability proportional to {@code 1 / rank^exponent}; an exponent of
+ * {@code 0} is uniform, around {@code 1} a few ranks take most of the draws.
+ */
+public class Zipf {
+
+    private final double[] cumulative;
+
+    public Zipf(int n, double exponent) {
+        cumulative = new double[n];
+        double sum = 0;
+        for (int rank = 1; rank <= n; rank++) {
+            sum += 1 / Math.pow(rank, exponent);
+            cumulative[rank - 1] = sum;
+        }
+    }
+
+    public long next(Random random) {
+        double value = random.nextDouble() * cumulative[cumulative.length - 1];
+        int index = Arrays.binarySearch(cumulative, value);
+        return (index >= 0 ? index : -index - 1) + 1;
+    }
+}
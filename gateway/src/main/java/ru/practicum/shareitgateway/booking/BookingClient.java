@@ -6,12 +6,17 @@ import org.springframework.stereotype.Service;
 import ru.practicum.shareitgateway.booking.dto.BookingDto;
 import ru.practicum.shareitgateway.booking.dto.State;
 import ru.practicum.shareitgateway.client.BaseClient;
+import ru.practicum.shareitgateway.client.ClientMode;
+import ru.practicum.shareitgateway.client.EntitySnapshots;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.web.client.RestTemplateBuilder;
 import org.springframework.http.ResponseEntity;
-import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.http.client.ClientHttpRequestFactory;
 import org.springframework.web.util.DefaultUriBuilderFactory;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
 import ru.practicum.shareitgateway.exception.ValidationException;
+import java.util.HashMap;
 import java.util.Map;
 
 @Slf4j
@@ -20,24 +25,32 @@ public class BookingClient extends BaseClient {
 
     private static final String API_PREFIX = "/bookings";
 
+    private final EntitySnapshots entitySnapshots;
+
     @Autowired
-    public BookingClient(@Value("${shareit-server.url}") String serverUrl, RestTemplateBuilder builder) {
+    public BookingClient(@Value("${shareit-server.url}") String serverUrl, RestTemplateBuilder builder,
+                      ClientHttpRequestFactory shareItServerRequestFactory, WebClient shareItServerWebClient,
+                      @Value("${shareit-server.client-mode:BLOCKING}") ClientMode mode, EntitySnapshots entitySnapshots) {
         super(
                 builder
                         .uriTemplateHandler(new DefaultUriBuilderFactory(serverUrl + API_PREFIX))
-                        .requestFactory(HttpComponentsClientHttpRequestFactory::new)
-                        .build()
+                        .requestFactory(() -> shareItServerRequestFactory)
+                        .build(),
+                shareItServerWebClient.mutate().baseUrl(serverUrl + API_PREFIX).build(),
+                mode
         );
+        this.entitySnapshots = entitySnapshots;
     }
 
-    public ResponseEntity<Object> add(Long userId, BookingDto bookingDto) {
+    public Mono<ResponseEntity<Object>> add(Long userId, BookingDto bookingDto) {
         log.info("User: {}. Add booking {}", userId, bookingDto.toString());
         checkDate(bookingDto);
+        entitySnapshots.checkBooking(userId, bookingDto.getItemId());
 
         return post("", userId, bookingDto);
     }
 
-    public ResponseEntity<Object> approve(Long bookingId, Long userId, Boolean approved) {
+    public Mono<ResponseEntity<Object>> approve(Long bookingId, Long userId, Boolean approved) {
         log.info("User: {}. Add approve {} for booking {}", userId, approved, bookingId);
 
         Map<String, Object> parameters = Map.of(
@@ -47,36 +60,39 @@ public class BookingClient extends BaseClient {
         return patch("/" + bookingId + "?approved={approved}", userId, parameters, null);
     }
 
-    public ResponseEntity<Object> findById(long userId, Long bookingId) {
+    public Mono<ResponseEntity<Object>> findById(long userId, Long bookingId) {
         return get("/" + bookingId, userId);
     }
 
-    public ResponseEntity<Object> findAllByUser(Long userId, String state, int from, int size) {
+    public Mono<ResponseEntity<Object>> findAllByUser(Long userId, String state, int from, int size, String cursor) {
         checkParam(from, size);
         State stateBooking = State.from(state)
                 .orElseThrow(() -> new ValidationException("Unknown state: UNSUPPORTED_STATUS"));
 
-        Map<String, Object> parameters = Map.of(
-                "state", stateBooking.name(),
-                "from", from,
-                "size", size
-        );
-
-        return get("?state={state}&from={from}&size={size}", userId, parameters);
+        return get(listQuery(cursor), userId, listParameters(stateBooking, from, size, cursor));
     }
 
-    public ResponseEntity<Object> findAllByOwner(Long userId, String state, int from, int size) {
+    public Mono<ResponseEntity<Object>> findAllByOwner(Long userId, String state, int from, int size, String cursor) {
         checkParam(from, size);
         State stateBooking = State.from(state)
                 .orElseThrow(() -> new ValidationException("Unknown state: UNSUPPORTED_STATUS"));
 
-        Map<String, Object> parameters = Map.of(
-                "state", stateBooking.name(),
-                "from", from,
-                "size", size
-        );
+        return get("/owner" + listQuery(cursor), userId, listParameters(stateBooking, from, size, cursor));
+    }
 
-        return get("/owner?state={state}&from={from}&size={size}", userId, parameters);
+    private static String listQuery(String cursor) {
+        return cursor == null ? "?state={state}&from={from}&size={size}" : "?state={state}&size={size}&cursor={cursor}";
+    }
+
+    private static Map<String, Object> listParameters(State state, int from, int size, String cursor) {
+        Map<String, Object> parameters = new HashMap<>();
+        parameters.put("state", state.name());
+        parameters.put("from", from);
+        parameters.put("size", size);
+        if (cursor != null) {
+            parameters.put("cursor", cursor);
+        }
+        return parameters;
     }
 
     private void checkDate(BookingDto booking) {
@@ -4,6 +4,7 @@ import javax.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Mono;
 import ru.practicum.shareitgateway.booking.dto.BookingDto;
 
 @RestController
@@ -15,33 +16,35 @@ public class BookingController {
     private static final String HEADER_ID = "X-Sharer-User-Id";
 
     @PostMapping
-    public ResponseEntity<Object> addBooking(@RequestHeader(HEADER_ID) Long userId, @Valid @RequestBody BookingDto bookingDto) {
+    public Mono<ResponseEntity<Object>> addBooking(@RequestHeader(HEADER_ID) Long userId, @Valid @RequestBody BookingDto bookingDto) {
         return bookingClient.add(userId, bookingDto);
     }
 
     @PatchMapping("/{bookingId}")
-    public ResponseEntity<Object> approveBooking(@RequestHeader(HEADER_ID) Long userId,
+    public Mono<ResponseEntity<Object>> approveBooking(@RequestHeader(HEADER_ID) Long userId,
                     @PathVariable Long bookingId, @RequestParam Boolean approved) {
         return bookingClient.approve(bookingId, userId, approved);
     }
 
     @GetMapping("/{bookingId}")
-    public ResponseEntity<Object> findByIdBooking(@RequestHeader(HEADER_ID) Long userId, @PathVariable Long bookingId) {
+    public Mono<ResponseEntity<Object>> findByIdBooking(@RequestHeader(HEADER_ID) Long userId, @PathVariable Long bookingId) {
         return bookingClient.findById(userId, bookingId);
     }
 
     @GetMapping
-    public ResponseEntity<Object> findAllByUserBooking(@RequestHeader(HEADER_ID) Long userId,
+    public Mono<ResponseEntity<Object>> findAllByUserBooking(@RequestHeader(HEADER_ID) Long userId,
                     @RequestParam(defaultValue = "ALL") String state,
-                    @RequestParam(defaultValue = "0") Integer from, @RequestParam(defaultValue = "5")  Integer size) {
-        return bookingClient.findAllByUser(userId, state, from, size);
+                    @RequestParam(defaultValue = "0") Integer from, @RequestParam(defaultValue = "5")  Integer size,
+                    @RequestParam(required = false) String cursor) {
+        return bookingClient.findAllByUser(userId, state, from, size, cursor);
     }
 
     @GetMapping("/owner")
-    public ResponseEntity<Object> findAllByOwnerBooking(@RequestHeader(HEADER_ID) Long userId,
+    public Mono<ResponseEntity<Object>> findAllByOwnerBooking(@RequestHeader(HEADER_ID) Long userId,
                     @RequestParam(defaultValue = "ALL") String state,
-                    @RequestParam(defaultValue = "0") Integer from, @RequestParam(defaultValue = "5")  Integer size) {
-        return bookingClient.findAllByOwner(userId, state, from, size);
+                    @RequestParam(defaultValue = "0") Integer from, @RequestParam(defaultValue = "5")  Integer size,
+                    @RequestParam(required = false) String cursor) {
+        return bookingClient.findAllByOwner(userId, state, from, size, cursor);
     }
 
 }
@@ -1,97 +1,238 @@
 package ru.practicum.shareitgateway.client;
 
+import java.net.URI;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Supplier;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpEntity;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.lang.Nullable;
 import org.springframework.web.client.HttpStatusCodeException;
 import org.springframework.web.client.RestTemplate;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
 
+/**
+ * Proxies calls to the server. Response bodies are passed through as raw bytes together with the
+ * {@link #PASSTHROUGH_HEADERS}, so the gateway never builds an object tree for what it only forwards.
+ */
 public class BaseClient {
+    private static final List<String> PASSTHROUGH_HEADERS = List.of(HttpHeaders.CONTENT_TYPE, "X-Next-Cursor",
+            HttpHeaders.ETAG, HttpHeaders.LAST_MODIFIED, HttpHeaders.CACHE_CONTROL);
+
     protected final RestTemplate rest;
+    protected final WebClient webClient;
+    private final ClientMode mode;
+    private final String route;
+    private SingleFlight singleFlight;
+    private ResponseCache responseCache;
+    private UpstreamGuard upstreamGuard;
+    private ReadPolicy readPolicy;
+    private MeterRegistry meterRegistry;
 
-    public BaseClient(RestTemplate rest) {
+    public BaseClient(RestTemplate rest, WebClient webClient, ClientMode mode) {
         this.rest = rest;
+        this.webClient = webClient;
+        this.mode = mode;
+        String basePath = rest.getUriTemplateHandler().expand("").getPath();
+        this.route = basePath == null || basePath.isEmpty() ? "/" : basePath;
+    }
+
+    @Autowired(required = false)
+    public void setSingleFlight(SingleFlight singleFlight) {
+        this.singleFlight = singleFlight;
+    }
+
+    @Autowired(required = false)
+    public void setResponseCache(ResponseCache responseCache) {
+        this.responseCache = responseCache;
+    }
+
+    @Autowired(required = false)
+    public void setUpstreamGuards(UpstreamGuards upstreamGuards) {
+        this.upstreamGuard = upstreamGuards.forRoute(route);
+    }
+
+    @Autowired(required = false)
+    public void setReadPolicy(ReadPolicy readPolicy) {
+        this.readPolicy = readPolicy;
     }
 
-    protected ResponseEntity<Object> get(String path) {
+    @Autowired(required = false)
+    public void setMeterRegistry(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    protected Mono<ResponseEntity<Object>> get(String path) {
         return get(path, null, null);
     }
 
-    protected ResponseEntity<Object> get(String path, long userId) {
+    protected Mono<ResponseEntity<Object>> get(String path, long userId) {
         return get(path, userId, null);
     }
 
-    protected ResponseEntity<Object> get(String path, Long userId, @Nullable Map<String, Object> parameters) {
-        return makeAndSendRequest(HttpMethod.GET, path, userId, parameters, null);
+    /**
+     * A 200 whose ETag matches the client's {@code If-None-Match} is turned into a 304 by Spring MVC on the
+     * way out. The header also goes to the server when the gateway has no copy of its own, so an unchanged
+     * representation is not transferred at all.
+     */
+    protected Mono<ResponseEntity<Object>> get(String path, Long userId, @Nullable Map<String, Object> parameters) {
+        String clientETag = clientETag();
+        if (singleFlight == null && responseCache == null) {
+            return makeAndSendRequest(HttpMethod.GET, path, userId, parameters, null, clientETag);
+        }
+        String key = requestKey(path, userId, parameters);
+        Supplier<Mono<ResponseEntity<Object>>> call = responseCache == null
+                ? () -> makeAndSendRequest(HttpMethod.GET, path, userId, parameters, null, clientETag)
+                : () -> responseCache.revalidate(key, clientETag,
+                        eTag -> makeAndSendRequest(HttpMethod.GET, path, userId, parameters, null, eTag));
+        // A 304 only answers callers that sent that ETag.
+        return singleFlight == null ? call.get()
+                : singleFlight.execute(clientETag == null ? key : key + " " + clientETag, call);
     }
 
-    protected <T> ResponseEntity<Object> post(String path, T body) {
+    protected <T> Mono<ResponseEntity<Object>> post(String path, T body) {
         return post(path, null, null, body);
     }
 
-    protected <T> ResponseEntity<Object> post(String path, long userId, T body) {
+    protected <T> Mono<ResponseEntity<Object>> post(String path, long userId, T body) {
         return post(path, userId, null, body);
     }
 
-    protected <T> ResponseEntity<Object> post(String path, Long userId, @Nullable Map<String, Object> parameters, T body) {
+    protected <T> Mono<ResponseEntity<Object>> post(String path, Long userId, @Nullable Map<String, Object> parameters, T body) {
         return makeAndSendRequest(HttpMethod.POST, path, userId, parameters, body);
     }
 
-    protected <T> ResponseEntity<Object> put(String path, long userId, T body) {
+    protected <T> Mono<ResponseEntity<Object>> put(String path, long userId, T body) {
         return put(path, userId, null, body);
     }
 
-    protected <T> ResponseEntity<Object> put(String path, long userId, @Nullable Map<String, Object> parameters, T body) {
+    protected <T> Mono<ResponseEntity<Object>> put(String path, long userId, @Nullable Map<String, Object> parameters, T body) {
         return makeAndSendRequest(HttpMethod.PUT, path, userId, parameters, body);
     }
 
-    protected <T> ResponseEntity<Object> patch(String path, T body) {
+    protected <T> Mono<ResponseEntity<Object>> patch(String path, T body) {
         return patch(path, null, null, body);
     }
 
-    protected <T> ResponseEntity<Object> patch(String path, long userId) {
+    protected <T> Mono<ResponseEntity<Object>> patch(String path, long userId) {
         return patch(path, userId, null, null);
     }
 
-    protected <T> ResponseEntity<Object> patch(String path, long userId, T body) {
+    protected <T> Mono<ResponseEntity<Object>> patch(String path, long userId, T body) {
         return patch(path, userId, null, body);
     }
 
-    protected <T> ResponseEntity<Object> patch(String path, Long userId, @Nullable Map<String, Object> parameters, T body) {
+    protected <T> Mono<ResponseEntity<Object>> patch(String path, Long userId, @Nullable Map<String, Object> parameters, T body) {
         return makeAndSendRequest(HttpMethod.PATCH, path, userId, parameters, body);
     }
 
-    protected ResponseEntity<Object> delete(String path) {
+    protected Mono<ResponseEntity<Object>> delete(String path) {
         return delete(path, null, null);
     }
 
-    protected ResponseEntity<Object> delete(String path, long userId) {
+    protected Mono<ResponseEntity<Object>> delete(String path, long userId) {
         return delete(path, userId, null);
     }
 
-    protected ResponseEntity<Object> delete(String path, Long userId, @Nullable Map<String, Object> parameters) {
+    protected Mono<ResponseEntity<Object>> delete(String path, Long userId, @Nullable Map<String, Object> parameters) {
         return makeAndSendRequest(HttpMethod.DELETE, path, userId, parameters, null);
     }
 
-    private <T> ResponseEntity<Object> makeAndSendRequest(HttpMethod method, String path, Long userId, @Nullable Map<String, Object> parameters, @Nullable T body) {
-        HttpEntity<T> requestEntity = new HttpEntity<>(body, defaultHeaders(userId));
+    private <T> Mono<ResponseEntity<Object>> makeAndSendRequest(HttpMethod method, String path, Long userId, @Nullable Map<String, Object> parameters, @Nullable T body) {
+        return makeAndSendRequest(method, path, userId, parameters, body, null);
+    }
+
+    private <T> Mono<ResponseEntity<Object>> makeAndSendRequest(HttpMethod method, String path, Long userId, @Nullable Map<String, Object> parameters, @Nullable T body,
+                                                                @Nullable String eTag) {
+        HttpHeaders headers = defaultHeaders(userId);
+        if (eTag != null) {
+            headers.setIfNoneMatch(eTag);
+        }
+        Mono<ResponseEntity<Object>> call = mode == ClientMode.REACTIVE
+                ? exchange(method, path, headers, parameters, body)
+                : Mono.fromCallable(() -> exchangeBlocking(method, path, headers, parameters, body));
+        Mono<ResponseEntity<Object>> timed = meterRegistry == null ? call : timed(method, call);
+        Mono<ResponseEntity<Object>> guarded = upstreamGuard == null ? timed : upstreamGuard.protect(timed);
+        return readPolicy == null ? guarded : readPolicy.apply(route, method, guarded, mode == ClientMode.BLOCKING);
+    }
+
+    /**
+     * Times every call that reaches the server, retries and hedges included, as {@code gateway.upstream.requests}
+     * per route, method and response status; {@code IO_ERROR} when there was no response, {@code CANCELLED}
+     * when a hedge won first.
+     */
+    private Mono<ResponseEntity<Object>> timed(HttpMethod method, Mono<ResponseEntity<Object>> call) {
+        return Mono.defer(() -> {
+            Timer.Sample sample = Timer.start(meterRegistry);
+            return call
+                    .doOnSuccess(response -> stop(sample, method,
+                            response != null ? String.valueOf(response.getStatusCodeValue()) : "NONE"))
+                    .doOnError(e -> stop(sample, method, "IO_ERROR"))
+                    .doOnCancel(() -> stop(sample, method, "CANCELLED"));
+        });
+    }
 
-        ResponseEntity<Object> shareitServerResponse;
+    private void stop(Timer.Sample sample, HttpMethod method, String status) {
+        sample.stop(Timer.builder("gateway.upstream.requests")
+                .description("Calls from the gateway to the server")
+                .tag("route", route)
+                .tag("method", method.name())
+                .tag("status", status)
+                .register(meterRegistry));
+    }
+
+    private <T> Mono<ResponseEntity<Object>> exchange(HttpMethod method, String path, HttpHeaders headers, @Nullable Map<String, Object> parameters, @Nullable T body) {
+        WebClient.RequestBodySpec request = webClient.method(method)
+                .uri(path, parameters != null ? parameters : Map.of())
+                .headers(requestHeaders -> requestHeaders.addAll(headers));
+        WebClient.RequestHeadersSpec<?> requestWithBody = body != null ? request.bodyValue(body) : request;
+
+        return requestWithBody.exchangeToMono(response -> response.toEntity(byte[].class))
+                .map(response -> prepareGatewayResponse(response.getStatusCode(), response.getHeaders(), response.getBody()));
+    }
+
+    private <T> ResponseEntity<Object> exchangeBlocking(HttpMethod method, String path, HttpHeaders headers, @Nullable Map<String, Object> parameters, @Nullable T body) {
+        HttpEntity<T> requestEntity = new HttpEntity<>(body, headers);
+
+        ResponseEntity<byte[]> shareitServerResponse;
         try {
             if (parameters != null) {
-                shareitServerResponse = rest.exchange(path, method, requestEntity, Object.class, parameters);
+                shareitServerResponse = rest.exchange(path, method, requestEntity, byte[].class, parameters);
             } else {
-                shareitServerResponse = rest.exchange(path, method, requestEntity, Object.class);
+                shareitServerResponse = rest.exchange(path, method, requestEntity, byte[].class);
             }
         } catch (HttpStatusCodeException e) {
-            return ResponseEntity.status(e.getStatusCode()).body(e.getResponseBodyAsByteArray());
+            return prepareGatewayResponse(e.getStatusCode(), e.getResponseHeaders(), e.getResponseBodyAsByteArray());
         }
-        return prepareGatewayResponse(shareitServerResponse);
+        return prepareGatewayResponse(shareitServerResponse.getStatusCode(), shareitServerResponse.getHeaders(),
+                shareitServerResponse.getBody());
+    }
+
+    private String requestKey(String path, Long userId, @Nullable Map<String, Object> parameters) {
+        URI uri = parameters != null
+                ? rest.getUriTemplateHandler().expand(path, parameters)
+                : rest.getUriTemplateHandler().expand(path);
+        return userId + " " + uri;
+    }
+
+    @Nullable
+    private static String clientETag() {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (!(attributes instanceof ServletRequestAttributes)) {
+            return null;
+        }
+        return ((ServletRequestAttributes) attributes).getRequest().getHeader(HttpHeaders.IF_NONE_MATCH);
     }
 
     private HttpHeaders defaultHeaders(Long userId) {
@@ -104,17 +245,17 @@ public class BaseClient {
         return headers;
     }
 
-    private static ResponseEntity<Object> prepareGatewayResponse(ResponseEntity<Object> response) {
-        if (response.getStatusCode().is2xxSuccessful()) {
-            return response;
-        }
-
-        ResponseEntity.BodyBuilder responseBuilder = ResponseEntity.status(response.getStatusCode());
-
-        if (response.hasBody()) {
-            return responseBuilder.body(response.getBody());
+    private static ResponseEntity<Object> prepareGatewayResponse(HttpStatus status, @Nullable HttpHeaders serverHeaders,
+                                                                 @Nullable byte[] body) {
+        HttpHeaders headers = new HttpHeaders();
+        if (serverHeaders != null) {
+            for (String name : PASSTHROUGH_HEADERS) {
+                List<String> values = serverHeaders.get(name);
+                if (values != null) {
+                    headers.put(name, values);
+                }
+            }
         }
-
-        return responseBuilder.build();
+        return new ResponseEntity<>(body != null && body.length > 0 ? body : null, headers, status);
     }
-}
\ No newline at end of file
+}
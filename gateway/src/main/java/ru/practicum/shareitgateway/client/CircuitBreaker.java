@@ -0,0 +1,114 @@
+package ru.practicum.shareitgateway.client;
+
+import java.util.function.LongSupplier;
+
+/**
+ * Count-based circuit breaker. Opens when at least {@code failureRatePercent} of the last
+ * {@code windowSize} calls failed (once {@code minCalls} were seen), refuses calls for {@code openNanos},
+ * then lets {@code halfOpenCalls} probes through: one failure opens it again, all of them succeeding
+ * closes it.
+ */
+class CircuitBreaker {
+
+    enum State {
+        CLOSED, OPEN, HALF_OPEN
+    }
+
+    private final int minCalls;
+    private final int failureRatePercent;
+    private final long openNanos;
+    private final int halfOpenCalls;
+    private final LongSupplier clock;
+    private final boolean[] window;
+
+    private State state = State.CLOSED;
+    private int position;
+    private int calls;
+    private int failures;
+    private long openedAt;
+    private int probes;
+    private int probeSuccesses;
+
+    CircuitBreaker(int windowSize, int minCalls, int failureRatePercent, long openNanos, int halfOpenCalls,
+                   LongSupplier clock) {
+        this.window = new boolean[windowSize];
+        this.minCalls = minCalls;
+        this.failureRatePercent = failureRatePercent;
+        this.openNanos = openNanos;
+        this.halfOpenCalls = halfOpenCalls;
+        this.clock = clock;
+    }
+
+    synchronized boolean tryAcquire() {
+        if (state == State.OPEN) {
+            if (clock.getAsLong() - openedAt < openNanos) {
+                return false;
+            }
+            state = State.HALF_OPEN;
+            probes = 0;
+            probeSuccesses = 0;
+        }
+        if (state == State.HALF_OPEN) {
+            if (probes >= halfOpenCalls) {
+                return false;
+            }
+            probes++;
+        }
+        return true;
+    }
+
+    /**
+     * Gives back a permission that was not used for a call.
+     */
+    synchronized void release() {
+        if (state == State.HALF_OPEN && probes > 0) {
+            probes--;
+        }
+    }
+
+    synchronized void record(boolean success) {
+        if (state == State.HALF_OPEN) {
+            if (!success) {
+                open();
+            } else if (++probeSuccesses >= halfOpenCalls) {
+                close();
+            }
+            return;
+        }
+        if (state == State.OPEN) {
+            return;
+        }
+        if (calls == window.length) {
+            failures -= window[position] ? 1 : 0;
+        } else {
+            calls++;
+        }
+        window[position] = !success;
+        failures += success ? 0 : 1;
+        position = (position + 1) % window.length;
+        if (calls >= minCalls && failures * 100 >= failureRatePercent * calls) {
+            open();
+        }
+    }
+
+    synchronized State getState() {
+        return state;
+    }
+
+    private void open() {
+        state = State.OPEN;
+        openedAt = clock.getAsLong();
+        resetWindow();
+    }
+
+    private void close() {
+        state = State.CLOSED;
+        resetWindow();
+    }
+
+    private void resetWindow() {
+        position = 0;
+        calls = 0;
+        failures = 0;
+    }
+}
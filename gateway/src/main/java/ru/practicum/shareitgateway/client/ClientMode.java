@@ -0,0 +1,11 @@
+package ru.practicum.shareitgateway.client;
+
+/**
+ * How {@link BaseClient} talks to the server: {@code BLOCKING} runs {@code RestTemplate} on a bounded elastic
+ * thread, {@code REACTIVE} goes through the shared {@code WebClient} and holds no thread until the answer
+ * arrives. Either way the servlet request thread is released while the call is in flight.
+ */
+public enum ClientMode {
+    BLOCKING,
+    REACTIVE
+}
@@ -0,0 +1,230 @@
+package ru.practicum.shareitgateway.client;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Ticker;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import lombok.Data;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareitgateway.exception.NotFoundException;
+import ru.practicum.shareitgateway.exception.ValidationException;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiConsumer;
+
+/**
+ * What the gateway has learned about users and items from server responses: ids the server answered 404
+ * for and the owner and availability of items. Lets the gateway reject requests the server would
+ * certainly reject. Every entry expires after {@code ttlMs}, so changes made through other gateways are
+ * picked up eventually; at most {@code maxEntries} entries per kind are kept, the least recently used
+ * ones being evicted first.
+ */
+@Slf4j
+@Component
+public class EntitySnapshots {
+
+    private final Cache<Long, Boolean> missingUsers;
+    private final Cache<Long, Boolean> missingItems;
+    private final Cache<Long, ItemSnapshot> items;
+    private final boolean enabled;
+    private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
+
+    @Autowired
+    public EntitySnapshots(@Value("${shareit-server.snapshots.enabled:true}") boolean enabled,
+                           @Value("${shareit-server.snapshots.ttl-ms:60000}") long ttlMs,
+                           @Value("${shareit-server.snapshots.max-entries:100000}") int maxEntries,
+                           ObjectMapper objectMapper, MeterRegistry meterRegistry) {
+        this(enabled, ttlMs, maxEntries, objectMapper, meterRegistry, Ticker.systemTicker());
+    }
+
+    EntitySnapshots(boolean enabled, long ttlMs, int maxEntries, ObjectMapper objectMapper,
+                    MeterRegistry meterRegistry, Ticker ticker) {
+        this.enabled = enabled;
+        this.objectMapper = objectMapper;
+        this.meterRegistry = meterRegistry;
+        this.missingUsers = cache(ttlMs, maxEntries, ticker, "missing_user");
+        this.missingItems = cache(ttlMs, maxEntries, ticker, "missing_item");
+        this.items = cache(ttlMs, maxEntries, ticker, "item");
+    }
+
+    public void checkUser(Long userId) {
+        if (missingUsers.getIfPresent(userId) != null) {
+            reject("user_missing");
+            throw new NotFoundException("Пользователь не найден");
+        }
+    }
+
+    public void checkItem(Long itemId) {
+        if (missingItems.getIfPresent(itemId) != null) {
+            reject("item_missing");
+            throw new NotFoundException("Вещь не найдена");
+        }
+    }
+
+    /**
+     * Same checks, in the same order, as the server runs before looking for overlapping bookings.
+     */
+    public void checkBooking(Long userId, Long itemId) {
+        checkUser(userId);
+        checkItem(itemId);
+        ItemSnapshot item = items.getIfPresent(itemId);
+        if (item == null) {
+            return;
+        }
+        if (userId.equals(item.getOwnerId())) {
+            reject("own_item");
+            throw new NotFoundException("Вещь ваша, берите так!");
+        }
+        if (!item.isAvailable()) {
+            reject("item_unavailable");
+            throw new ValidationException("Вещь недоступна");
+        }
+    }
+
+    public void recordUser(Long userId, ResponseEntity<Object> response) {
+        if (response.getStatusCode() == HttpStatus.NOT_FOUND) {
+            put(missingUsers, userId, true);
+        } else if (response.getStatusCode().is2xxSuccessful()) {
+            missingUsers.invalidate(userId);
+        }
+    }
+
+    /**
+     * Forgets that the created users were missing: a 404 seen before the user was created must not
+     * outlive the creation.
+     */
+    public void recordUsersCreated(ResponseEntity<Object> response) {
+        if (response.getStatusCode().is2xxSuccessful()) {
+            readEntities(response, (id, available) -> missingUsers.invalidate(id));
+        }
+    }
+
+    public void recordUserDeleted(Long userId, ResponseEntity<Object> response) {
+        if (response.getStatusCode().is2xxSuccessful()) {
+            put(missingUsers, userId, true);
+        }
+    }
+
+    /**
+     * Records an item from a single-item response. {@code ownerId} is {@code null} when the call does not
+     * prove ownership; the owner known from earlier responses is kept then.
+     */
+    public void recordItem(@Nullable Long itemId, @Nullable Long ownerId, ResponseEntity<Object> response) {
+        if (response.getStatusCode() == HttpStatus.NOT_FOUND && itemId != null) {
+            items.invalidate(itemId);
+            put(missingItems, itemId, true);
+        } else if (response.getStatusCode().is2xxSuccessful()) {
+            readEntities(response, (id, available) -> putItem(id, available, ownerId));
+        }
+    }
+
+    public void recordItems(Long ownerId, ResponseEntity<Object> response) {
+        if (response.getStatusCode().is2xxSuccessful()) {
+            readEntities(response, (id, available) -> putItem(id, available, ownerId));
+        }
+    }
+
+    public void recordItemDeleted(Long itemId, ResponseEntity<Object> response) {
+        if (response.getStatusCode().is2xxSuccessful()) {
+            items.invalidate(itemId);
+            put(missingItems, itemId, true);
+        }
+    }
+
+    private void putItem(@Nullable Long itemId, @Nullable Boolean available, @Nullable Long ownerId) {
+        if (itemId == null || available == null) {
+            return;
+        }
+        missingItems.invalidate(itemId);
+        ItemSnapshot previous = items.getIfPresent(itemId);
+        Long owner = ownerId != null || previous == null ? ownerId : previous.getOwnerId();
+        put(items, itemId, new ItemSnapshot(owner, available));
+    }
+
+    private <V> void put(Cache<Long, V> cache, Long id, V value) {
+        if (enabled) {
+            cache.put(id, value);
+        }
+    }
+
+    private <V> Cache<Long, V> cache(long ttlMs, int maxEntries, Ticker ticker, String kind) {
+        Cache<Long, V> cache = Caffeine.newBuilder()
+                .expireAfterWrite(ttlMs, TimeUnit.MILLISECONDS)
+                .maximumSize(maxEntries)
+                .ticker(ticker)
+                .build();
+        meterRegistry.gauge("gateway.snapshots.size", Tags.of("kind", kind), cache, Cache::estimatedSize);
+        return cache;
+    }
+
+    /**
+     * Streams the top-level {@code id} and {@code available} of an entity, a list of entities or the
+     * {@code created} list of a batch result, skipping everything else: list bodies can be large and
+     * nothing more is needed from them.
+     */
+    private void readEntities(ResponseEntity<Object> response, BiConsumer<Long, Boolean> consumer) {
+        if (!(response.getBody() instanceof byte[])) {
+            return;
+        }
+        try (JsonParser parser = objectMapper.getFactory().createParser((byte[]) response.getBody())) {
+            JsonToken token = parser.nextToken();
+            if (token == JsonToken.START_ARRAY) {
+                readArray(parser, consumer);
+            } else if (token == JsonToken.START_OBJECT) {
+                readObject(parser, consumer);
+            }
+        } catch (IOException e) {
+            log.debug("Не удалось разобрать ответ сервера: {}", e.getMessage());
+        }
+    }
+
+    private static void readArray(JsonParser parser, BiConsumer<Long, Boolean> consumer) throws IOException {
+        while (parser.nextToken() == JsonToken.START_OBJECT) {
+            readObject(parser, consumer);
+        }
+    }
+
+    private static void readObject(JsonParser parser, BiConsumer<Long, Boolean> consumer) throws IOException {
+        Long id = null;
+        Boolean available = null;
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.getCurrentName();
+            JsonToken value = parser.nextToken();
+            if ("id".equals(field) && value == JsonToken.VALUE_NUMBER_INT) {
+                id = parser.getLongValue();
+            } else if ("available".equals(field) && value.isBoolean()) {
+                available = parser.getBooleanValue();
+            } else if ("created".equals(field) && value == JsonToken.START_ARRAY) {
+                readArray(parser, consumer);
+            } else {
+                parser.skipChildren();
+            }
+        }
+        if (id != null) {
+            consumer.accept(id, available);
+        }
+    }
+
+    private void reject(String reason) {
+        meterRegistry.counter("gateway.snapshots.rejected", "reason", reason).increment();
+    }
+
+    @Data
+    private static class ItemSnapshot {
+
+        private final Long ownerId;
+        private final boolean available;
+    }
+}
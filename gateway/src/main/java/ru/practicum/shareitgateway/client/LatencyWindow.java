@@ -0,0 +1,45 @@
+package ru.practicum.shareitgateway.client;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The last {@code size} latencies of a route and a percentile of them, recomputed every
+ * {@code recomputeEvery} samples so reading it stays cheap. Writers do not synchronize, an occasional
+ * torn sample does not matter for a delay estimate.
+ */
+class LatencyWindow {
+
+    private final long[] samples;
+    private final double percentile;
+    private final int recomputeEvery;
+    private final AtomicLong count = new AtomicLong();
+    private volatile long value = -1;
+
+    LatencyWindow(int size, double percentile, int recomputeEvery) {
+        this.samples = new long[size];
+        this.percentile = percentile;
+        this.recomputeEvery = recomputeEvery;
+    }
+
+    void record(long nanos) {
+        long n = count.getAndIncrement();
+        samples[(int) (n % samples.length)] = nanos;
+        if ((n + 1) % recomputeEvery == 0) {
+            recompute(n + 1);
+        }
+    }
+
+    /**
+     * @return the percentile in nanoseconds, or {@code -1} until {@code recomputeEvery} samples were seen
+     */
+    long percentile() {
+        return value;
+    }
+
+    private void recompute(long seen) {
+        long[] sorted = Arrays.copyOf(samples, (int) Math.min(seen, samples.length));
+        Arrays.sort(sorted);
+        value = sorted[Math.max(0, (int) Math.ceil(percentile * sorted.length) - 1)];
+    }
+}
@@ -0,0 +1,123 @@
+package ru.practicum.shareitgateway.client;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.apache.http.NoHttpResponseException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+import reactor.netty.http.client.PrematureCloseException;
+import reactor.util.retry.Retry;
+
+import java.net.ConnectException;
+import java.net.SocketException;
+import java.time.Duration;
+import java.util.Locale;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Retries and hedging for reads. A GET that fails to connect or loses its connection before an answer is
+ * retried up to {@code maxRetries} times with jittered backoff; a read timeout is not, since the server is
+ * still working on the first attempt and a retry would only add to its load. With hedging on, a GET still running after the
+ * route's {@code percentile} latency gets a second, identical request and whichever answers first wins.
+ * Writes are never repeated: even DELETE answers differently the second time on this server.
+ */
+@Component
+public class ReadPolicy {
+
+    private final ConcurrentMap<String, LatencyWindow> latencies = new ConcurrentHashMap<>();
+    private final MeterRegistry meterRegistry;
+    private final int maxRetries;
+    private final Duration retryBackoff;
+    private final boolean hedgingEnabled;
+    private final double percentile;
+    private final long minDelayNanos;
+    private final long maxDelayNanos;
+
+    public ReadPolicy(MeterRegistry meterRegistry,
+                      @Value("${shareit-server.retry.max-retries:2}") int maxRetries,
+                      @Value("${shareit-server.retry.backoff-ms:50}") long retryBackoffMs,
+                      @Value("${shareit-server.hedging.enabled:false}") boolean hedgingEnabled,
+                      @Value("${shareit-server.hedging.percentile:0.95}") double percentile,
+                      @Value("${shareit-server.hedging.min-delay-ms:20}") long minDelayMs,
+                      @Value("${shareit-server.hedging.max-delay-ms:2000}") long maxDelayMs) {
+        this.meterRegistry = meterRegistry;
+        this.maxRetries = maxRetries;
+        this.retryBackoff = Duration.ofMillis(retryBackoffMs);
+        this.hedgingEnabled = hedgingEnabled;
+        this.percentile = percentile;
+        this.minDelayNanos = TimeUnit.MILLISECONDS.toNanos(minDelayMs);
+        this.maxDelayNanos = TimeUnit.MILLISECONDS.toNanos(maxDelayMs);
+    }
+
+    /**
+     * @param call     one attempt, subscribed again for every retry and hedge
+     * @param blocking whether subscribing to {@code call} blocks the subscribing thread; such calls are
+     *                 moved to the bounded elastic scheduler, so that neither the request thread nor the
+     *                 timer threads running retries and hedges are held by them
+     */
+    public Mono<ResponseEntity<Object>> apply(String route, HttpMethod method, Mono<ResponseEntity<Object>> call,
+                                              boolean blocking) {
+        Mono<ResponseEntity<Object>> offloaded = blocking ? call.subscribeOn(Schedulers.boundedElastic()) : call;
+        if (method != HttpMethod.GET && method != HttpMethod.HEAD) {
+            return offloaded;
+        }
+        Mono<ResponseEntity<Object>> attempt = timed(route, offloaded);
+        Mono<ResponseEntity<Object>> hedged = hedgingEnabled ? hedge(route, attempt) : attempt;
+        return hedged.retryWhen(Retry.backoff(maxRetries, retryBackoff)
+                .jitter(0.5)
+                .filter(ReadPolicy::isConnectionError)
+                .doBeforeRetry(signal -> meterRegistry.counter("gateway.retry.attempts", "route", route).increment())
+                .onRetryExhaustedThrow((spec, signal) -> signal.failure()));
+    }
+
+    private Mono<ResponseEntity<Object>> hedge(String route, Mono<ResponseEntity<Object>> attempt) {
+        return Mono.defer(() -> {
+            Mono<ResponseEntity<Object>> second = Mono.delay(Duration.ofNanos(hedgeDelay(route)))
+                    .then(Mono.defer(() -> {
+                        meterRegistry.counter("gateway.hedge.fired", "route", route).increment();
+                        return attempt;
+                    }));
+            return Mono.firstWithValue(attempt, second);
+        });
+    }
+
+    private long hedgeDelay(String route) {
+        long observed = window(route).percentile();
+        if (observed < 0) {
+            return maxDelayNanos;
+        }
+        return Math.min(maxDelayNanos, Math.max(minDelayNanos, observed));
+    }
+
+    private Mono<ResponseEntity<Object>> timed(String route, Mono<ResponseEntity<Object>> call) {
+        return Mono.defer(() -> {
+            long start = System.nanoTime();
+            return call.doOnSuccess(response -> window(route).record(System.nanoTime() - start));
+        });
+    }
+
+    private LatencyWindow window(String route) {
+        return latencies.computeIfAbsent(route, r -> new LatencyWindow(1024, percentile, 64));
+    }
+
+    private static boolean isConnectionError(Throwable e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof ConnectException
+                    || cause instanceof NoHttpResponseException
+                    || cause instanceof PrematureCloseException
+                    || cause instanceof SocketException && isConnectionReset(cause)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean isConnectionReset(Throwable e) {
+        return e.getMessage() != null && e.getMessage().toLowerCase(Locale.ROOT).contains("connection reset");
+    }
+}
@@ -0,0 +1,110 @@
+package ru.practicum.shareitgateway.client;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Keeps the last successful response of each GET that carried an {@code ETag} and revalidates it with
+ * {@code If-None-Match}: when the server answers 304, the cached response is returned instead. Holds at
+ * most {@code maxEntries} responses, least recently used ones are dropped first.
+ */
+@Component
+public class ResponseCache {
+
+    private final Map<String, ResponseEntity<Object>> entries;
+    private final boolean enabled;
+    private final int maxBodyBytes;
+    private final Counter hits;
+    private final Counter misses;
+
+    public ResponseCache(@Value("${shareit-server.response-cache.enabled:true}") boolean enabled,
+                         @Value("${shareit-server.response-cache.max-entries:10000}") int maxEntries,
+                         @Value("${shareit-server.response-cache.max-body-bytes:65536}") int maxBodyBytes,
+                         MeterRegistry meterRegistry) {
+        this.enabled = enabled;
+        this.maxBodyBytes = maxBodyBytes;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, ResponseEntity<Object>> eldest) {
+                return size() > maxEntries;
+            }
+        };
+        this.hits = Counter.builder("gateway.response_cache.requests")
+                .tag("result", "hit")
+                .description("GETs answered from the cache after the server confirmed the ETag")
+                .register(meterRegistry);
+        this.misses = Counter.builder("gateway.response_cache.requests")
+                .tag("result", "miss")
+                .description("GETs that needed a full response from the server")
+                .register(meterRegistry);
+        meterRegistry.gauge("gateway.response_cache.size", entries, this::size);
+    }
+
+    /**
+     * Runs {@code call} with the ETag of the cached response for {@code key} (or {@code null}) and
+     * resolves a 304 answer to that cached response.
+     */
+    public Mono<ResponseEntity<Object>> revalidate(String key, Function<String, Mono<ResponseEntity<Object>>> call) {
+        return revalidate(key, null, call);
+    }
+
+    /**
+     * Same, but sends {@code clientETag} when nothing is cached: a 304 for it is then returned as is, so
+     * the client's own copy is confirmed without the body crossing either hop.
+     */
+    public Mono<ResponseEntity<Object>> revalidate(String key, @Nullable String clientETag,
+                                                   Function<String, Mono<ResponseEntity<Object>>> call) {
+        if (!enabled) {
+            return call.apply(clientETag);
+        }
+        return Mono.defer(() -> {
+            ResponseEntity<Object> cached = get(key);
+            return call.apply(cached != null ? cached.getHeaders().getETag() : clientETag)
+                    .map(response -> {
+                        if (cached == null && response.getStatusCode() == HttpStatus.NOT_MODIFIED) {
+                            return response;
+                        }
+                        if (cached != null && response.getStatusCode() == HttpStatus.NOT_MODIFIED) {
+                            hits.increment();
+                            return cached;
+                        }
+                        misses.increment();
+                        store(key, response);
+                        return response;
+                    });
+        });
+    }
+
+    @Nullable
+    private synchronized ResponseEntity<Object> get(String key) {
+        return entries.get(key);
+    }
+
+    private synchronized void store(String key, ResponseEntity<Object> response) {
+        if (isCacheable(response)) {
+            entries.put(key, response);
+        } else {
+            entries.remove(key);
+        }
+    }
+
+    private synchronized int size(Map<String, ResponseEntity<Object>> entries) {
+        return entries.size();
+    }
+
+    private boolean isCacheable(ResponseEntity<Object> response) {
+        return response.getStatusCode() == HttpStatus.OK
+                && response.getHeaders().getETag() != null
+                && (!response.hasBody() || ((byte[]) response.getBody()).length <= maxBodyBytes);
+    }
+}
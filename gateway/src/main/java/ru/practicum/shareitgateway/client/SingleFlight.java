@@ -0,0 +1,67 @@
+package ru.practicum.shareitgateway.client;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+/**
+ * Lets concurrent identical calls share one upstream request: the first caller for a key starts it, everyone
+ * arriving before it completes gets the same result. At most {@code maxKeys} calls are tracked, the rest go
+ * straight upstream.
+ */
+@Component
+public class SingleFlight {
+
+    private final ConcurrentMap<String, Mono<?>> inFlight = new ConcurrentHashMap<>();
+    private final boolean enabled;
+    private final int maxKeys;
+    private final Counter merged;
+
+    public SingleFlight(@Value("${shareit-server.single-flight.enabled:true}") boolean enabled,
+                        @Value("${shareit-server.single-flight.max-keys:10000}") int maxKeys,
+                        MeterRegistry meterRegistry) {
+        this.enabled = enabled;
+        this.maxKeys = maxKeys;
+        this.merged = Counter.builder("gateway.single_flight.merged")
+                .description("Calls served by an identical call already in flight")
+                .register(meterRegistry);
+        meterRegistry.gauge("gateway.single_flight.in_flight", inFlight, ConcurrentMap::size);
+    }
+
+    @SuppressWarnings("unchecked")
+    public <T> Mono<T> execute(String key, Supplier<Mono<T>> call) {
+        if (!enabled) {
+            return call.get();
+        }
+        return Mono.defer(() -> {
+            Mono<T> existing = (Mono<T>) inFlight.get(key);
+            if (existing != null) {
+                merged.increment();
+                return existing;
+            }
+            if (inFlight.size() >= maxKeys) {
+                return call.get();
+            }
+            AtomicReference<Mono<T>> self = new AtomicReference<>();
+            Runnable release = () -> inFlight.remove(key, self.get());
+            Mono<T> flight = call.get()
+                    .doOnTerminate(release)
+                    .doOnCancel(release)
+                    .share();
+            self.set(flight);
+            Mono<T> raced = (Mono<T>) inFlight.putIfAbsent(key, flight);
+            if (raced != null) {
+                merged.increment();
+                return raced;
+            }
+            return flight;
+        });
+    }
+}
@@ -0,0 +1,92 @@
+package ru.practicum.shareitgateway.client;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import reactor.core.publisher.Mono;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Bulkhead and circuit breaker for one upstream route: at most {@code maxConcurrent} calls run at once,
+ * and calls that fail with 5xx, an I/O error or take longer than {@code slowCallNanos} feed the breaker.
+ * Refused calls get 503 straight away instead of waiting for a connection or a thread.
+ */
+public class UpstreamGuard {
+
+    private static final byte[] UNAVAILABLE =
+            "{\"error\":\"Сервис временно недоступен\"}".getBytes(StandardCharsets.UTF_8);
+
+    private final CircuitBreaker circuitBreaker;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final int maxConcurrent;
+    private final long slowCallNanos;
+    private final Counter circuitOpen;
+    private final Counter bulkheadFull;
+
+    UpstreamGuard(String route, CircuitBreaker circuitBreaker, int maxConcurrent, long slowCallNanos,
+                  MeterRegistry meterRegistry) {
+        this.circuitBreaker = circuitBreaker;
+        this.maxConcurrent = maxConcurrent;
+        this.slowCallNanos = slowCallNanos;
+        this.circuitOpen = meterRegistry.counter("gateway.upstream.rejected", "route", route, "reason", "circuit_open");
+        this.bulkheadFull = meterRegistry.counter("gateway.upstream.rejected", "route", route, "reason", "bulkhead_full");
+        meterRegistry.gauge("gateway.upstream.in_flight", Tags.of("route", route),
+                inFlight);
+        meterRegistry.gauge("gateway.upstream.circuit_state", Tags.of("route", route),
+                circuitBreaker, breaker -> breaker.getState().ordinal());
+    }
+
+    public Mono<ResponseEntity<Object>> protect(Mono<ResponseEntity<Object>> call) {
+        return Mono.defer(() -> {
+            if (!circuitBreaker.tryAcquire()) {
+                circuitOpen.increment();
+                return Mono.just(unavailable());
+            }
+            if (!tryEnter()) {
+                circuitBreaker.release();
+                bulkheadFull.increment();
+                return Mono.just(unavailable());
+            }
+            long start = System.nanoTime();
+            return call
+                    .doOnSuccess(response -> circuitBreaker.record(response != null
+                            && !response.getStatusCode().is5xxServerError()
+                            && System.nanoTime() - start <= slowCallNanos))
+                    .doOnError(e -> circuitBreaker.record(false))
+                    // Not doFinally: the slot has to be free before a blocked caller sees the result.
+                    .doOnTerminate(inFlight::decrementAndGet)
+                    .doOnCancel(() -> {
+                        circuitBreaker.release();
+                        inFlight.decrementAndGet();
+                    });
+        });
+    }
+
+    CircuitBreaker.State getState() {
+        return circuitBreaker.getState();
+    }
+
+    private boolean tryEnter() {
+        while (true) {
+            int current = inFlight.get();
+            if (current >= maxConcurrent) {
+                return false;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    private static ResponseEntity<Object> unavailable() {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        return new ResponseEntity<>(UNAVAILABLE, headers, HttpStatus.SERVICE_UNAVAILABLE);
+    }
+}
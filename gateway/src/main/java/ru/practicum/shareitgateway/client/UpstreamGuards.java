@@ -0,0 +1,60 @@
+package ru.practicum.shareitgateway.client;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One {@link UpstreamGuard} per API prefix, so a slow or failing route only exhausts its own share of
+ * connections and threads.
+ */
+@Component
+public class UpstreamGuards {
+
+    private final ConcurrentMap<String, UpstreamGuard> guards = new ConcurrentHashMap<>();
+    private final MeterRegistry meterRegistry;
+    private final boolean enabled;
+    private final int maxConcurrent;
+    private final int windowSize;
+    private final int minCalls;
+    private final int failureRatePercent;
+    private final long slowCallNanos;
+    private final long openNanos;
+    private final int halfOpenCalls;
+
+    public UpstreamGuards(MeterRegistry meterRegistry,
+                          @Value("${shareit-server.guard.enabled:true}") boolean enabled,
+                          @Value("${shareit-server.guard.max-concurrent:50}") int maxConcurrent,
+                          @Value("${shareit-server.guard.window-size:20}") int windowSize,
+                          @Value("${shareit-server.guard.min-calls:10}") int minCalls,
+                          @Value("${shareit-server.guard.failure-rate-percent:50}") int failureRatePercent,
+                          @Value("${shareit-server.guard.slow-call-ms:5000}") long slowCallMs,
+                          @Value("${shareit-server.guard.open-ms:5000}") long openMs,
+                          @Value("${shareit-server.guard.half-open-calls:3}") int halfOpenCalls) {
+        this.meterRegistry = meterRegistry;
+        this.enabled = enabled;
+        this.maxConcurrent = maxConcurrent;
+        this.windowSize = windowSize;
+        this.minCalls = minCalls;
+        this.failureRatePercent = failureRatePercent;
+        this.slowCallNanos = TimeUnit.MILLISECONDS.toNanos(slowCallMs);
+        this.openNanos = TimeUnit.MILLISECONDS.toNanos(openMs);
+        this.halfOpenCalls = halfOpenCalls;
+    }
+
+    /**
+     * @return the guard for {@code route}, or {@code null} when guarding is switched off
+     */
+    public UpstreamGuard forRoute(String route) {
+        if (!enabled) {
+            return null;
+        }
+        return guards.computeIfAbsent(route, r -> new UpstreamGuard(r,
+                new CircuitBreaker(windowSize, minCalls, failureRatePercent, openNanos, halfOpenCalls, System::nanoTime),
+                maxConcurrent, slowCallNanos, meterRegistry));
+    }
+}
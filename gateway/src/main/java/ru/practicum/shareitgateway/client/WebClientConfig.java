@@ -0,0 +1,45 @@
+package ru.practicum.shareitgateway.client;
+
+import io.netty.channel.ChannelOption;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.time.Duration;
+
+@Configuration
+public class WebClientConfig {
+
+    @Bean(destroyMethod = "dispose")
+    public ConnectionProvider shareItServerConnectionProvider(
+            @Value("${shareit-server.webclient.max-connections:500}") int maxConnections,
+            @Value("${shareit-server.webclient.pending-acquire-max-count:10000}") int pendingAcquireMaxCount,
+            @Value("${shareit-server.webclient.pending-acquire-timeout-ms:10000}") long pendingAcquireTimeout,
+            @Value("${shareit-server.webclient.max-idle-time-ms:30000}") long maxIdleTime) {
+        return ConnectionProvider.builder("shareit-server")
+                .maxConnections(maxConnections)
+                .pendingAcquireMaxCount(pendingAcquireMaxCount)
+                .pendingAcquireTimeout(Duration.ofMillis(pendingAcquireTimeout))
+                .maxIdleTime(Duration.ofMillis(maxIdleTime))
+                .evictInBackground(Duration.ofMillis(maxIdleTime))
+                .build();
+    }
+
+    @Bean
+    public WebClient shareItServerWebClient(@Value("${shareit-server.url}") String serverUrl,
+            @Value("${shareit-server.webclient.connect-timeout-ms:2000}") int connectTimeout,
+            @Value("${shareit-server.webclient.response-timeout-ms:30000}") long responseTimeout,
+            ConnectionProvider shareItServerConnectionProvider, WebClient.Builder builder) {
+        HttpClient httpClient = HttpClient.create(shareItServerConnectionProvider)
+                .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, connectTimeout)
+                .responseTimeout(Duration.ofMillis(responseTimeout));
+        return builder
+                .baseUrl(serverUrl)
+                .clientConnector(new ReactorClientHttpConnector(httpClient))
+                .build();
+    }
+}
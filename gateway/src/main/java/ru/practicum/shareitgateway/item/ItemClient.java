@@ -1,55 +1,101 @@
 package ru.practicum.shareitgateway.item;
 
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.StringJoiner;
 import ru.practicum.shareitgateway.item.dto.ItemDto;
 import ru.practicum.shareitgateway.client.BaseClient;
+import ru.practicum.shareitgateway.client.ClientMode;
+import ru.practicum.shareitgateway.client.EntitySnapshots;
 import ru.practicum.shareitgateway.item.dto.CommentDto;
 import ru.practicum.shareitgateway.exception.ValidationException;
 import org.springframework.stereotype.Service;
 import org.springframework.http.ResponseEntity;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.web.util.DefaultUriBuilderFactory;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.web.client.RestTemplateBuilder;
-import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.http.client.ClientHttpRequestFactory;
 
 @Service
 public class ItemClient extends BaseClient {
 
     private static final String API_PREFIX = "/items";
 
+    private final EntitySnapshots entitySnapshots;
+
     @Autowired
-    public ItemClient(@Value("${shareit-server.url}") String serverUrl, RestTemplateBuilder builder) {
+    public ItemClient(@Value("${shareit-server.url}") String serverUrl, RestTemplateBuilder builder,
+                      ClientHttpRequestFactory shareItServerRequestFactory, WebClient shareItServerWebClient,
+                      @Value("${shareit-server.client-mode:BLOCKING}") ClientMode mode, EntitySnapshots entitySnapshots) {
         super(
                 builder
                         .uriTemplateHandler(new DefaultUriBuilderFactory(serverUrl + API_PREFIX))
-                        .requestFactory(HttpComponentsClientHttpRequestFactory::new)
-                        .build()
+                        .requestFactory(() -> shareItServerRequestFactory)
+                        .build(),
+                shareItServerWebClient.mutate().baseUrl(serverUrl + API_PREFIX).build(),
+                mode
         );
+        this.entitySnapshots = entitySnapshots;
+    }
+
+    public Mono<ResponseEntity<Object>> add(Long userId, ItemDto itemDto) {
+        entitySnapshots.checkUser(userId);
+        return post("", userId, itemDto)
+                .doOnNext(response -> entitySnapshots.recordItem(null, userId, response));
+    }
+
+    public Mono<ResponseEntity<Object>> addAll(Long userId, List<ItemDto> items) {
+        entitySnapshots.checkUser(userId);
+        return post("/batch", userId, items)
+                .doOnNext(response -> entitySnapshots.recordItems(userId, response));
     }
 
-    public ResponseEntity<Object> add(Long userId, ItemDto itemDto) {
-        return post("", userId, itemDto);
+    public Mono<ResponseEntity<Object>> change(Long userId, Long itemId, ItemDto itemDto) {
+        return patch("/" + itemId, userId, itemDto)
+                .doOnNext(response -> entitySnapshots.recordItem(null, userId, response));
     }
 
-    public ResponseEntity<Object> change(Long userId, Long itemId, ItemDto itemDto) {
-        return patch("/" + itemId, userId, itemDto);
+    public Mono<ResponseEntity<Object>> getById(Long userId, Long itemId) {
+        entitySnapshots.checkItem(itemId);
+        return get("/" + itemId, userId)
+                .doOnNext(response -> entitySnapshots.recordItem(itemId, null, response));
     }
 
-    public ResponseEntity<Object> getById(Long userId, Long itemId) {
-        return get("/" + itemId, userId);
+    public Mono<ResponseEntity<Object>> getAvailability(Long userId, Long itemId, LocalDateTime from, LocalDateTime to) {
+        if (from != null && to != null && !to.isAfter(from)) {
+            throw new ValidationException("Дата окончания периода раньше начала периода");
+        }
+        entitySnapshots.checkItem(itemId);
+        Map<String, Object> parameters = new HashMap<>();
+        StringJoiner query = new StringJoiner("&", "?", "").setEmptyValue("");
+        if (from != null) {
+            parameters.put("from", from);
+            query.add("from={from}");
+        }
+        if (to != null) {
+            parameters.put("to", to);
+            query.add("to={to}");
+        }
+        return get("/" + itemId + "/availability" + query, userId, parameters)
+                .doOnNext(response -> entitySnapshots.recordItem(itemId, null, response));
     }
 
-    public ResponseEntity<Object> getAll(Long userId, int from, int size) {
+    public Mono<ResponseEntity<Object>> getAll(Long userId, int from, int size) {
         checkParam(from, size);
         Map<String, Object> parameters = Map.of(
                 "from", from,
                 "size", size
         );
-        return get("?from={from}&size={size}", userId, parameters);
+        return get("?from={from}&size={size}", userId, parameters)
+                .doOnNext(response -> entitySnapshots.recordItems(userId, response));
     }
 
-    public ResponseEntity<Object> getSearch(Long userId, String text, int from, int size) {
+    public Mono<ResponseEntity<Object>> getSearch(Long userId, String text, int from, int size) {
         checkParam(from, size);
         Map<String, Object> parameters = Map.of(
                 "text", text,
@@ -60,11 +106,12 @@ public class ItemClient extends BaseClient {
         return get("/search?text={text}&from={from}&size={size}", userId, parameters);
     }
 
-    public void deleteById(Long userId, Long itemId) {
-        delete("/" + itemId, userId);
+    public Mono<ResponseEntity<Object>> deleteById(Long userId, Long itemId) {
+        return delete("/" + itemId, userId)
+                .doOnNext(response -> entitySnapshots.recordItemDeleted(itemId, response));
     }
 
-    public ResponseEntity<Object> postComment(Long userId, Long itemId, CommentDto comment) {
+    public Mono<ResponseEntity<Object>> postComment(Long userId, Long itemId, CommentDto comment) {
         return post("/" + itemId + "/comment", userId, comment);
     }
 
@@ -1,13 +1,17 @@
 package ru.practicum.shareitgateway.item;
 
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Mono;
 import ru.practicum.shareitgateway.item.dto.CommentDto;
 import ru.practicum.shareitgateway.item.dto.ItemDto;
 
 import javax.validation.Valid;
 import javax.validation.constraints.Min;
+import java.time.LocalDateTime;
+import java.util.List;
 
 @RestController
 @RequiredArgsConstructor
@@ -18,44 +22,57 @@ public class ItemController {
     private static final String HEADER_ID = "X-Sharer-User-Id";
 
     @PostMapping
-    public ResponseEntity<Object> addItem(@RequestHeader(HEADER_ID) Long userId, @Valid @RequestBody ItemDto itemDto) {
+    public Mono<ResponseEntity<Object>> addItem(@RequestHeader(HEADER_ID) Long userId, @Valid @RequestBody ItemDto itemDto) {
         return itemClient.add(userId, itemDto);
     }
 
+    @PostMapping("/batch")
+    public Mono<ResponseEntity<Object>> addItems(@RequestHeader(HEADER_ID) Long userId, @RequestBody List<ItemDto> items) {
+        return itemClient.addAll(userId, items);
+    }
+
     @PatchMapping("/{itemId}")
-    public ResponseEntity<Object> changeItem(@RequestHeader(HEADER_ID) Long userId,
+    public Mono<ResponseEntity<Object>> changeItem(@RequestHeader(HEADER_ID) Long userId,
                     @PathVariable @Min(value = 1, message = "id должен быть больше 0") Long itemId,
                     @RequestBody ItemDto itemDto) {
         return itemClient.change(userId, itemId, itemDto);
     }
 
     @GetMapping("/{itemId}")
-    public ResponseEntity<Object> getByIdItem(@RequestHeader(HEADER_ID) Long userId,
+    public Mono<ResponseEntity<Object>> getByIdItem(@RequestHeader(HEADER_ID) Long userId,
                     @PathVariable @Min(value = 1, message = "id должен быть больше 0") Long itemId) {
         return itemClient.getById(userId, itemId);
     }
 
     @GetMapping()
-    public ResponseEntity<Object> getAllItem(@RequestHeader(HEADER_ID) Long userId,
+    public Mono<ResponseEntity<Object>> getAllItem(@RequestHeader(HEADER_ID) Long userId,
                     @RequestParam(defaultValue = "0") Integer from, @RequestParam(defaultValue = "5")  Integer size) {
         return itemClient.getAll(userId, from, size);
     }
 
+    @GetMapping("/{itemId}/availability")
+    public Mono<ResponseEntity<Object>> getAvailabilityItem(@RequestHeader(HEADER_ID) Long userId,
+                    @PathVariable @Min(value = 1, message = "id должен быть больше 0") Long itemId,
+                    @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+                    @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        return itemClient.getAvailability(userId, itemId, from, to);
+    }
+
     @GetMapping("/search")
-    public ResponseEntity<Object> getSearchItem(@RequestHeader(HEADER_ID) Long userId,
+    public Mono<ResponseEntity<Object>> getSearchItem(@RequestHeader(HEADER_ID) Long userId,
                     @RequestParam(defaultValue = "unread") String text,
                     @RequestParam(defaultValue = "0") Integer from, @RequestParam(defaultValue = "5")  Integer size) {
         return itemClient.getSearch(userId, text, from, size);
     }
 
     @DeleteMapping("/{itemId}")
-    public void deleteById(@RequestHeader(HEADER_ID) Long userId,
+    public Mono<ResponseEntity<Object>> deleteById(@RequestHeader(HEADER_ID) Long userId,
                     @PathVariable @Min(value = 1, message = "id должен быть больше 0") Long itemId) {
-        itemClient.deleteById(userId, itemId);
+        return itemClient.deleteById(userId, itemId);
     }
 
     @PostMapping("/{itemId}/comment")
-    public ResponseEntity<Object> addComment(@RequestHeader(HEADER_ID) Long userId,
+    public Mono<ResponseEntity<Object>> addComment(@RequestHeader(HEADER_ID) Long userId,
                     @PathVariable @Min(value = 1, message = "id должен быть больше 0") Long itemId,
                     @Valid @RequestBody CommentDto comment) {
         return itemClient.postComment(userId, itemId, comment);
@@ -0,0 +1,139 @@
+package ru.practicum.shareitgateway.ratelimit;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.Ticker;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.lang.Nullable;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.web.filter.OncePerRequestFilter;
+import ru.practicum.shareitgateway.exception.ErrorResponse;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Limits every user to the rate of the first {@link RateLimitProperties.Rule} matching the request and
+ * answers 429 with {@code Retry-After} beyond it. Requests without {@code X-Sharer-User-Id} are limited
+ * per client address. A bucket is dropped once it has been idle long enough to fill up again, and the
+ * least recently used ones go first when more than {@code maxBuckets} are tracked.
+ */
+@Slf4j
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    private static final String HEADER_ID = "X-Sharer-User-Id";
+
+    private final AntPathMatcher pathMatcher = new AntPathMatcher();
+    private final Cache<String, TokenBucket> buckets;
+    private final Ticker ticker;
+    private final RateLimitProperties properties;
+    private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
+
+    public RateLimitFilter(RateLimitProperties properties, ObjectMapper objectMapper, MeterRegistry meterRegistry) {
+        this(properties, objectMapper, meterRegistry, Ticker.systemTicker());
+    }
+
+    RateLimitFilter(RateLimitProperties properties, ObjectMapper objectMapper, MeterRegistry meterRegistry,
+                    Ticker ticker) {
+        this.ticker = ticker;
+        this.properties = properties;
+        this.objectMapper = objectMapper;
+        this.meterRegistry = meterRegistry;
+        this.buckets = Caffeine.newBuilder()
+                .maximumSize(properties.getMaxBuckets())
+                .expireAfter(new UntilFull())
+                .ticker(ticker)
+                .build();
+        meterRegistry.gauge("gateway.rate_limit.buckets", Tags.empty(), buckets, Cache::estimatedSize);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        RateLimitProperties.Rule rule = properties.isEnabled() ? match(request) : null;
+        if (rule == null) {
+            chain.doFilter(request, response);
+            return;
+        }
+        long now = ticker.read();
+        long wait = bucket(rule, client(request), now).tryAcquire(now);
+        if (wait == 0) {
+            chain.doFilter(request, response);
+            return;
+        }
+        meterRegistry.counter("gateway.rate_limit.rejected", "rule", rule.getName()).increment();
+        reject(response, Math.max(1, (long) Math.ceil(wait / 1e9)));
+    }
+
+    @Nullable
+    private RateLimitProperties.Rule match(HttpServletRequest request) {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        for (RateLimitProperties.Rule rule : properties.getRules()) {
+            boolean methodMatches = rule.getMethod() == null || rule.getMethod().isEmpty()
+                    || rule.getMethod().equalsIgnoreCase(request.getMethod());
+            if (methodMatches && pathMatcher.match(rule.getPath(), path)) {
+                return rule;
+            }
+        }
+        return null;
+    }
+
+    private static String client(HttpServletRequest request) {
+        String userId = request.getHeader(HEADER_ID);
+        return userId != null ? userId : "addr:" + request.getRemoteAddr();
+    }
+
+    private TokenBucket bucket(RateLimitProperties.Rule rule, String client, long now) {
+        long intervalNanos = (long) (TimeUnit.SECONDS.toNanos(1) / rule.getRefillPerSecond());
+        return buckets.get(rule.getName() + " " + client, key -> new TokenBucket(intervalNanos, rule.getCapacity(), now));
+    }
+
+    long bucketCount() {
+        buckets.cleanUp();
+        return buckets.estimatedSize();
+    }
+
+    private void reject(HttpServletResponse response, long retryAfterSeconds) throws IOException {
+        response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        objectMapper.writeValue(response.getOutputStream(),
+                new ErrorResponse("Слишком много запросов, повторите через " + retryAfterSeconds + " с"));
+    }
+
+    /**
+     * Every request leaves a bucket at most one full refill away from full, so once that time passes
+     * without requests it is full, behaves exactly like a new one and can be dropped.
+     */
+    private static class UntilFull implements Expiry<String, TokenBucket> {
+
+        @Override
+        public long expireAfterCreate(String key, TokenBucket bucket, long currentTime) {
+            return bucket.refillNanos();
+        }
+
+        @Override
+        public long expireAfterUpdate(String key, TokenBucket bucket, long currentTime, long currentDuration) {
+            return bucket.refillNanos();
+        }
+
+        @Override
+        public long expireAfterRead(String key, TokenBucket bucket, long currentTime, long currentDuration) {
+            return bucket.refillNanos();
+        }
+    }
+}
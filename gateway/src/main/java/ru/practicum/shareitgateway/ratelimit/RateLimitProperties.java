@@ -0,0 +1,35 @@
+package ru.practicum.shareitgateway.ratelimit;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@ConfigurationProperties(prefix = "shareit.rate-limit")
+public class RateLimitProperties {
+
+    private boolean enabled = true;
+    private int maxBuckets = 200_000;
+    /**
+     * Checked in order, the first rule matching a request applies.
+     */
+    private List<Rule> rules = new ArrayList<>();
+
+    @Data
+    public static class Rule {
+
+        private String name;
+        /**
+         * HTTP method, any when empty.
+         */
+        private String method;
+        /**
+         * Ant-style path pattern.
+         */
+        private String path;
+        private int capacity;
+        private double refillPerSecond;
+    }
+}
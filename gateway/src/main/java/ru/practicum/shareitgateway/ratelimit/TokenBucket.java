@@ -0,0 +1,50 @@
+package ru.practicum.shareitgateway.ratelimit;
+
+import java.util.concurrent.atomic.AtomicLongFieldUpdater;
+
+/**
+ * Lock-free token bucket kept as a single "theoretical arrival time" (the GCRA form of a token bucket):
+ * the bucket is full when that time is not in the future, and every request pushes it forward by one
+ * refill interval. A request is refused when that would put it more than {@code capacity} intervals ahead.
+ */
+class TokenBucket {
+
+    private static final AtomicLongFieldUpdater<TokenBucket> ARRIVAL =
+            AtomicLongFieldUpdater.newUpdater(TokenBucket.class, "arrival");
+
+    private final long intervalNanos;
+    private final long burstNanos;
+    private volatile long arrival;
+
+    TokenBucket(long intervalNanos, int capacity, long now) {
+        this.intervalNanos = intervalNanos;
+        this.burstNanos = intervalNanos * capacity;
+        this.arrival = now;
+    }
+
+    /**
+     * Takes a token if there is one.
+     *
+     * @return {@code 0} when the token was taken, otherwise how many nanoseconds until one is available
+     */
+    long tryAcquire(long now) {
+        while (true) {
+            long current = arrival;
+            long next = Math.max(current, now) + intervalNanos;
+            long wait = next - burstNanos - now;
+            if (wait > 0) {
+                return wait;
+            }
+            if (ARRIVAL.compareAndSet(this, current, next)) {
+                return 0;
+            }
+        }
+    }
+
+    /**
+     * How long a drained bucket takes to fill up again.
+     */
+    long refillNanos() {
+        return burstNanos;
+    }
+}
@@ -5,10 +5,13 @@ import org.springframework.stereotype.Service;
 import org.springframework.http.ResponseEntity;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.web.util.DefaultUriBuilderFactory;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.web.client.RestTemplateBuilder;
-import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.http.client.ClientHttpRequestFactory;
 import ru.practicum.shareitgateway.client.BaseClient;
+import ru.practicum.shareitgateway.client.ClientMode;
 import ru.practicum.shareitgateway.request.dto.ItemRequestDto;
 import ru.practicum.shareitgateway.exception.ValidationException;
 
@@ -18,24 +21,28 @@ public class ItemRequestClient extends BaseClient {
     private static final String API_PREFIX = "/requests";
 
     @Autowired
-    public ItemRequestClient(@Value("${shareit-server.url}") String serverUrl, RestTemplateBuilder builder) {
+    public ItemRequestClient(@Value("${shareit-server.url}") String serverUrl, RestTemplateBuilder builder,
+                      ClientHttpRequestFactory shareItServerRequestFactory, WebClient shareItServerWebClient,
+                      @Value("${shareit-server.client-mode:BLOCKING}") ClientMode mode) {
         super(
                 builder
                         .uriTemplateHandler(new DefaultUriBuilderFactory(serverUrl + API_PREFIX))
-                        .requestFactory(HttpComponentsClientHttpRequestFactory::new)
-                        .build()
+                        .requestFactory(() -> shareItServerRequestFactory)
+                        .build(),
+                shareItServerWebClient.mutate().baseUrl(serverUrl + API_PREFIX).build(),
+                mode
         );
     }
 
-    public ResponseEntity<Object> add(Long userId, ItemRequestDto itemRequestDto) {
+    public Mono<ResponseEntity<Object>> add(Long userId, ItemRequestDto itemRequestDto) {
         return post("", userId, itemRequestDto);
     }
 
-    public ResponseEntity<Object> getAllOwner(Long userId) {
+    public Mono<ResponseEntity<Object>> getAllOwner(Long userId) {
         return get("", userId);
     }
 
-    public ResponseEntity<Object> getAllFrom(Long userId, int from, int size) {
+    public Mono<ResponseEntity<Object>> getAllFrom(Long userId, int from, int size) {
         checkParam(from, size);
         Map<String, Object> parameters = Map.of(
                 "from", from,
@@ -44,7 +51,7 @@ public class ItemRequestClient extends BaseClient {
         return get("/all?from={from}&size={size}", userId, parameters);
     }
 
-    public ResponseEntity<Object> getById(Long userId, Long requestId) {
+    public Mono<ResponseEntity<Object>> getById(Long userId, Long requestId) {
         return get("/" + requestId, userId);
     }
 
@@ -1,48 +1,69 @@
 package ru.practicum.shareitgateway.user;
 
+import java.util.List;
 import ru.practicum.shareitgateway.user.dto.UserDto;
 import ru.practicum.shareitgateway.client.BaseClient;
+import ru.practicum.shareitgateway.client.ClientMode;
+import ru.practicum.shareitgateway.client.EntitySnapshots;
 import org.springframework.stereotype.Service;
 import org.springframework.http.ResponseEntity;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.web.util.DefaultUriBuilderFactory;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.web.client.RestTemplateBuilder;
-import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.http.client.ClientHttpRequestFactory;
 
 @Service
 public class UserClient extends BaseClient {
 
     private static final String API_PREFIX = "/users";
 
+    private final EntitySnapshots entitySnapshots;
+
     @Autowired
-    public UserClient(@Value("${shareit-server.url}") String serverUrl, RestTemplateBuilder builder) {
+    public UserClient(@Value("${shareit-server.url}") String serverUrl, RestTemplateBuilder builder,
+                      ClientHttpRequestFactory shareItServerRequestFactory, WebClient shareItServerWebClient,
+                      @Value("${shareit-server.client-mode:BLOCKING}") ClientMode mode, EntitySnapshots entitySnapshots) {
         super(
                 builder
                         .uriTemplateHandler(new DefaultUriBuilderFactory(serverUrl + API_PREFIX))
-                        .requestFactory(HttpComponentsClientHttpRequestFactory::new)
-                        .build()
+                        .requestFactory(() -> shareItServerRequestFactory)
+                        .build(),
+                shareItServerWebClient.mutate().baseUrl(serverUrl + API_PREFIX).build(),
+                mode
         );
+        this.entitySnapshots = entitySnapshots;
     }
 
-    public ResponseEntity<Object> getAll() {
+    public Mono<ResponseEntity<Object>> getAll() {
         return get("");
     }
 
-    public ResponseEntity<Object> getById(Long userId) {
-        return get("/" + userId);
+    public Mono<ResponseEntity<Object>> getById(Long userId) {
+        entitySnapshots.checkUser(userId);
+        return get("/" + userId)
+                .doOnNext(response -> entitySnapshots.recordUser(userId, response));
+    }
+
+    public Mono<ResponseEntity<Object>> add(UserDto userDto) {
+        return post("", userDto)
+                .doOnNext(entitySnapshots::recordUsersCreated);
     }
 
-    public ResponseEntity<Object> add(UserDto userDto) {
-        return post("", userDto);
+    public Mono<ResponseEntity<Object>> addAll(List<UserDto> users) {
+        return post("/batch", users)
+                .doOnNext(entitySnapshots::recordUsersCreated);
     }
 
-    public ResponseEntity<Object> change(Long userId, UserDto userDto) {
+    public Mono<ResponseEntity<Object>> change(Long userId, UserDto userDto) {
         return patch("/" + userId, userDto);
     }
 
-    public void deleteById(Long userId) {
-        delete("/" + userId);
+    public Mono<ResponseEntity<Object>> deleteById(Long userId) {
+        return delete("/" + userId)
+                .doOnNext(response -> entitySnapshots.recordUserDeleted(userId, response));
     }
 
 }
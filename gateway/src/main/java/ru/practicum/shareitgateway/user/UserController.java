@@ -2,9 +2,11 @@ package ru.practicum.shareitgateway.user;
 
 import javax.validation.Valid;
 import javax.validation.constraints.Min;
+import java.util.List;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Mono;
 import ru.practicum.shareitgateway.user.dto.UserDto;
 
 @RestController
@@ -15,29 +17,34 @@ public class UserController {
     private final UserClient userClient;
 
     @GetMapping()
-    public ResponseEntity<Object> getAll() {
+    public Mono<ResponseEntity<Object>> getAll() {
         return userClient.getAll();
     }
 
     @GetMapping("/{id}")
-    public ResponseEntity<Object> getById(@PathVariable @Min(value = 1, message = "id должен быть больше 0") Long id) {
+    public Mono<ResponseEntity<Object>> getById(@PathVariable @Min(value = 1, message = "id должен быть больше 0") Long id) {
         return userClient.getById(id);
     }
 
     @PostMapping
-    public ResponseEntity<Object> add(@Valid @RequestBody UserDto userDto) {
+    public Mono<ResponseEntity<Object>> add(@Valid @RequestBody UserDto userDto) {
         return userClient.add(userDto);
     }
 
+    @PostMapping("/batch")
+    public Mono<ResponseEntity<Object>> addAll(@RequestBody List<UserDto> users) {
+        return userClient.addAll(users);
+    }
+
     @PatchMapping("/{id}")
-    public ResponseEntity<Object> change(@PathVariable @Min(value = 1, message = "id должен быть больше 0") Long id,
+    public Mono<ResponseEntity<Object>> change(@PathVariable @Min(value = 1, message = "id должен быть больше 0") Long id,
                 @RequestBody UserDto userDto) {
         return userClient.change(id, userDto);
     }
 
     @DeleteMapping("/{id}")
-    public void deleteById(@PathVariable @Min(value = 1, message = "id должен быть больше 0") Long id) {
-        userClient.deleteById(id);
+    public Mono<ResponseEntity<Object>> deleteById(@PathVariable @Min(value = 1, message = "id должен быть больше 0") Long id) {
+        return userClient.deleteById(id);
     }
 
 }
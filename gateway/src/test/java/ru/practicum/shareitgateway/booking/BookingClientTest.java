@@ -55,7 +55,7 @@ class BookingClientTest {
     void testFindAllByUserIfFromIncorrect() {
         final ValidationException exception = Assertions.assertThrows(
                 ValidationException.class,
-                () -> bookingClient.findAllByUser(1L, State.ALL.name(), -1, 10));
+                () -> bookingClient.findAllByUser(1L, State.ALL.name(), -1, 10, null));
 
         Assertions.assertEquals("Индекс первого элемента должен быть больше или равен 0", exception.getMessage());
     }
@@ -64,7 +64,7 @@ class BookingClientTest {
     void testFindAllByUserIfSizeIncorrect() {
         final ValidationException exception = Assertions.assertThrows(
                 ValidationException.class,
-                () -> bookingClient.findAllByUser(1L, State.ALL.toString(), 1, 0));
+                () -> bookingClient.findAllByUser(1L, State.ALL.toString(), 1, 0, null));
 
         Assertions.assertEquals("Количество элементов для отображения должно быть больше 0", exception.getMessage());
     }
@@ -73,7 +73,7 @@ class BookingClientTest {
     void testFindAllByUserIfStateUnknown() {
         final ValidationException exception = Assertions.assertThrows(
                 ValidationException.class,
-                () -> bookingClient.findAllByUser(1L, "Unknown", 1, 1));
+                () -> bookingClient.findAllByUser(1L, "Unknown", 1, 1, null));
 
         Assertions.assertEquals("Unknown state: UNSUPPORTED_STATUS", exception.getMessage());
     }
@@ -82,7 +82,7 @@ class BookingClientTest {
     void testFindAllByOwnerIfFromIncorrect() {
         final ValidationException exception = Assertions.assertThrows(
                 ValidationException.class,
-                () -> bookingClient.findAllByOwner(1L, State.ALL.name(), -1, 10));
+                () -> bookingClient.findAllByOwner(1L, State.ALL.name(), -1, 10, null));
 
         Assertions.assertEquals("Индекс первого элемента должен быть больше или равен 0", exception.getMessage());
     }
@@ -91,7 +91,7 @@ class BookingClientTest {
     void testFindAllByOwnerIfSizeIncorrect() {
         final ValidationException exception = Assertions.assertThrows(
                 ValidationException.class,
-                () -> bookingClient.findAllByOwner(1L, State.ALL.toString(), 1, 0));
+                () -> bookingClient.findAllByOwner(1L, State.ALL.toString(), 1, 0, null));
 
         Assertions.assertEquals("Количество элементов для отображения должно быть больше 0", exception.getMessage());
     }
@@ -100,7 +100,7 @@ class BookingClientTest {
     void testFindAllByOwnerIfStateUnknown() {
         final ValidationException exception = Assertions.assertThrows(
                 ValidationException.class,
-                () -> bookingClient.findAllByOwner(1L, "Unknown", 1, 1));
+                () -> bookingClient.findAllByOwner(1L, "Unknown", 1, 1, null));
 
         Assertions.assertEquals("Unknown state: UNSUPPORTED_STATUS", exception.getMessage());
     }
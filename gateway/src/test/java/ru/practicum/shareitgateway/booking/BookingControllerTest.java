@@ -149,7 +149,7 @@ class BookingControllerTest {
 
     @Test
     void testFindAllByUser() throws Exception {
-        when(bookingClient.findAllByUser(anyLong(), anyString(), anyInt(), anyInt()))
+        when(bookingClient.findAllByUser(anyLong(), anyString(), anyInt(), anyInt(), any()))
                 .thenReturn(null);
 
         mvc.perform(get("/bookings")
@@ -165,7 +165,7 @@ class BookingControllerTest {
 
     @Test
     void testFindAllByUserWithoutUserId() throws Exception {
-        when(bookingClient.findAllByUser(anyLong(), anyString(), anyInt(), anyInt()))
+        when(bookingClient.findAllByUser(anyLong(), anyString(), anyInt(), anyInt(), any()))
                 .thenReturn(null);
 
         mvc.perform(get("/bookings")
@@ -181,7 +181,7 @@ class BookingControllerTest {
 
     @Test
     void testFindAllByUserWithoutParam() throws Exception {
-        when(bookingClient.findAllByUser(anyLong(), anyString(), anyInt(), anyInt()))
+        when(bookingClient.findAllByUser(anyLong(), anyString(), anyInt(), anyInt(), any()))
                 .thenReturn(null);
 
         mvc.perform(get("/bookings")
@@ -194,7 +194,7 @@ class BookingControllerTest {
 
     @Test
     void testFindAllByOwner() throws Exception {
-        when(bookingClient.findAllByOwner(anyLong(), anyString(), anyInt(), anyInt()))
+        when(bookingClient.findAllByOwner(anyLong(), anyString(), anyInt(), anyInt(), any()))
                 .thenReturn(null);
 
         mvc.perform(get("/bookings/owner")
@@ -210,7 +210,7 @@ class BookingControllerTest {
 
     @Test
     void testFindAllByOwnerWithoutUserId() throws Exception {
-        when(bookingClient.findAllByOwner(anyLong(), anyString(), anyInt(), anyInt()))
+        when(bookingClient.findAllByOwner(anyLong(), anyString(), anyInt(), anyInt(), any()))
                 .thenReturn(null);
 
         mvc.perform(get("/bookings/owner")
@@ -226,7 +226,7 @@ class BookingControllerTest {
 
     @Test
     void testFindAllByOwnerWithoutParam() throws Exception {
-        when(bookingClient.findAllByOwner(anyLong(), anyString(), anyInt(), anyInt()))
+        when(bookingClient.findAllByOwner(anyLong(), anyString(), anyInt(), anyInt(), any()))
                 .thenReturn(null);
 
         mvc.perform(get("/bookings/owner")
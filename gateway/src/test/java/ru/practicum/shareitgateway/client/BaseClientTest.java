@@ -0,0 +1,191 @@
+package ru.practicum.shareitgateway.client;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.util.DefaultUriBuilderFactory;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class BaseClientTest {
+
+    private static final String ETAG = "W/\"1-0\"";
+
+    private final AtomicInteger notModified = new AtomicInteger();
+    private HttpServer server;
+    private String serverUrl;
+
+    @BeforeEach
+    void startServer() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/users", this::handle);
+        server.start();
+        serverUrl = "http://localhost:" + server.getAddress().getPort();
+    }
+
+    @AfterEach
+    void stopServer() {
+        server.stop(0);
+    }
+
+    @ParameterizedTest
+    @EnumSource(ClientMode.class)
+    void testGetPassesParametersAndHeaders(ClientMode mode) {
+        ResponseEntity<Object> response = client(mode).get("/1?state={state}", 7L, Map.of("state", "ALL")).block();
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals("{\"path\":\"/users/1\",\"query\":\"state=ALL\",\"user\":\"7\"}",
+                new String((byte[]) response.getBody(), StandardCharsets.UTF_8));
+        assertEquals("next", response.getHeaders().getFirst("X-Next-Cursor"));
+        assertEquals(MediaType.APPLICATION_JSON, response.getHeaders().getContentType());
+        assertNull(response.getHeaders().getFirst("X-Internal"));
+    }
+
+    @ParameterizedTest
+    @EnumSource(ClientMode.class)
+    void testErrorBodyIsPassedThrough(ClientMode mode) {
+        ResponseEntity<Object> response = client(mode).get("/404").block();
+
+        assertEquals(HttpStatus.NOT_FOUND, response.getStatusCode());
+        assertArrayEquals("{\"error\":\"Пользователь не найден\"}".getBytes(StandardCharsets.UTF_8),
+                (byte[]) response.getBody());
+        assertEquals(MediaType.APPLICATION_JSON, response.getHeaders().getContentType());
+    }
+
+    @ParameterizedTest
+    @EnumSource(ClientMode.class)
+    void testEmptyBodyIsDropped(ClientMode mode) {
+        ResponseEntity<Object> response = client(mode).delete("/1").block();
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertNull(response.getBody());
+    }
+
+    @ParameterizedTest
+    @EnumSource(ClientMode.class)
+    void testCachedResponseIsRevalidated(ClientMode mode) {
+        BaseClient client = client(mode);
+        client.setResponseCache(new ResponseCache(true, 10, 1024, new SimpleMeterRegistry()));
+
+        ResponseEntity<Object> first = client.get("/etag", 7L).block();
+        ResponseEntity<Object> second = client.get("/etag", 7L).block();
+
+        assertEquals(HttpStatus.OK, second.getStatusCode());
+        assertEquals(ETAG, second.getHeaders().getETag());
+        assertArrayEquals((byte[]) first.getBody(), (byte[]) second.getBody());
+        assertEquals(1, notModified.get());
+    }
+
+    @ParameterizedTest
+    @EnumSource(ClientMode.class)
+    void testClientETagIsForwarded(ClientMode mode) {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.addHeader(HttpHeaders.IF_NONE_MATCH, ETAG);
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+        try {
+            ResponseEntity<Object> response = client(mode).get("/etag", 7L).block();
+
+            assertEquals(HttpStatus.NOT_MODIFIED, response.getStatusCode());
+            assertNull(response.getBody());
+            assertEquals(1, notModified.get());
+        } finally {
+            RequestContextHolder.resetRequestAttributes();
+        }
+    }
+
+    @ParameterizedTest
+    @EnumSource(ClientMode.class)
+    void testCallsAreGuardedPerApiPrefix(ClientMode mode) {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        BaseClient client = client(mode);
+        client.setUpstreamGuards(new UpstreamGuards(meterRegistry, true, 10, 2, 2, 100, 5_000, 5_000, 1));
+
+        client.get("/1", 7L).block();
+
+        assertEquals(0, meterRegistry.get("gateway.upstream.in_flight").tag("route", "/users").gauge().value());
+        assertEquals(CircuitBreaker.State.CLOSED.ordinal(),
+                meterRegistry.get("gateway.upstream.circuit_state").tag("route", "/users").gauge().value());
+    }
+
+    @ParameterizedTest
+    @EnumSource(ClientMode.class)
+    void testUpstreamCallsAreTimedPerRoute(ClientMode mode) {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        BaseClient client = client(mode);
+        client.setMeterRegistry(meterRegistry);
+
+        client.get("/1", 7L).block();
+        client.get("/2", 7L).block();
+        client.get("/404").block();
+
+        assertEquals(2, meterRegistry.get("gateway.upstream.requests")
+                .tags("route", "/users", "method", "GET", "status", "200").timer().count());
+        assertEquals(1, meterRegistry.get("gateway.upstream.requests")
+                .tags("route", "/users", "method", "GET", "status", "404").timer().count());
+    }
+
+    private BaseClient client(ClientMode mode) {
+        return new BaseClient(
+                new RestTemplateBuilder().uriTemplateHandler(new DefaultUriBuilderFactory(serverUrl + "/users")).build(),
+                WebClient.builder().baseUrl(serverUrl + "/users").build(),
+                mode) {
+        };
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        String path = exchange.getRequestURI().getPath();
+        String body;
+        int status;
+        if ("DELETE".equals(exchange.getRequestMethod())) {
+            exchange.sendResponseHeaders(200, -1);
+            exchange.close();
+            return;
+        }
+        if (path.endsWith("/etag") && ETAG.equals(exchange.getRequestHeaders().getFirst("If-None-Match"))) {
+            notModified.incrementAndGet();
+            exchange.getResponseHeaders().set("ETag", ETAG);
+            exchange.sendResponseHeaders(304, -1);
+            exchange.close();
+            return;
+        }
+        if (path.endsWith("/etag")) {
+            exchange.getResponseHeaders().set("ETag", ETAG);
+        }
+        if (path.endsWith("/404")) {
+            status = 404;
+            body = "{\"error\":\"Пользователь не найден\"}";
+        } else {
+            status = 200;
+            body = String.format("{\"path\":\"%s\",\"query\":\"%s\",\"user\":\"%s\"}", path,
+                    exchange.getRequestURI().getQuery(), exchange.getRequestHeaders().getFirst("X-Sharer-User-Id"));
+            exchange.getResponseHeaders().set("X-Next-Cursor", "next");
+            exchange.getResponseHeaders().set("X-Internal", "secret");
+        }
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, bytes.length);
+        exchange.getResponseBody().write(bytes);
+        exchange.close();
+    }
+}
@@ -0,0 +1,125 @@
+package ru.practicum.shareitgateway.client;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import ru.practicum.shareitgateway.exception.NotFoundException;
+import ru.practicum.shareitgateway.exception.ValidationException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+class EntitySnapshotsTest {
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final EntitySnapshots snapshots = new EntitySnapshots(true, 60_000, 100, new ObjectMapper(), meterRegistry);
+
+    @Test
+    void testMissingItemIsRejected() {
+        snapshots.recordItem(5L, null, response(HttpStatus.NOT_FOUND, "{\"error\":\"Вещь не найдена\"}"));
+
+        final NotFoundException exception = Assertions.assertThrows(
+                NotFoundException.class,
+                () -> snapshots.checkBooking(1L, 5L));
+
+        Assertions.assertEquals("Вещь не найдена", exception.getMessage());
+        Assertions.assertEquals(1, meterRegistry.counter("gateway.snapshots.rejected", "reason", "item_missing").count());
+    }
+
+    @Test
+    void testMissingUserIsRejectedFirst() {
+        snapshots.recordUser(1L, response(HttpStatus.NOT_FOUND, "{\"error\":\"Пользователь не найден\"}"));
+        snapshots.recordItemDeleted(5L, response(HttpStatus.OK, null));
+
+        final NotFoundException exception = Assertions.assertThrows(
+                NotFoundException.class,
+                () -> snapshots.checkBooking(1L, 5L));
+
+        Assertions.assertEquals("Пользователь не найден", exception.getMessage());
+    }
+
+    @Test
+    void testCreatedUsersAreNoLongerMissing() {
+        snapshots.recordUser(1L, response(HttpStatus.NOT_FOUND, null));
+        snapshots.recordUser(2L, response(HttpStatus.NOT_FOUND, null));
+        snapshots.recordUser(3L, response(HttpStatus.NOT_FOUND, null));
+
+        snapshots.recordUsersCreated(response(HttpStatus.CREATED, "{\"id\":1,\"name\":\"User\"}"));
+        snapshots.recordUsersCreated(response(HttpStatus.CREATED, "{\"created\":[{\"id\":2,\"name\":\"User\"}],"
+                + "\"errors\":[]}"));
+
+        Assertions.assertDoesNotThrow(() -> snapshots.checkUser(1L));
+        Assertions.assertDoesNotThrow(() -> snapshots.checkUser(2L));
+        Assertions.assertThrows(NotFoundException.class, () -> snapshots.checkUser(3L));
+    }
+
+    @Test
+    void testBookingOwnItemIsRejected() {
+        snapshots.recordItem(null, 2L, response(HttpStatus.CREATED, "{\"id\":5,\"available\":true}"));
+
+        final NotFoundException exception = Assertions.assertThrows(
+                NotFoundException.class,
+                () -> snapshots.checkBooking(2L, 5L));
+
+        Assertions.assertEquals("Вещь ваша, берите так!", exception.getMessage());
+        Assertions.assertDoesNotThrow(() -> snapshots.checkBooking(1L, 5L));
+    }
+
+    @Test
+    void testUnavailableItemIsRejectedAndOwnerIsKept() {
+        snapshots.recordItems(2L, response(HttpStatus.OK, "[{\"id\":5,\"available\":true}]"));
+        snapshots.recordItem(5L, null, response(HttpStatus.OK, "{\"id\":5,\"available\":false}"));
+
+        final ValidationException exception = Assertions.assertThrows(
+                ValidationException.class,
+                () -> snapshots.checkBooking(1L, 5L));
+
+        Assertions.assertEquals("Вещь недоступна", exception.getMessage());
+        Assertions.assertThrows(NotFoundException.class, () -> snapshots.checkBooking(2L, 5L));
+    }
+
+    @Test
+    void testListsRecordOnlyTopLevelItems() {
+        snapshots.recordItems(2L, response(HttpStatus.OK, "[{\"id\":5,\"name\":\"Дрель\",\"available\":false,"
+                + "\"nextBooking\":{\"id\":7,\"bookerId\":1},\"comments\":[{\"id\":8,\"text\":\"Ок\"}]}]"));
+        snapshots.recordItems(2L, response(HttpStatus.CREATED, "{\"created\":[{\"id\":6,\"available\":false}],"
+                + "\"errors\":[{\"index\":1,\"message\":\"Имя пустое\"}]}"));
+
+        Assertions.assertThrows(ValidationException.class, () -> snapshots.checkBooking(1L, 5L));
+        Assertions.assertThrows(ValidationException.class, () -> snapshots.checkBooking(1L, 6L));
+        Assertions.assertDoesNotThrow(() -> snapshots.checkBooking(1L, 7L));
+        Assertions.assertDoesNotThrow(() -> snapshots.checkBooking(1L, 8L));
+    }
+
+    @Test
+    void testExpiredEntriesAreIgnored() {
+        AtomicLong now = new AtomicLong();
+        EntitySnapshots expiring = new EntitySnapshots(true, 1_000, 100, new ObjectMapper(), meterRegistry, now::get);
+        expiring.recordItem(5L, null, response(HttpStatus.NOT_FOUND, null));
+        Assertions.assertThrows(NotFoundException.class, () -> expiring.checkBooking(1L, 5L));
+
+        now.addAndGet(TimeUnit.SECONDS.toNanos(1));
+
+        Assertions.assertDoesNotThrow(() -> expiring.checkBooking(1L, 5L));
+    }
+
+    @Test
+    void testSizesAreReported() {
+        snapshots.recordUser(1L, response(HttpStatus.NOT_FOUND, null));
+        snapshots.recordItems(2L, response(HttpStatus.OK, "[{\"id\":5,\"available\":true},{\"id\":6,\"available\":true},"
+                + "{\"id\":7,\"available\":true}]"));
+
+        Assertions.assertEquals(1, meterRegistry.get("gateway.snapshots.size").tag("kind", "missing_user").gauge().value());
+        Assertions.assertEquals(0, meterRegistry.get("gateway.snapshots.size").tag("kind", "missing_item").gauge().value());
+        Assertions.assertEquals(3, meterRegistry.get("gateway.snapshots.size").tag("kind", "item").gauge().value());
+    }
+
+    private static ResponseEntity<Object> response(HttpStatus status, String body) {
+        return new ResponseEntity<>(body != null ? body.getBytes(StandardCharsets.UTF_8) : null, status);
+    }
+}
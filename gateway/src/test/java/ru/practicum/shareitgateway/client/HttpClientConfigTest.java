@@ -0,0 +1,60 @@
+package ru.practicum.shareitgateway.client;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.client.ClientHttpRequestFactory;
+import org.springframework.http.client.InterceptingClientHttpRequestFactory;
+import org.springframework.test.util.ReflectionTestUtils;
+import ru.practicum.shareitgateway.booking.BookingClient;
+import ru.practicum.shareitgateway.item.ItemClient;
+import ru.practicum.shareitgateway.request.ItemRequestClient;
+import ru.practicum.shareitgateway.user.UserClient;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+@SpringBootTest(properties = {
+        "shareit-server.http.max-total=64",
+        "shareit-server.http.max-per-route=32"
+})
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+class HttpClientConfigTest {
+
+    private final PoolingHttpClientConnectionManager shareItServerConnectionManager;
+    private final ClientHttpRequestFactory shareItServerRequestFactory;
+    private final MeterRegistry meterRegistry;
+    private final BookingClient bookingClient;
+    private final ItemClient itemClient;
+    private final ItemRequestClient itemRequestClient;
+    private final UserClient userClient;
+
+    @Test
+    void testPoolLimitsComeFromProperties() {
+        assertEquals(64, shareItServerConnectionManager.getMaxTotal());
+        assertEquals(32, shareItServerConnectionManager.getDefaultMaxPerRoute());
+    }
+
+    @Test
+    void testClientsShareOneRequestFactory() {
+        for (BaseClient client : List.of(bookingClient, itemClient, itemRequestClient, userClient)) {
+            Object requestFactory = client.rest.getRequestFactory();
+            if (requestFactory instanceof InterceptingClientHttpRequestFactory) {
+                requestFactory = ReflectionTestUtils.getField(requestFactory, "requestFactory");
+            }
+            assertSame(shareItServerRequestFactory, requestFactory);
+        }
+    }
+
+    @Test
+    void testPoolMetricsAreRegistered() {
+        assertNotNull(meterRegistry.find("httpcomponents.httpclient.pool.total.max")
+                .tag("httpclient", "shareit-server").gauge());
+    }
+}
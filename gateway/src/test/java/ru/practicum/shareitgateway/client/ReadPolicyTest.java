@@ -0,0 +1,146 @@
+package ru.practicum.shareitgateway.client;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.client.ResourceAccessException;
+import reactor.core.publisher.Mono;
+
+import java.net.SocketException;
+import java.net.SocketTimeoutException;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ReadPolicyTest {
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final AtomicInteger attempts = new AtomicInteger();
+
+    @Test
+    void testConnectionResetOnGetIsRetried() {
+        ReadPolicy policy = policy(false, 2000);
+        Mono<ResponseEntity<Object>> call = Mono.fromCallable(() -> {
+            if (attempts.incrementAndGet() == 1) {
+                throw new ResourceAccessException("I/O error", new SocketException("Connection reset"));
+            }
+            return new ResponseEntity<>(HttpStatus.OK);
+        });
+
+        ResponseEntity<Object> response = policy.apply("/items", HttpMethod.GET, call, true).block();
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(2, attempts.get());
+        assertEquals(1, meterRegistry.counter("gateway.retry.attempts", "route", "/items").count());
+    }
+
+    @Test
+    void testRetriesAreBounded() {
+        ReadPolicy policy = policy(false, 2000);
+        Mono<ResponseEntity<Object>> call = Mono.fromCallable(() -> {
+            attempts.incrementAndGet();
+            throw new ResourceAccessException("I/O error", new SocketException("Connection reset"));
+        });
+
+        assertThrows(ResourceAccessException.class, () -> policy.apply("/items", HttpMethod.GET, call, true).block());
+        assertEquals(3, attempts.get());
+    }
+
+    @Test
+    void testWritesAndOtherErrorsAreNotRetried() {
+        ReadPolicy policy = policy(false, 2000);
+        Mono<ResponseEntity<Object>> reset = Mono.fromCallable(() -> {
+            attempts.incrementAndGet();
+            throw new ResourceAccessException("I/O error", new SocketException("Connection reset"));
+        });
+        Mono<ResponseEntity<Object>> broken = Mono.fromCallable(() -> {
+            attempts.incrementAndGet();
+            throw new IllegalStateException("Broken");
+        });
+
+        assertThrows(ResourceAccessException.class, () -> policy.apply("/items", HttpMethod.POST, reset, true).block());
+        assertThrows(ResourceAccessException.class, () -> policy.apply("/items", HttpMethod.DELETE, reset, true).block());
+        assertThrows(IllegalStateException.class, () -> policy.apply("/items", HttpMethod.GET, broken, true).block());
+        assertEquals(3, attempts.get());
+    }
+
+    @Test
+    void testReadTimeoutIsNotRetried() {
+        ReadPolicy policy = policy(false, 2000);
+        Mono<ResponseEntity<Object>> call = Mono.fromCallable(() -> {
+            attempts.incrementAndGet();
+            throw new ResourceAccessException("I/O error", new SocketTimeoutException("Read timed out"));
+        });
+
+        assertThrows(ResourceAccessException.class, () -> policy.apply("/items", HttpMethod.GET, call, true).block());
+        assertEquals(1, attempts.get());
+    }
+
+    @Test
+    void testBlockingCallsLeaveTheCallerThread() {
+        ReadPolicy policy = policy(false, 2000);
+        Thread caller = Thread.currentThread();
+        Mono<ResponseEntity<Object>> call = Mono.fromCallable(() -> {
+            assertNotSame(caller, Thread.currentThread());
+            attempts.incrementAndGet();
+            return new ResponseEntity<>(HttpStatus.OK);
+        });
+
+        policy.apply("/items", HttpMethod.GET, call, true).block();
+        policy.apply("/items", HttpMethod.POST, call, true).block();
+
+        assertEquals(2, attempts.get());
+    }
+
+    @Test
+    void testSlowGetIsHedged() {
+        ReadPolicy policy = policy(true, 20);
+        Mono<ResponseEntity<Object>> call = Mono.defer(() -> attempts.incrementAndGet() == 1
+                ? Mono.just(new ResponseEntity<Object>(HttpStatus.OK)).delayElement(Duration.ofSeconds(5))
+                : Mono.just(new ResponseEntity<Object>(HttpStatus.ACCEPTED)));
+
+        long start = System.nanoTime();
+        ResponseEntity<Object> response = policy.apply("/items", HttpMethod.GET, call, false).block();
+
+        assertEquals(HttpStatus.ACCEPTED, response.getStatusCode());
+        assertTrue(System.nanoTime() - start < Duration.ofSeconds(2).toNanos());
+        assertEquals(1, meterRegistry.counter("gateway.hedge.fired", "route", "/items").count());
+    }
+
+    @Test
+    void testFastGetIsNotHedged() {
+        ReadPolicy policy = policy(true, 2000);
+        Mono<ResponseEntity<Object>> call = Mono.fromCallable(() -> {
+            attempts.incrementAndGet();
+            return new ResponseEntity<>(HttpStatus.OK);
+        });
+
+        policy.apply("/items", HttpMethod.GET, call, true).block();
+
+        assertEquals(1, attempts.get());
+        assertEquals(0, meterRegistry.counter("gateway.hedge.fired", "route", "/items").count());
+    }
+
+    @Test
+    void testLatencyWindowPercentile() {
+        LatencyWindow window = new LatencyWindow(100, 0.95, 10);
+        assertEquals(-1, window.percentile());
+
+        for (long i = 1; i <= 100; i++) {
+            window.record(i);
+        }
+
+        assertEquals(95, window.percentile());
+    }
+
+    private ReadPolicy policy(boolean hedging, long maxDelayMs) {
+        return new ReadPolicy(meterRegistry, 2, 1, hedging, 0.95, 1, maxDelayMs);
+    }
+}
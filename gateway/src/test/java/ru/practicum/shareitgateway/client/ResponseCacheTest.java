@@ -0,0 +1,97 @@
+package ru.practicum.shareitgateway.client;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import reactor.core.publisher.Mono;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class ResponseCacheTest {
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final List<String> sentETags = new ArrayList<>();
+
+    @Test
+    void testNotModifiedReturnsCachedResponse() {
+        ResponseCache cache = new ResponseCache(true, 10, 1024, meterRegistry);
+        ResponseEntity<Object> ok = response(HttpStatus.OK, "W/\"1\"", "{}");
+
+        cache.revalidate("7 /items/1", eTag -> send(eTag, ok)).block();
+        ResponseEntity<Object> cached = cache.revalidate("7 /items/1",
+                eTag -> send(eTag, response(HttpStatus.NOT_MODIFIED, "W/\"1\"", null))).block();
+
+        assertSame(ok, cached);
+        assertEquals(List.of("none", "W/\"1\""), sentETags);
+        assertEquals(1, meterRegistry.counter("gateway.response_cache.requests", "result", "hit").count());
+        assertEquals(1, meterRegistry.counter("gateway.response_cache.requests", "result", "miss").count());
+    }
+
+    @Test
+    void testClientETagIsForwardedWhenNothingIsCached() {
+        ResponseCache cache = new ResponseCache(true, 10, 1024, meterRegistry);
+        ResponseEntity<Object> notModified = response(HttpStatus.NOT_MODIFIED, "W/\"1\"", null);
+
+        ResponseEntity<Object> forwarded = cache.revalidate("7 /items/1", "W/\"1\"",
+                eTag -> send(eTag, notModified)).block();
+        cache.revalidate("7 /items/1", "W/\"0\"", eTag -> send(eTag, response(HttpStatus.OK, "W/\"1\"", "{}"))).block();
+        cache.revalidate("7 /items/1", "W/\"0\"", eTag -> send(eTag, notModified)).block();
+
+        assertSame(notModified, forwarded);
+        assertEquals(List.of("W/\"1\"", "W/\"0\"", "W/\"1\""), sentETags);
+        assertEquals(1, meterRegistry.counter("gateway.response_cache.requests", "result", "hit").count());
+    }
+
+    @Test
+    void testClientETagIsForwardedWhenDisabled() {
+        ResponseCache cache = new ResponseCache(false, 10, 1024, meterRegistry);
+
+        cache.revalidate("7 /items/1", "W/\"1\"", eTag -> send(eTag, response(HttpStatus.OK, "W/\"2\"", "{}"))).block();
+
+        assertEquals(List.of("W/\"1\""), sentETags);
+    }
+
+    @Test
+    void testResponsesWithoutETagOrTooLargeAreNotCached() {
+        ResponseCache cache = new ResponseCache(true, 10, 4, meterRegistry);
+
+        cache.revalidate("7 /items/1", eTag -> send(eTag, response(HttpStatus.OK, null, "{}"))).block();
+        cache.revalidate("7 /items/1", eTag -> send(eTag, response(HttpStatus.OK, "W/\"1\"", "{\"id\":1}"))).block();
+        cache.revalidate("7 /items/1", eTag -> send(eTag, response(HttpStatus.OK, "W/\"1\"", "{}"))).block();
+
+        assertEquals(List.of("none", "none", "none"), sentETags);
+    }
+
+    @Test
+    void testLeastRecentlyUsedEntryIsEvicted() {
+        ResponseCache cache = new ResponseCache(true, 1, 1024, meterRegistry);
+
+        cache.revalidate("7 /items/1", eTag -> send(eTag, response(HttpStatus.OK, "W/\"1\"", "{}"))).block();
+        cache.revalidate("7 /items/2", eTag -> send(eTag, response(HttpStatus.OK, "W/\"2\"", "{}"))).block();
+        cache.revalidate("7 /items/1", eTag -> send(eTag, response(HttpStatus.OK, "W/\"1\"", "{}"))).block();
+
+        assertEquals(List.of("none", "none", "none"), sentETags);
+        assertEquals(1, meterRegistry.get("gateway.response_cache.size").gauge().value());
+    }
+
+    private Mono<ResponseEntity<Object>> send(String eTag, ResponseEntity<Object> response) {
+        sentETags.add(eTag != null ? eTag : "none");
+        return Mono.just(response);
+    }
+
+    private static ResponseEntity<Object> response(HttpStatus status, String eTag, String body) {
+        HttpHeaders headers = new HttpHeaders();
+        if (eTag != null) {
+            headers.setETag(eTag);
+        }
+        return new ResponseEntity<>(body != null ? body.getBytes(StandardCharsets.UTF_8) : null, headers, status);
+    }
+}
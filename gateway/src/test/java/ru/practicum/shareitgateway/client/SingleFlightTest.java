@@ -0,0 +1,72 @@
+package ru.practicum.shareitgateway.client;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class SingleFlightTest {
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final AtomicInteger upstreamCalls = new AtomicInteger();
+
+    @Test
+    void testConcurrentCallsShareOneUpstreamCall() {
+        SingleFlight singleFlight = new SingleFlight(true, 100, meterRegistry);
+
+        List<String> results = Flux.range(0, 10)
+                .flatMap(i -> singleFlight.execute("GET /items/1", this::slowCall))
+                .collectList()
+                .block();
+
+        assertEquals(10, results.size());
+        assertEquals(1, upstreamCalls.get());
+        assertEquals(9, meterRegistry.counter("gateway.single_flight.merged").count());
+        assertEquals(0, meterRegistry.get("gateway.single_flight.in_flight").gauge().value());
+    }
+
+    @Test
+    void testCompletedCallIsNotReused() {
+        SingleFlight singleFlight = new SingleFlight(true, 100, meterRegistry);
+
+        singleFlight.execute("GET /items/1", this::slowCall).block();
+        singleFlight.execute("GET /items/1", this::slowCall).block();
+
+        assertEquals(2, upstreamCalls.get());
+    }
+
+    @Test
+    void testDifferentKeysAreNotMerged() {
+        SingleFlight singleFlight = new SingleFlight(true, 100, meterRegistry);
+
+        Flux.just("1 GET /items/1", "2 GET /items/1")
+                .flatMap(key -> singleFlight.execute(key, this::slowCall))
+                .blockLast();
+
+        assertEquals(2, upstreamCalls.get());
+    }
+
+    @Test
+    void testCallsBeyondMaxKeysGoUpstream() {
+        SingleFlight singleFlight = new SingleFlight(true, 0, meterRegistry);
+
+        Flux.range(0, 3)
+                .flatMap(i -> singleFlight.execute("GET /items/1", this::slowCall))
+                .blockLast();
+
+        assertEquals(3, upstreamCalls.get());
+    }
+
+    private Mono<String> slowCall() {
+        return Mono.delay(Duration.ofMillis(100))
+                .doOnSubscribe(subscription -> upstreamCalls.incrementAndGet())
+                .map(tick -> "item");
+    }
+}
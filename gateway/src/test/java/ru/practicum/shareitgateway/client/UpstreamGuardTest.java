@@ -0,0 +1,107 @@
+package ru.practicum.shareitgateway.client;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class UpstreamGuardTest {
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final AtomicLong clock = new AtomicLong();
+
+    @Test
+    void testBreakerOpensOnFailuresAndClosesAfterProbes() {
+        CircuitBreaker breaker = new CircuitBreaker(4, 4, 50, 1_000, 2, clock::get);
+
+        breaker.record(true);
+        breaker.record(false);
+        breaker.record(true);
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+        breaker.record(false);
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+        assertFalse(breaker.tryAcquire());
+
+        clock.set(1_000);
+        assertTrue(breaker.tryAcquire());
+        assertTrue(breaker.tryAcquire());
+        assertFalse(breaker.tryAcquire());
+        breaker.record(true);
+        breaker.record(true);
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+    }
+
+    @Test
+    void testFailedProbeOpensBreakerAgain() {
+        CircuitBreaker breaker = new CircuitBreaker(2, 2, 50, 1_000, 1, clock::get);
+        breaker.record(false);
+        breaker.record(false);
+
+        clock.set(1_000);
+        assertTrue(breaker.tryAcquire());
+        breaker.record(false);
+
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+        assertFalse(breaker.tryAcquire());
+    }
+
+    @Test
+    void testOpenCircuitFailsFastWith503() {
+        UpstreamGuard guard = guard(1, TimeUnit.SECONDS.toNanos(5));
+        guard.protect(Mono.just(new ResponseEntity<>(HttpStatus.BAD_GATEWAY))).block();
+        guard.protect(Mono.error(new IOException("Connection refused"))).onErrorResume(e -> Mono.empty()).block();
+
+        ResponseEntity<Object> response = guard.protect(Mono.just(new ResponseEntity<>(HttpStatus.OK))).block();
+
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE, response.getStatusCode());
+        assertEquals(1, meterRegistry.counter("gateway.upstream.rejected",
+                "route", "/bookings", "reason", "circuit_open").count());
+        assertEquals(CircuitBreaker.State.OPEN.ordinal(),
+                meterRegistry.get("gateway.upstream.circuit_state").gauge().value());
+    }
+
+    @Test
+    void testBulkheadRejectsCallsOverLimit() {
+        UpstreamGuard guard = guard(1, TimeUnit.SECONDS.toNanos(5));
+        Sinks.One<ResponseEntity<Object>> slow = Sinks.one();
+        guard.protect(slow.asMono()).subscribe();
+
+        ResponseEntity<Object> rejected = guard.protect(Mono.just(new ResponseEntity<>(HttpStatus.OK))).block();
+        slow.tryEmitValue(new ResponseEntity<>(HttpStatus.OK));
+        ResponseEntity<Object> accepted = guard.protect(Mono.just(new ResponseEntity<>(HttpStatus.OK))).block();
+
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE, rejected.getStatusCode());
+        assertEquals(HttpStatus.OK, accepted.getStatusCode());
+        assertEquals(1, meterRegistry.counter("gateway.upstream.rejected",
+                "route", "/bookings", "reason", "bulkhead_full").count());
+        assertEquals(0, meterRegistry.get("gateway.upstream.in_flight").gauge().value());
+    }
+
+    @Test
+    void testSlowCallsCountAsFailures() {
+        UpstreamGuard guard = guard(10, 0);
+        guard.protect(Mono.just(new ResponseEntity<Object>(HttpStatus.OK)).delayElement(Duration.ofMillis(5)))
+                .block();
+        guard.protect(Mono.just(new ResponseEntity<Object>(HttpStatus.OK)).delayElement(Duration.ofMillis(5)))
+                .block();
+
+        assertEquals(CircuitBreaker.State.OPEN, guard.getState());
+    }
+
+    private UpstreamGuard guard(int maxConcurrent, long slowCallNanos) {
+        CircuitBreaker breaker = new CircuitBreaker(2, 2, 100, TimeUnit.SECONDS.toNanos(5), 1, System::nanoTime);
+        return new UpstreamGuard("/bookings", breaker, maxConcurrent, slowCallNanos, meterRegistry);
+    }
+}
@@ -7,6 +7,8 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import ru.practicum.shareitgateway.exception.ValidationException;
 
+import java.time.LocalDateTime;
+
 @SpringBootTest
 @RequiredArgsConstructor(onConstructor_ = @Autowired)
 class ItemClientTest {
@@ -49,4 +51,15 @@ class ItemClientTest {
         Assertions.assertEquals("Количество элементов для отображения должно быть больше 0", exception.getMessage());
     }
 
-}
\ No newline at end of file
+    @Test
+    void testGetAvailabilityIfPeriodIncorrect() {
+        LocalDateTime from = LocalDateTime.now().plusDays(2);
+
+        final ValidationException exception = Assertions.assertThrows(
+                ValidationException.class,
+                () -> itemClient.getAvailability(1L, 1L, from, from.minusDays(1)));
+
+        Assertions.assertEquals("Дата окончания периода раньше начала периода", exception.getMessage());
+    }
+
+}
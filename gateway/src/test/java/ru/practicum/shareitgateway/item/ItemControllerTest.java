@@ -1,20 +1,26 @@
 package ru.practicum.shareitgateway.item;
 
 import java.nio.charset.StandardCharsets;
+import java.util.List;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import reactor.core.publisher.Mono;
 import ru.practicum.shareitgateway.item.dto.CommentDto;
 import ru.practicum.shareitgateway.item.dto.ItemDto;
 import static org.hamcrest.Matchers.*;
 import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
-import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
 
 @WebMvcTest(controllers = ItemController.class)
@@ -54,6 +60,20 @@ class ItemControllerTest {
                 .andExpect(status().isOk());
     }
 
+    @Test
+    void testAddAll() throws Exception {
+        when(itemClient.addAll(anyLong(), any()))
+                .thenReturn(null);
+
+        mvc.perform(post("/items/batch")
+                        .header(HEADER_ID, USER_ID)
+                        .content(mapper.writeValueAsString(List.of(itemDto)))
+                        .characterEncoding(StandardCharsets.UTF_8)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk());
+    }
+
     @Test
     void testAddWithoutUserId() throws Exception {
         when(itemClient.add(anyLong(), any()))
@@ -148,6 +168,20 @@ class ItemControllerTest {
                 .andExpect(status().reason(containsString("Required request header 'X-Sharer-User-Id' for method parameter type Long is not present")));
     }
 
+    @Test
+    void testGetAvailability() throws Exception {
+        when(itemClient.getAvailability(anyLong(), anyLong(), any(), any()))
+                .thenReturn(null);
+
+        mvc.perform(get("/items/1/availability")
+                        .header(HEADER_ID, USER_ID)
+                        .param("from", "2030-01-01T00:00:00")
+                        .param("to", "2030-01-31T00:00:00")
+                        .characterEncoding(StandardCharsets.UTF_8)
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk());
+    }
+
     @Test
     void testGetAll() throws Exception {
         when(itemClient.getAll(anyLong(), anyInt(), anyInt()))
@@ -297,4 +331,23 @@ class ItemControllerTest {
                 .andExpect(status().is(400));
     }
 
-}
\ No newline at end of file
+
+    @Test
+    void testGetByIdAnswersNotModifiedForCurrentETag() throws Exception {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setETag("W/\"3-0\"");
+        when(itemClient.getById(anyLong(), anyLong()))
+                .thenReturn(Mono.just(new ResponseEntity<>("{\"id\":1}".getBytes(StandardCharsets.UTF_8), headers, HttpStatus.OK)));
+
+        MvcResult result = mvc.perform(get("/items/1")
+                        .header(HEADER_ID, USER_ID)
+                        .header(HttpHeaders.IF_NONE_MATCH, "W/\"3-0\""))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mvc.perform(asyncDispatch(result))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, "W/\"3-0\""))
+                .andExpect(content().string(""));
+    }
+}
@@ -0,0 +1,115 @@
+package ru.practicum.shareitgateway.ratelimit;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class RateLimitFilterTest {
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    void testBucketRefillsAtConfiguredRate() {
+        long second = TimeUnit.SECONDS.toNanos(1);
+        TokenBucket bucket = new TokenBucket(second, 2, 0);
+
+        assertEquals(0, bucket.tryAcquire(0));
+        assertEquals(0, bucket.tryAcquire(0));
+        assertEquals(second, bucket.tryAcquire(0));
+        assertEquals(0, bucket.tryAcquire(second));
+        assertEquals(2 * second, bucket.refillNanos());
+    }
+
+    @Test
+    void testRequestsOverLimitAreRejectedWithRetryAfter() throws Exception {
+        RateLimitFilter filter = filter(rule("search", "GET", "/items/search", 2, 0.5));
+
+        assertEquals(HttpStatus.OK.value(), perform(filter, "GET", "/items/search", "1").getStatus());
+        assertEquals(HttpStatus.OK.value(), perform(filter, "GET", "/items/search", "1").getStatus());
+        MockHttpServletResponse rejected = perform(filter, "GET", "/items/search", "1");
+
+        assertEquals(HttpStatus.TOO_MANY_REQUESTS.value(), rejected.getStatus());
+        assertEquals("2", rejected.getHeader("Retry-After"));
+        assertEquals("{\"error\":\"Слишком много запросов, повторите через 2 с\"}", rejected.getContentAsString());
+        assertEquals(1, meterRegistry.counter("gateway.rate_limit.rejected", "rule", "search").count());
+    }
+
+    @Test
+    void testUsersAndRulesHaveSeparateBuckets() throws Exception {
+        RateLimitFilter filter = filter(rule("search", "GET", "/items/search", 1, 0.5),
+                rule("default", null, "/**", 1, 0.5));
+
+        assertEquals(HttpStatus.OK.value(), perform(filter, "GET", "/items/search", "1").getStatus());
+        assertEquals(HttpStatus.OK.value(), perform(filter, "GET", "/items/search", "2").getStatus());
+        assertEquals(HttpStatus.OK.value(), perform(filter, "GET", "/items/1", "1").getStatus());
+        assertEquals(HttpStatus.TOO_MANY_REQUESTS.value(), perform(filter, "POST", "/items", "1").getStatus());
+    }
+
+    @Test
+    void testLeastRecentlyUsedBucketsAreEvictedOnceFull() throws Exception {
+        RateLimitProperties properties = properties(rule("default", null, "/**", 1, 0.5));
+        properties.setMaxBuckets(1);
+        RateLimitFilter filter = new RateLimitFilter(properties, new ObjectMapper(), meterRegistry);
+
+        assertEquals(HttpStatus.OK.value(), perform(filter, "GET", "/items", "1").getStatus());
+        assertEquals(HttpStatus.OK.value(), perform(filter, "GET", "/items", "2").getStatus());
+        assertEquals(HttpStatus.OK.value(), perform(filter, "GET", "/items", "3").getStatus());
+        assertEquals(1, filter.bucketCount());
+        assertEquals(1, meterRegistry.get("gateway.rate_limit.buckets").gauge().value());
+    }
+
+    @Test
+    void testIdleBucketsExpireOnceFull() throws Exception {
+        AtomicLong time = new AtomicLong();
+        RateLimitFilter filter = new RateLimitFilter(properties(rule("default", null, "/**", 1, 0.5)),
+                new ObjectMapper(), meterRegistry, time::get);
+
+        assertEquals(HttpStatus.OK.value(), perform(filter, "GET", "/items", "1").getStatus());
+        time.addAndGet(TimeUnit.SECONDS.toNanos(1));
+        assertEquals(1, filter.bucketCount());
+        assertEquals(HttpStatus.TOO_MANY_REQUESTS.value(), perform(filter, "GET", "/items", "1").getStatus());
+
+        time.addAndGet(TimeUnit.SECONDS.toNanos(5));
+        assertEquals(0, filter.bucketCount());
+    }
+
+    private RateLimitFilter filter(RateLimitProperties.Rule... rules) {
+        return new RateLimitFilter(properties(rules), new ObjectMapper(), meterRegistry);
+    }
+
+    private static RateLimitProperties properties(RateLimitProperties.Rule... rules) {
+        RateLimitProperties properties = new RateLimitProperties();
+        properties.setRules(List.of(rules));
+        return properties;
+    }
+
+    private static RateLimitProperties.Rule rule(String name, String method, String path, int capacity, double refill) {
+        RateLimitProperties.Rule rule = new RateLimitProperties.Rule();
+        rule.setName(name);
+        rule.setMethod(method);
+        rule.setPath(path);
+        rule.setCapacity(capacity);
+        rule.setRefillPerSecond(refill);
+        return rule;
+    }
+
+    private static MockHttpServletResponse perform(RateLimitFilter filter, String method, String path, String userId)
+            throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest(method, path);
+        request.addHeader("X-Sharer-User-Id", userId);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, new MockFilterChain());
+        return response;
+    }
+}
@@ -9,6 +9,7 @@ import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 import ru.practicum.shareitgateway.user.dto.UserDto;
 import java.nio.charset.StandardCharsets;
+import java.util.List;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.Mockito.when;
@@ -69,6 +70,19 @@ class UserControllerTest {
                 .andExpect(status().isOk());
     }
 
+    @Test
+    void testAddAllPassesInvalidRowsToServer() throws Exception {
+        when(userClient.addAll(any()))
+                .thenReturn(null);
+
+        mvc.perform(post("/users/batch")
+                        .content(mapper.writeValueAsString(List.of(userDto, UserDto.builder().build())))
+                        .characterEncoding(StandardCharsets.UTF_8)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk());
+    }
+
     @Test
     void testAddWithoutBody() throws Exception {
         when(userClient.add(any()))
@@ -1,9 +1,12 @@
 package ru.practicum.shareitserver.booking;
 
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import ru.practicum.shareitserver.booking.dto.BookingCursor;
 import ru.practicum.shareitserver.booking.dto.BookingDto;
-import ru.practicum.shareitserver.booking.model.Booking;
+import ru.practicum.shareitserver.booking.dto.BookingResponseDto;
 import ru.practicum.shareitserver.booking.service.BookingService;
 
 import javax.validation.Valid;
@@ -16,36 +19,49 @@ public class BookingController {
 
     private final BookingService bookingService;
     private static final String HEADER_ID = "X-Sharer-User-Id";
+    private static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
 
     @PostMapping
-    public Booking add(@RequestHeader(HEADER_ID) Long userId, @Valid @RequestBody BookingDto bookingDto) {
+    public BookingResponseDto add(@RequestHeader(HEADER_ID) Long userId, @Valid @RequestBody BookingDto bookingDto) {
         return bookingService.add(userId, bookingDto);
     }
 
     @PatchMapping("/{bookingId}")
-    public Booking approve(@RequestHeader(HEADER_ID) Long userId,
+    public BookingResponseDto approve(@RequestHeader(HEADER_ID) Long userId,
                     @PathVariable Long bookingId, @RequestParam Boolean approved) {
         return bookingService.approve(bookingId, userId, approved);
     }
 
     @GetMapping("/{bookingId}")
-    public Booking findById(@RequestHeader(HEADER_ID) Long userId, @PathVariable Long bookingId) {
-        return bookingService.findById(bookingId, userId);
+    public BookingResponseDto findById(@RequestHeader(HEADER_ID) Long userId, @PathVariable Long bookingId,
+                                       WebRequest request) {
+        return bookingService.findById(bookingId, userId, request::checkNotModified);
     }
 
     @GetMapping
-    public Collection<Booking> findAllByUser(@RequestHeader(HEADER_ID) Long userId,
+    public ResponseEntity<Collection<BookingResponseDto>> findAllByUser(@RequestHeader(HEADER_ID) Long userId,
                     @RequestParam(defaultValue = "ALL") String state,
-                    @RequestParam(defaultValue = "0") Integer from, @RequestParam(defaultValue = "5")  Integer size) {
-        return bookingService.findAllByUser(userId, state, from, size);
+                    @RequestParam(defaultValue = "0") Integer from, @RequestParam(defaultValue = "5")  Integer size,
+                    @RequestParam(required = false) String cursor) {
+        return withNextCursor(bookingService.findAllByUser(userId, state, from, size, cursor), size);
     }
 
     @GetMapping("/owner")
-    public Collection<Booking> findAllByOwner(@RequestHeader(HEADER_ID) Long userId,
+    public ResponseEntity<Collection<BookingResponseDto>> findAllByOwner(@RequestHeader(HEADER_ID) Long userId,
                     @RequestParam(defaultValue = "ALL") String state,
-                    @RequestParam(defaultValue = "0") Integer from, @RequestParam(defaultValue = "5")  Integer size) {
-        return bookingService.findAllByOwner(userId, state, from, size);
+                    @RequestParam(defaultValue = "0") Integer from, @RequestParam(defaultValue = "5")  Integer size,
+                    @RequestParam(required = false) String cursor) {
+        return withNextCursor(bookingService.findAllByOwner(userId, state, from, size, cursor), size);
     }
 
-}
+    private static ResponseEntity<Collection<BookingResponseDto>> withNextCursor(Collection<BookingResponseDto> bookings, Integer size) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (bookings.size() == size) {
+            bookings.stream()
+                    .reduce((first, second) -> second)
+                    .ifPresent(last -> response.header(NEXT_CURSOR_HEADER, BookingCursor.of(last).encode()));
+        }
+        return response.body(bookings);
+    }
 
+}
@@ -1,6 +1,7 @@
 package ru.practicum.shareitserver.booking;
 
 import ru.practicum.shareitserver.booking.dto.BookingDto;
+import ru.practicum.shareitserver.booking.dto.BookingResponseDto;
 import ru.practicum.shareitserver.booking.model.Booking;
 import ru.practicum.shareitserver.booking.model.Status;
 import ru.practicum.shareitserver.item.model.Item;
@@ -30,4 +31,9 @@ public class BookingMapper {
                 .status(booking.getStatus())
                 .build();
     }
+
+    public static BookingResponseDto mapToBookingResponseDto(Booking booking) {
+        return new BookingResponseDto(booking.getId(), booking.getStart(), booking.getEnd(), booking.getStatus(),
+                booking.getItem().getId(), booking.getItem().getName(), booking.getBooker().getId());
+    }
 }
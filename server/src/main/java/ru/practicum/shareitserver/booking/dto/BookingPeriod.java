@@ -0,0 +1,11 @@
+package ru.practicum.shareitserver.booking.dto;
+
+import java.time.LocalDateTime;
+
+public interface BookingPeriod {
+
+    LocalDateTime getStart();
+
+    LocalDateTime getEnd();
+
+}
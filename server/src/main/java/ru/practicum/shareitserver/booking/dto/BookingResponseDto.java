@@ -0,0 +1,41 @@
+package ru.practicum.shareitserver.booking.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import ru.practicum.shareitserver.booking.model.Status;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@AllArgsConstructor
+public class BookingResponseDto {
+
+    private Long id;
+    private LocalDateTime start;
+    private LocalDateTime end;
+    private Status status;
+    private ItemShort item;
+    private Booker booker;
+
+    public BookingResponseDto(Long id, LocalDateTime start, LocalDateTime end, Status status,
+                              Long itemId, String itemName, Long bookerId) {
+        this(id, start, end, status, new ItemShort(itemId, itemName), new Booker(bookerId));
+    }
+
+    @Data
+    @AllArgsConstructor
+    public static class ItemShort {
+
+        private Long id;
+        private String name;
+    }
+
+    @Data
+    @AllArgsConstructor
+    public static class Booker {
+
+        private Long id;
+    }
+}
@@ -1,38 +1,118 @@
 package ru.practicum.shareitserver.booking.repository;
 
 import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
 import java.time.LocalDateTime;
+import ru.practicum.shareitserver.booking.dto.BookingPeriod;
+import ru.practicum.shareitserver.booking.dto.BookingResponseDto;
 import ru.practicum.shareitserver.booking.model.Status;
 import ru.practicum.shareitserver.booking.model.Booking;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 public interface BookingRepository extends JpaRepository<Booking, Long> {
 
-    Collection<Booking> findAllByBookerId(Long userId, PageRequest of);
-
-    Collection<Booking> findAllByBookerIdAndStartBeforeAndEndAfter(Long userId, LocalDateTime start, LocalDateTime end, PageRequest of);
-
-    Collection<Booking> findAllByBookerIdAndEndBefore(Long userId, LocalDateTime end, PageRequest of);
-
-    Collection<Booking> findAllByBookerIdAndStartAfter(Long userId, LocalDateTime start, PageRequest of);
-
-    Collection<Booking> findAllByBookerIdAndStatus(Long userId, Status status, PageRequest of);
-
-    Collection<Booking> findAllByItemOwnerId(Long userId, PageRequest of);
-
-    Collection<Booking> findAllByItemOwnerIdAndStartBeforeAndEndAfter(Long userId, LocalDateTime start, LocalDateTime end, PageRequest of);
-
-    Collection<Booking> findAllByItemOwnerIdAndEndBefore(Long userId, LocalDateTime end, PageRequest of);
-
-    Collection<Booking> findAllByItemOwnerIdAndStartAfter(Long userId, LocalDateTime start, PageRequest of);
-
-    Collection<Booking> findAllByItemOwnerIdAndStatus(Long userId, Status status, PageRequest of);
-
-    Booking findFirstByItemIdAndStatusAndStartBeforeOrderByStartDesc(Long id, Status status, LocalDateTime start);
-
-    Booking findFirstByItemIdAndStatusAndStartAfterOrderByStartAsc(Long id, Status status, LocalDateTime start);
-
-    Collection<Booking> findAllByBookerIdAndItemIdAndStatusEqualsAndEndIsBefore(Long userId, Long itemId, Status approved, LocalDateTime now);
-
-}
\ No newline at end of file
+    String RESPONSE_FROM = "select new ru.practicum.shareitserver.booking.dto.BookingResponseDto("
+            + "b.id, b.start, b.end, b.status, i.id, i.name, b.booker.id) from Booking b join b.item i where ";
+
+    @EntityGraph("Booking.item")
+    Optional<Booking> findWithItemById(Long id);
+
+    @Query(RESPONSE_FROM + "b.booker.id = :userId"
+            + " and b.start <= :cursorStart and (b.start < :cursorStart or b.id < :cursorId) order by b.start desc, b.id desc")
+    List<BookingResponseDto> findAllByBookerId(@Param("userId") Long userId,
+                                               @Param("cursorStart") LocalDateTime cursorStart, @Param("cursorId") Long cursorId, PageRequest of);
+
+    @Query(RESPONSE_FROM + "b.booker.id = :userId and b.start < :start and b.end > :end"
+            + " and b.start <= :cursorStart and (b.start < :cursorStart or b.id < :cursorId) order by b.start desc, b.id desc")
+    List<BookingResponseDto> findAllByBookerIdAndStartBeforeAndEndAfter(@Param("userId") Long userId, @Param("start") LocalDateTime start, @Param("end") LocalDateTime end,
+                                                                        @Param("cursorStart") LocalDateTime cursorStart, @Param("cursorId") Long cursorId, PageRequest of);
+
+    @Query(RESPONSE_FROM + "b.booker.id = :userId and b.end < :end"
+            + " and b.start <= :cursorStart and (b.start < :cursorStart or b.id < :cursorId) order by b.start desc, b.id desc")
+    List<BookingResponseDto> findAllByBookerIdAndEndBefore(@Param("userId") Long userId, @Param("end") LocalDateTime end,
+                                                           @Param("cursorStart") LocalDateTime cursorStart, @Param("cursorId") Long cursorId, PageRequest of);
+
+    @Query(RESPONSE_FROM + "b.booker.id = :userId and b.start > :start"
+            + " and b.start <= :cursorStart and (b.start < :cursorStart or b.id < :cursorId) order by b.start desc, b.id desc")
+    List<BookingResponseDto> findAllByBookerIdAndStartAfter(@Param("userId") Long userId, @Param("start") LocalDateTime start,
+                                                            @Param("cursorStart") LocalDateTime cursorStart, @Param("cursorId") Long cursorId, PageRequest of);
+
+    @Query(RESPONSE_FROM + "b.booker.id = :userId and b.status = :status"
+            + " and b.start <= :cursorStart and (b.start < :cursorStart or b.id < :cursorId) order by b.start desc, b.id desc")
+    List<BookingResponseDto> findAllByBookerIdAndStatus(@Param("userId") Long userId, @Param("status") Status status,
+                                                        @Param("cursorStart") LocalDateTime cursorStart, @Param("cursorId") Long cursorId, PageRequest of);
+
+    @Query(RESPONSE_FROM + "i.owner.id = :userId"
+            + " and b.start <= :cursorStart and (b.start < :cursorStart or b.id < :cursorId) order by b.start desc, b.id desc")
+    List<BookingResponseDto> findAllByItemOwnerId(@Param("userId") Long userId,
+                                                  @Param("cursorStart") LocalDateTime cursorStart, @Param("cursorId") Long cursorId, PageRequest of);
+
+    @Query(RESPONSE_FROM + "i.owner.id = :userId and b.start < :start and b.end > :end"
+            + " and b.start <= :cursorStart and (b.start < :cursorStart or b.id < :cursorId) order by b.start desc, b.id desc")
+    List<BookingResponseDto> findAllByItemOwnerIdAndStartBeforeAndEndAfter(@Param("userId") Long userId, @Param("start") LocalDateTime start, @Param("end") LocalDateTime end,
+                                                                           @Param("cursorStart") LocalDateTime cursorStart, @Param("cursorId") Long cursorId, PageRequest of);
+
+    @Query(RESPONSE_FROM + "i.owner.id = :userId and b.end < :end"
+            + " and b.start <= :cursorStart and (b.start < :cursorStart or b.id < :cursorId) order by b.start desc, b.id desc")
+    List<BookingResponseDto> findAllByItemOwnerIdAndEndBefore(@Param("userId") Long userId, @Param("end") LocalDateTime end,
+                                                              @Param("cursorStart") LocalDateTime cursorStart, @Param("cursorId") Long cursorId, PageRequest of);
+
+    @Query(RESPONSE_FROM + "i.owner.id = :userId and b.start > :start"
+            + " and b.start <= :cursorStart and (b.start < :cursorStart or b.id < :cursorId) order by b.start desc, b.id desc")
+    List<BookingResponseDto> findAllByItemOwnerIdAndStartAfter(@Param("userId") Long userId, @Param("start") LocalDateTime start,
+                                                               @Param("cursorStart") LocalDateTime cursorStart, @Param("cursorId") Long cursorId, PageRequest of);
+
+    @Query(RESPONSE_FROM + "i.owner.id = :userId and b.status = :status"
+            + " and b.start <= :cursorStart and (b.start < :cursorStart or b.id < :cursorId) order by b.start desc, b.id desc")
+    List<BookingResponseDto> findAllByItemOwnerIdAndStatus(@Param("userId") Long userId, @Param("status") Status status,
+                                                           @Param("cursorStart") LocalDateTime cursorStart, @Param("cursorId") Long cursorId, PageRequest of);
+
+    default Booking findFirstByItemIdAndStatusAndStartBeforeOrderByStartDesc(Long id, Status status, LocalDateTime start) {
+        return findAllByItemIdAndStatusAndStartBefore(id, status, start, PageRequest.of(0, 1, Sort.by(Sort.Direction.DESC, "start")))
+                .stream().findFirst().orElse(null);
+    }
+
+    default Booking findFirstByItemIdAndStatusAndStartAfterOrderByStartAsc(Long id, Status status, LocalDateTime start) {
+        return findAllByItemIdAndStatusAndStartAfter(id, status, start, PageRequest.of(0, 1, Sort.by(Sort.Direction.ASC, "start")))
+                .stream().findFirst().orElse(null);
+    }
+
+    @Query("select b from Booking b where b.item.id = :itemId and b.status = :status and b.start < :start")
+    List<Booking> findAllByItemIdAndStatusAndStartBefore(@Param("itemId") Long itemId, @Param("status") Status status,
+                                                         @Param("start") LocalDateTime start, PageRequest of);
+
+    @Query("select b from Booking b where b.item.id = :itemId and b.status = :status and b.start > :start")
+    List<Booking> findAllByItemIdAndStatusAndStartAfter(@Param("itemId") Long itemId, @Param("status") Status status,
+                                                        @Param("start") LocalDateTime start, PageRequest of);
+
+    @Query("select b from Booking b where b.item.id in :itemIds and b.status = :status and b.start = "
+            + "(select max(l.start) from Booking l where l.item.id = b.item.id and l.status = :status and l.start < :now)")
+    Collection<Booking> findAllLastByItemIdIn(@Param("itemIds") Collection<Long> itemIds,
+                                              @Param("status") Status status, @Param("now") LocalDateTime now);
+
+    @Query("select b from Booking b where b.item.id in :itemIds and b.status = :status and b.start = "
+            + "(select min(n.start) from Booking n where n.item.id = b.item.id and n.status = :status and n.start > :now)")
+    Collection<Booking> findAllNextByItemIdIn(@Param("itemIds") Collection<Long> itemIds,
+                                              @Param("status") Status status, @Param("now") LocalDateTime now);
+
+    @Query("select b from Booking b where b.booker.id = :userId and b.item.id = :itemId and b.status = :status and b.end < :now")
+    Collection<Booking> findAllByBookerIdAndItemIdAndStatusEqualsAndEndIsBefore(@Param("userId") Long userId, @Param("itemId") Long itemId,
+                                                                                @Param("status") Status approved, @Param("now") LocalDateTime now);
+
+    @Query("select b.start as start, b.end as end from Booking b "
+            + "where b.item.id = :itemId and b.status in :statuses and b.end > :end")
+    Collection<BookingPeriod> findAllByItemIdAndStatusInAndEndAfter(@Param("itemId") Long itemId, @Param("statuses") Collection<Status> statuses,
+                                                                    @Param("end") LocalDateTime end);
+
+    @Query("select case when count(b) > 0 then true else false end from Booking b "
+            + "where b.item.id = :itemId and b.status in :statuses and b.start < :end and b.end > :start")
+    boolean existsByItemIdAndStatusInAndStartBeforeAndEndAfter(@Param("itemId") Long itemId, @Param("statuses") Collection<Status> statuses,
+                                                               @Param("end") LocalDateTime end, @Param("start") LocalDateTime start);
+
+}
@@ -0,0 +1,362 @@
+package ru.practicum.shareitserver.booking.service;
+
+import lombok.Data;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.practicum.shareitserver.booking.dto.BookingPeriod;
+import ru.practicum.shareitserver.booking.model.Status;
+import ru.practicum.shareitserver.booking.repository.BookingRepository;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Per-item sorted union of WAITING and APPROVED booking intervals [start, end), loaded lazily, plus the
+ * reservations of transactions that have not committed yet. Entries are reloaded in place after
+ * {@code shareit.booking.index.ttl}, so reservations survive a reload. By default every answer for a
+ * new booking is confirmed against the database ({@code shareit.booking.index.verify}). The index alone
+ * only knows the bookings made through this instance, so verification may be switched off only when a
+ * single server instance writes to the database.
+ */
+@Slf4j
+@Component
+public class BookingIntervalIndex {
+
+    static final List<Status> BUSY_STATUSES = List.of(Status.WAITING, Status.APPROVED);
+
+    private final BookingRepository bookingRepository;
+    private final Duration ttl;
+    private final boolean verify;
+    private final int maxItems;
+    private final ConcurrentMap<Long, ItemIntervals> items = new ConcurrentHashMap<>();
+
+    public BookingIntervalIndex(BookingRepository bookingRepository,
+                                @Value("${shareit.booking.index.ttl:PT1M}") Duration ttl,
+                                @Value("${shareit.booking.index.verify:true}") boolean verify,
+                                @Value("${shareit.booking.index.max-items:10000}") int maxItems) {
+        this.bookingRepository = bookingRepository;
+        this.ttl = ttl;
+        this.verify = verify;
+        this.maxItems = maxItems;
+    }
+
+    public boolean isOverlapping(Long itemId, LocalDateTime start, LocalDateTime end) {
+        return intervals(itemId).isOverlapping(start, end);
+    }
+
+    /**
+     * Atomically checks that [start, end) is free and reserves it. The reservation is dropped if the
+     * surrounding transaction does not commit.
+     */
+    public boolean reserve(Long itemId, LocalDateTime start, LocalDateTime end) {
+        Period period = new Period(start, end);
+        while (true) {
+            ItemIntervals intervals = intervals(itemId);
+            Boolean reserved = intervals.tryReserve(period);
+            if (reserved == null) {
+                continue;
+            }
+            if (verify) {
+                reserved = verified(itemId, intervals, period, reserved);
+            }
+            if (reserved) {
+                registerCompletion(intervals, period);
+            }
+            return reserved;
+        }
+    }
+
+    /**
+     * Merged busy intervals of the item clipped to [from, to), in order. Only bookings that have not
+     * ended when the item was loaded are known.
+     */
+    public List<BookingPeriod> busyBetween(Long itemId, LocalDateTime from, LocalDateTime to) {
+        return intervals(itemId).busyBetween(from, to);
+    }
+
+    /**
+     * Frees the interval of a rejected booking once the transaction commits.
+     */
+    public void release(Long itemId, LocalDateTime start, LocalDateTime end) {
+        afterCommit(() -> {
+            ItemIntervals intervals = items.get(itemId);
+            if (intervals != null) {
+                intervals.release(new Period(start, end));
+            }
+        });
+    }
+
+    /**
+     * Reloads the item on next use, once the transaction commits.
+     */
+    public void invalidate(Long itemId) {
+        afterCommit(() -> {
+            ItemIntervals intervals = items.get(itemId);
+            if (intervals != null) {
+                intervals.expire();
+            }
+        });
+    }
+
+    /**
+     * Reloads every item on next use, once the transaction commits: a user and their bookings were deleted.
+     */
+    public void invalidateAll() {
+        afterCommit(() -> items.values().forEach(ItemIntervals::expire));
+    }
+
+    public void clear() {
+        items.clear();
+    }
+
+    /**
+     * Confirms the answer of the index with the database: another instance may have added or rejected
+     * a booking. Reservations of this instance that are not committed yet are not in the database.
+     */
+    private boolean verified(Long itemId, ItemIntervals intervals, Period period, boolean reserved) {
+        if (!reserved && intervals.isPendingOverlapping(period)) {
+            return false;
+        }
+        boolean busy = bookingRepository.existsByItemIdAndStatusInAndStartBeforeAndEndAfter(itemId, BUSY_STATUSES,
+                period.getEnd(), period.getStart());
+        if (reserved == !busy) {
+            return reserved;
+        }
+        log.info("Booking index for item {} is stale, reloading", itemId);
+        if (reserved) {
+            intervals.cancel(period);
+        }
+        reload(itemId, intervals);
+        return !busy && Boolean.TRUE.equals(intervals.tryReserve(period));
+    }
+
+    private void registerCompletion(ItemIntervals intervals, Period period) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            intervals.commit(period);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status == STATUS_COMMITTED) {
+                    intervals.commit(period);
+                } else {
+                    intervals.cancel(period);
+                }
+            }
+        });
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    private ItemIntervals intervals(Long itemId) {
+        ItemIntervals current = items.get(itemId);
+        if (current == null) {
+            evictIdle();
+            long loadStartedAt = System.nanoTime();
+            ItemIntervals loaded = new ItemIntervals(load(itemId), loadStartedAt);
+            ItemIntervals previous = items.putIfAbsent(itemId, loaded);
+            return previous != null ? previous : loaded;
+        }
+        if (current.isExpired(ttl)) {
+            reload(itemId, current);
+        }
+        return current;
+    }
+
+    private void reload(Long itemId, ItemIntervals intervals) {
+        long loadStartedAt = System.nanoTime();
+        intervals.reload(load(itemId), loadStartedAt);
+    }
+
+    private Collection<BookingPeriod> load(Long itemId) {
+        return bookingRepository.findAllByItemIdAndStatusInAndEndAfter(itemId, BUSY_STATUSES, LocalDateTime.now());
+    }
+
+    private void evictIdle() {
+        if (items.size() >= maxItems) {
+            items.values().removeIf(intervals -> intervals.retireIfIdle(ttl));
+        }
+    }
+
+    static class ItemIntervals {
+
+        private final Map<Period, Integer> committed = new HashMap<>();
+        private final Map<Period, Integer> pending = new HashMap<>();
+        private final NavigableMap<LocalDateTime, LocalDateTime> busy = new TreeMap<>();
+        private long loadedAt;
+        private long lastCommitAt;
+        private boolean stale;
+        private boolean retired;
+
+        ItemIntervals(Collection<BookingPeriod> periods, long loadStartedAt) {
+            periods.forEach(period -> add(committed, new Period(period.getStart(), period.getEnd())));
+            loadedAt = loadStartedAt;
+            rebuild();
+        }
+
+        synchronized boolean isExpired(Duration ttl) {
+            return stale || System.nanoTime() - loadedAt > ttl.toNanos();
+        }
+
+        synchronized void expire() {
+            stale = true;
+        }
+
+        /**
+         * Replaces the committed intervals with a fresh load. If a reservation committed while the load
+         * was running, the load may miss it, so the old intervals are kept as well.
+         */
+        synchronized void reload(Collection<BookingPeriod> periods, long loadStartedAt) {
+            if (loadStartedAt - loadedAt < 0) {
+                return;
+            }
+            Map<Period, Integer> previous = lastCommitAt - loadStartedAt >= 0 ? new HashMap<>(committed) : Map.of();
+            committed.clear();
+            periods.forEach(period -> add(committed, new Period(period.getStart(), period.getEnd())));
+            previous.forEach((period, count) -> committed.merge(period, count, Math::max));
+            loadedAt = loadStartedAt;
+            stale = false;
+            rebuild();
+        }
+
+        synchronized boolean isOverlapping(LocalDateTime start, LocalDateTime end) {
+            Map.Entry<LocalDateTime, LocalDateTime> floor = busy.lowerEntry(end);
+            return floor != null && floor.getValue().isAfter(start);
+        }
+
+        synchronized boolean isPendingOverlapping(Period period) {
+            return pending.keySet().stream().anyMatch(p -> p.getStart().isBefore(period.getEnd())
+                    && p.getEnd().isAfter(period.getStart()));
+        }
+
+        synchronized List<BookingPeriod> busyBetween(LocalDateTime from, LocalDateTime to) {
+            List<BookingPeriod> result = new ArrayList<>();
+            Map.Entry<LocalDateTime, LocalDateTime> first = busy.lowerEntry(from);
+            if (first != null && first.getValue().isAfter(from)) {
+                result.add(new Period(from, min(first.getValue(), to)));
+            }
+            busy.subMap(from, true, to, false)
+                    .forEach((start, end) -> result.add(new Period(start, min(end, to))));
+            return result;
+        }
+
+        /**
+         * Returns {@code null} if the entry was evicted and has to be looked up again.
+         */
+        synchronized Boolean tryReserve(Period period) {
+            if (retired) {
+                return null;
+            }
+            if (isOverlapping(period.getStart(), period.getEnd())) {
+                return false;
+            }
+            add(pending, period);
+            merge(period.getStart(), period.getEnd());
+            return true;
+        }
+
+        synchronized void commit(Period period) {
+            if (remove(pending, period)) {
+                add(committed, period);
+                lastCommitAt = System.nanoTime();
+            }
+        }
+
+        synchronized void cancel(Period period) {
+            if (remove(pending, period)) {
+                rebuild();
+            }
+        }
+
+        synchronized void release(Period period) {
+            if (remove(committed, period)) {
+                rebuild();
+            }
+        }
+
+        synchronized boolean retireIfIdle(Duration ttl) {
+            retired = pending.isEmpty() && isExpired(ttl);
+            return retired;
+        }
+
+        private static void add(Map<Period, Integer> periods, Period period) {
+            periods.merge(period, 1, Integer::sum);
+        }
+
+        private static boolean remove(Map<Period, Integer> periods, Period period) {
+            Integer count = periods.get(period);
+            if (count == null) {
+                return false;
+            }
+            if (count > 1) {
+                periods.put(period, count - 1);
+            } else {
+                periods.remove(period);
+            }
+            return true;
+        }
+
+        private void rebuild() {
+            busy.clear();
+            committed.keySet().forEach(p -> merge(p.getStart(), p.getEnd()));
+            pending.keySet().forEach(p -> merge(p.getStart(), p.getEnd()));
+        }
+
+        private void merge(LocalDateTime start, LocalDateTime end) {
+            LocalDateTime mergedStart = start;
+            LocalDateTime mergedEnd = end;
+            Map.Entry<LocalDateTime, LocalDateTime> previous = busy.floorEntry(start);
+            if (previous != null && !previous.getValue().isBefore(start)) {
+                mergedStart = previous.getKey();
+                mergedEnd = max(mergedEnd, previous.getValue());
+                busy.remove(previous.getKey());
+            }
+            Map.Entry<LocalDateTime, LocalDateTime> next = busy.ceilingEntry(mergedStart);
+            while (next != null && !next.getKey().isAfter(mergedEnd)) {
+                mergedEnd = max(mergedEnd, next.getValue());
+                busy.remove(next.getKey());
+                next = busy.ceilingEntry(mergedStart);
+            }
+            busy.put(mergedStart, mergedEnd);
+        }
+
+        private static LocalDateTime max(LocalDateTime first, LocalDateTime second) {
+            return first.isAfter(second) ? first : second;
+        }
+
+        private static LocalDateTime min(LocalDateTime first, LocalDateTime second) {
+            return first.isBefore(second) ? first : second;
+        }
+    }
+
+    @Data
+    private static class Period implements BookingPeriod {
+
+        private final LocalDateTime start;
+        private final LocalDateTime end;
+    }
+}
@@ -1,18 +1,27 @@
 package ru.practicum.shareitserver.booking.service;
 
 import java.util.Collection;
-import ru.practicum.shareitserver.booking.model.Booking;
+import java.util.function.Predicate;
 import ru.practicum.shareitserver.booking.dto.BookingDto;
+import ru.practicum.shareitserver.booking.dto.BookingResponseDto;
 
 public interface BookingService {
 
-    Booking add(Long userId, BookingDto bookingDto);
+    BookingResponseDto add(Long userId, BookingDto bookingDto);
 
-    Booking approve(Long bookingId, Long userId, Boolean approved);
+    BookingResponseDto approve(Long bookingId, Long userId, Boolean approved);
 
-    Booking findById(Long bookingId, Long userId);
+    BookingResponseDto findById(Long bookingId, Long userId);
 
-    Collection<Booking> findAllByUser(Long userId, String state, Integer from, Integer size);
+    /**
+     * Loads the booking once for both the ETag and the body; returns null when {@code notModified}
+     * accepts the ETag.
+     */
+    BookingResponseDto findById(Long bookingId, Long userId, Predicate<String> notModified);
 
-    Collection<Booking> findAllByOwner(Long userId, String state, Integer from, Integer size);
+    String getETag(Long bookingId, Long userId);
+
+    Collection<BookingResponseDto> findAllByUser(Long userId, String state, Integer from, Integer size, String cursor);
+
+    Collection<BookingResponseDto> findAllByOwner(Long userId, String state, Integer from, Integer size, String cursor);
 }
@@ -3,17 +3,20 @@ package ru.practicum.shareitserver.booking.service;
 import java.util.Objects;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.function.Predicate;
 import java.time.LocalDateTime;
 import lombok.extern.slf4j.Slf4j;
 import lombok.RequiredArgsConstructor;
-import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareitserver.booking.dto.BookingCursor;
 import ru.practicum.shareitserver.booking.dto.BookingDto;
+import ru.practicum.shareitserver.booking.dto.BookingResponseDto;
 import ru.practicum.shareitserver.booking.model.Booking;
 import ru.practicum.shareitserver.booking.model.Status;
 import ru.practicum.shareitserver.booking.repository.BookingRepository;
+import ru.practicum.shareitserver.common.ETags;
 import ru.practicum.shareitserver.exception.NotFoundException;
 import ru.practicum.shareitserver.exception.ValidationException;
 import ru.practicum.shareitserver.item.model.Item;
@@ -21,6 +24,7 @@ import ru.practicum.shareitserver.item.repository.ItemRepository;
 import ru.practicum.shareitserver.user.model.User;
 import ru.practicum.shareitserver.user.repository.UserRepository;
 import static ru.practicum.shareitserver.booking.BookingMapper.mapToBooking;
+import static ru.practicum.shareitserver.booking.BookingMapper.mapToBookingResponseDto;
 
 
 @Slf4j
@@ -32,98 +36,119 @@ public class BookingServiceImpl implements BookingService {
     private final ItemRepository itemRepository;
     private final UserRepository userRepository;
     private final BookingRepository bookingRepository;
+    private final BookingIntervalIndex bookingIntervalIndex;
 
 
     @Override
     @Transactional
-    public Booking add(Long userId, BookingDto bookingDto) {
+    public BookingResponseDto add(Long userId, BookingDto bookingDto) {
         log.info("User: {}. Add booking {}", userId, bookingDto.toString());
         User user = checkUser(userId);
         Item item = checkItem(bookingDto.getItemId());
         checkForBooking(item, userId);
+        checkForOverlap(item, bookingDto);
 
-        return bookingRepository.save(mapToBooking(bookingDto, item, user));
+        return mapToBookingResponseDto(bookingRepository.save(mapToBooking(bookingDto, item, user)));
     }
 
     @Override
     @Transactional
-    public Booking approve(Long bookingId, Long userId, Boolean approved) {
+    public BookingResponseDto approve(Long bookingId, Long userId, Boolean approved) {
         log.info("User: {}. Add approve {} for booking {}", userId, approved, bookingId);
         checkUser(userId);
         Booking booking = checkBooking(bookingId);
         checkOwner(booking.getItem(), userId);
         approveStatus(approved, booking);
+        if (booking.getStatus() == Status.REJECTED) {
+            bookingIntervalIndex.release(booking.getItem().getId(), booking.getStart(), booking.getEnd());
+        } else {
+            itemRepository.incrementVersion(booking.getItem());
+        }
 
-        return bookingRepository.save(booking);
+        return mapToBookingResponseDto(bookingRepository.save(booking));
     }
 
     @Override
-    public Booking findById(Long bookingId, Long userId) {
-        checkUser(userId);
-        Booking booking = checkBooking(bookingId);
-        if (Objects.equals(booking.getBooker().getId(), userId)
-                || Objects.equals(booking.getItem().getOwner().getId(), userId)) {
-            return booking;
+    public BookingResponseDto findById(Long bookingId, Long userId) {
+        return findById(bookingId, userId, eTag -> false);
+    }
+
+    @Override
+    public BookingResponseDto findById(Long bookingId, Long userId, Predicate<String> notModified) {
+        Booking booking = checkAccess(bookingId, userId);
+        if (notModified.test(eTag(booking))) {
+            return null;
         }
-        throw new NotFoundException("Бронирование не найдено");
+        return mapToBookingResponseDto(booking);
+    }
+
+    @Override
+    public String getETag(Long bookingId, Long userId) {
+        return eTag(checkAccess(bookingId, userId));
+    }
+
+    private static String eTag(Booking booking) {
+        return ETags.of(booking.getVersion(), booking.getItem().getVersion());
     }
 
     @Override
-    public Collection<Booking> findAllByUser(Long userId, String state, Integer from, Integer size) {
+    public Collection<BookingResponseDto> findAllByUser(Long userId, String state, Integer from, Integer size, String cursor) {
         checkUser(userId);
         LocalDateTime nowTime =  LocalDateTime.now();
-        PageRequest pageRequest = PageRequest.of(from / size, size, Sort.by(Sort.Direction.DESC, "start"));
+        BookingCursor after = cursor == null ? BookingCursor.FIRST : BookingCursor.decode(cursor);
+        PageRequest pageRequest = cursor == null ? PageRequest.of(from / size, size) : PageRequest.of(0, size);
 
-        Collection<Booking> bookings = new ArrayList<>();
+        Collection<BookingResponseDto> bookings = new ArrayList<>();
         switch (state) {
             case "ALL":
-                bookings.addAll(bookingRepository.findAllByBookerId(userId, pageRequest));
+                bookings.addAll(bookingRepository.findAllByBookerId(userId, after.getStart(), after.getId(), pageRequest));
                 break;
             case "CURRENT":
                 bookings.addAll(bookingRepository
-                        .findAllByBookerIdAndStartBeforeAndEndAfter(userId, nowTime, nowTime, pageRequest));
+                        .findAllByBookerIdAndStartBeforeAndEndAfter(userId, nowTime, nowTime, after.getStart(), after.getId(), pageRequest));
                 break;
             case "PAST":
-                bookings.addAll(bookingRepository.findAllByBookerIdAndEndBefore(userId, nowTime, pageRequest));
+                bookings.addAll(bookingRepository.findAllByBookerIdAndEndBefore(userId, nowTime, after.getStart(), after.getId(), pageRequest));
                 break;
             case "FUTURE":
-                bookings.addAll(bookingRepository.findAllByBookerIdAndStartAfter(userId, nowTime, pageRequest));
+                bookings.addAll(bookingRepository.findAllByBookerIdAndStartAfter(userId, nowTime, after.getStart(), after.getId(), pageRequest));
                 break;
             case "WAITING":
-                bookings.addAll(bookingRepository.findAllByBookerIdAndStatus(userId, Status.WAITING, pageRequest));
+                bookings.addAll(bookingRepository.findAllByBookerIdAndStatus(userId, Status.WAITING, after.getStart(), after.getId(), pageRequest));
                 break;
             case "REJECTED":
-                bookings.addAll(bookingRepository.findAllByBookerIdAndStatus(userId, Status.REJECTED, pageRequest));
+                bookings.addAll(bookingRepository.findAllByBookerIdAndStatus(userId, Status.REJECTED, after.getStart(), after.getId(), pageRequest));
                 break;
         }
         return bookings;
     }
 
     @Override
-    public Collection<Booking> findAllByOwner(Long userId, String state, Integer from, Integer size) {
+    public Collection<BookingResponseDto> findAllByOwner(Long userId, String state, Integer from, Integer size, String cursor) {
         checkUser(userId);
         LocalDateTime nowTime =  LocalDateTime.now();
-        PageRequest pageRequest = PageRequest.of(from / size, size, Sort.by(Sort.Direction.DESC, "start"));
-        Collection<Booking> bookings = new ArrayList<>();
+        BookingCursor after = cursor == null ? BookingCursor.FIRST : BookingCursor.decode(cursor);
+        PageRequest pageRequest = cursor == null ? PageRequest.of(from / size, size) : PageRequest.of(0, size);
+        Collection<BookingResponseDto> bookings = new ArrayList<>();
         switch (state) {
             case "ALL":
-                bookings.addAll(bookingRepository.findAllByItemOwnerId(userId, pageRequest));
+                bookings.addAll(bookingRepository.findAllByItemOwnerId(userId, after.getStart(), after.getId(), pageRequest));
                 break;
             case "CURRENT":
                 bookings.addAll(bookingRepository
-                        .findAllByItemOwnerIdAndStartBeforeAndEndAfter(userId, nowTime, nowTime, pageRequest));
+                        .findAllByItemOwnerIdAndStartBeforeAndEndAfter(userId, nowTime, nowTime, after.getStart(), after.getId(), pageRequest));
                 break;
             case "PAST":
-                bookings.addAll(bookingRepository.findAllByItemOwnerIdAndEndBefore(userId, nowTime, pageRequest));
+                bookings.addAll(bookingRepository.findAllByItemOwnerIdAndEndBefore(userId, nowTime, after.getStart(), after.getId(), pageRequest));
                 break;
             case "FUTURE":
-                bookings.addAll(bookingRepository.findAllByItemOwnerIdAndStartAfter(userId, nowTime, pageRequest));
+                bookings.addAll(bookingRepository.findAllByItemOwnerIdAndStartAfter(userId, nowTime, after.getStart(), after.getId(), pageRequest));
                 break;
             case "WAITING":
-                bookings.addAll(bookingRepository.findAllByItemOwnerIdAndStatus(userId, Status.WAITING, pageRequest));
+                bookings.addAll(bookingRepository.findAllByItemOwnerIdAndStatus(userId, Status.WAITING, after.getStart(), after.getId(), pageRequest));
                 break;
             case "REJECTED":
-                bookings.addAll(bookingRepository.findAllByItemOwnerIdAndStatus(userId, Status.REJECTED, pageRequest));
+                bookings.addAll(bookingRepository.findAllByItemOwnerIdAndStatus(userId, Status.REJECTED, after.getStart(), after.getId(), pageRequest));
                 break;
         }
         return bookings;
@@ -146,7 +171,17 @@ public class BookingServiceImpl implements BookingService {
     }
 
     private Booking checkBooking(Long bookingId) {
-        return bookingRepository.findById(bookingId).orElseThrow(() -> new NotFoundException("Бронирование не найдено"));
+        return bookingRepository.findWithItemById(bookingId).orElseThrow(() -> new NotFoundException("Бронирование не найдено"));
+    }
+
+    private Booking checkAccess(Long bookingId, Long userId) {
+        checkUser(userId);
+        Booking booking = checkBooking(bookingId);
+        if (Objects.equals(booking.getBooker().getId(), userId)
+                || Objects.equals(booking.getItem().getOwner().getId(), userId)) {
+            return booking;
+        }
+        throw new NotFoundException("Бронирование не найдено");
     }
 
     private void checkOwner(Item item, Long userId) {
@@ -164,4 +199,16 @@ public class BookingServiceImpl implements BookingService {
         }
     }
 
+    private void checkForOverlap(Item item, BookingDto bookingDto) {
+        if (bookingDto.getStart() == null || bookingDto.getEnd() == null) {
+            throw new ValidationException("Поле даты бронирования не может быть пустым");
+        }
+        if (!bookingDto.getEnd().isAfter(bookingDto.getStart())) {
+            throw new ValidationException("Дата окончания бронирования раньше начала бронирования");
+        }
+        if (!bookingIntervalIndex.reserve(item.getId(), bookingDto.getStart(), bookingDto.getEnd())) {
+            throw new ValidationException("Вещь уже забронирована на эти даты");
+        }
+    }
+
 }
@@ -0,0 +1,22 @@
+package ru.practicum.shareitserver.common;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.Collection;
+
+@Data
+@AllArgsConstructor
+public class BatchResultDto<T> {
+
+    private Collection<T> created;
+    private Collection<RowError> errors;
+
+    @Data
+    @AllArgsConstructor
+    public static class RowError {
+
+        private int index;
+        private String message;
+    }
+}
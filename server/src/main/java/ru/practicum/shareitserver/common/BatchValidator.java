@@ -0,0 +1,46 @@
+package ru.practicum.shareitserver.common;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareitserver.exception.ValidationException;
+
+import javax.validation.ConstraintViolation;
+import javax.validation.Validator;
+import java.util.Collection;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+/**
+ * Row-level checks for bulk endpoints: a broken row is reported back by its index instead of
+ * failing the whole request. Only the batch size itself is a request-level error.
+ */
+@Component
+@RequiredArgsConstructor
+public class BatchValidator {
+
+    private final Validator validator;
+
+    @Value("${shareit.batch.max-size:1000}")
+    private int maxSize;
+
+    public void checkSize(Collection<?> rows) {
+        if (rows.size() > maxSize) {
+            throw new ValidationException("Размер пакета не должен превышать " + maxSize);
+        }
+    }
+
+    public Optional<String> validate(Object row) {
+        if (row == null) {
+            return Optional.of("Пустая запись");
+        }
+        Collection<ConstraintViolation<Object>> violations = validator.validate(row);
+        if (violations.isEmpty()) {
+            return Optional.empty();
+        }
+        return Optional.of(violations.stream()
+                .map(violation -> violation.getPropertyPath() + ": " + violation.getMessage())
+                .sorted()
+                .collect(Collectors.joining("; ")));
+    }
+}
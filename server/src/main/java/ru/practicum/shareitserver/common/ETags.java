@@ -0,0 +1,16 @@
+package ru.practicum.shareitserver.common;
+
+import java.util.Arrays;
+import java.util.stream.Collectors;
+
+/**
+ * Weak ETags built from entity versions, so a representation can be validated without loading and
+ * serializing it.
+ */
+public class ETags {
+    public static String of(Object... versions) {
+        return Arrays.stream(versions)
+                .map(String::valueOf)
+                .collect(Collectors.joining("-", "W/\"", "\""));
+    }
+}
@@ -0,0 +1,71 @@
+package ru.practicum.shareitserver.common;
+
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.JCacheMetrics;
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.cache.CacheManager;
+import java.net.URI;
+import java.time.Duration;
+import java.util.OptionalLong;
+import java.util.UUID;
+
+/**
+ * Hibernate second-level cache for users and items by id, held in bounded Caffeine caches. Entries are
+ * replaced by Hibernate on update and dropped on delete; rows removed by a database cascade are evicted
+ * by {@link EntityCaches}. Hits, misses and evictions are published as {@code cache.*} metrics.
+ */
+@Configuration
+public class EntityCacheConfig {
+
+    public static final String USERS = "users";
+    public static final String ITEMS = "items";
+
+    /**
+     * Every context gets its own manager, so caches and their JMX statistics do not clash in tests.
+     */
+    @Bean
+    public CacheManager entityCacheManager(@Value("${shareit.cache.users.max-size:10000}") long maxUsers,
+                                           @Value("${shareit.cache.items.max-size:50000}") long maxItems,
+                                           @Value("${shareit.cache.ttl:PT10M}") Duration ttl) {
+        CacheManager cacheManager = new CaffeineCachingProvider()
+                .getCacheManager(URI.create("shareit-" + UUID.randomUUID()), getClass().getClassLoader());
+        cacheManager.createCache(USERS, configuration(maxUsers, ttl));
+        cacheManager.createCache(ITEMS, configuration(maxItems, ttl));
+        return cacheManager;
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer entityCacheCustomizer(CacheManager entityCacheManager) {
+        return properties -> {
+            properties.put(AvailableSettings.USE_SECOND_LEVEL_CACHE, true);
+            properties.put(AvailableSettings.CACHE_REGION_FACTORY, ConfigSettings.SIMPLE_FACTORY_NAME);
+            properties.put(ConfigSettings.CACHE_MANAGER, entityCacheManager);
+            properties.put(ConfigSettings.MISSING_CACHE_STRATEGY, "fail");
+        };
+    }
+
+    @Bean
+    public MeterBinder entityCacheMetrics(CacheManager entityCacheManager) {
+        return registry -> {
+            for (String name : entityCacheManager.getCacheNames()) {
+                JCacheMetrics.monitor(registry, entityCacheManager.getCache(name));
+            }
+        };
+    }
+
+    private static CaffeineConfiguration<Object, Object> configuration(long maximumSize, Duration ttl) {
+        CaffeineConfiguration<Object, Object> configuration = new CaffeineConfiguration<>();
+        configuration.setMaximumSize(OptionalLong.of(maximumSize));
+        configuration.setExpireAfterWrite(OptionalLong.of(ttl.toNanos()));
+        configuration.setStatisticsEnabled(true);
+        return configuration;
+    }
+}
@@ -0,0 +1,36 @@
+package ru.practicum.shareitserver.common;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.persistence.Cache;
+import javax.persistence.EntityManagerFactory;
+
+/**
+ * Evictions Hibernate cannot see: rows the database deletes by cascade.
+ */
+@Component
+@RequiredArgsConstructor
+public class EntityCaches {
+
+    private final EntityManagerFactory entityManagerFactory;
+
+    /**
+     * Drops every cached entity of the type now and again once the transaction completes, so rows read
+     * by other requests before the commit do not stay cached.
+     */
+    public void evictAll(Class<?> entity) {
+        Cache cache = entityManagerFactory.getCache();
+        cache.evict(entity);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    cache.evict(entity);
+                }
+            });
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package ru.practicum.shareitserver.common;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.aop.framework.AbstractAdvisingBeanPostProcessor;
+import org.springframework.aop.support.AopUtils;
+import org.springframework.aop.support.DefaultPointcutAdvisor;
+import org.springframework.aop.support.StaticMethodMatcherPointcut;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+import org.springframework.util.ReflectionUtils;
+import ru.practicum.shareitserver.booking.service.BookingService;
+import ru.practicum.shareitserver.item.service.ItemService;
+import ru.practicum.shareitserver.request.service.ItemRequestService;
+import ru.practicum.shareitserver.user.service.UserService;
+
+import java.lang.reflect.Method;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Times every call to a service interface method as {@code shareit.service}, tagged with the interface,
+ * the method and the exception thrown, if any. The timer wraps the transaction, so commit time counts.
+ */
+@Component
+public class ServiceMetrics extends AbstractAdvisingBeanPostProcessor {
+
+    static final String METRIC = "shareit.service";
+    private static final List<Class<?>> SERVICES =
+            List.of(ItemService.class, BookingService.class, ItemRequestService.class, UserService.class);
+
+    public ServiceMetrics(ObjectProvider<MeterRegistry> meterRegistry) {
+        this.advisor = new DefaultPointcutAdvisor(new ServicePointcut(), new TimingInterceptor(meterRegistry));
+        this.beforeExistingAdvisors = true;
+        setProxyTargetClass(true);
+    }
+
+    private static Optional<Class<?>> serviceOf(Class<?> type) {
+        return SERVICES.stream().filter(service -> service.isAssignableFrom(type)).findFirst();
+    }
+
+    private static class ServicePointcut extends StaticMethodMatcherPointcut {
+
+        ServicePointcut() {
+            setClassFilter(type -> serviceOf(type).isPresent());
+        }
+
+        @Override
+        public boolean matches(Method method, Class<?> targetClass) {
+            return serviceOf(targetClass)
+                    .map(service -> ReflectionUtils.findMethod(service, method.getName(), method.getParameterTypes()))
+                    .isPresent();
+        }
+    }
+
+    private static class TimingInterceptor implements MethodInterceptor {
+
+        private final ObjectProvider<MeterRegistry> meterRegistry;
+
+        TimingInterceptor(ObjectProvider<MeterRegistry> meterRegistry) {
+            this.meterRegistry = meterRegistry;
+        }
+
+        @Override
+        public Object invoke(MethodInvocation invocation) throws Throwable {
+            MeterRegistry registry = meterRegistry.getIfAvailable();
+            if (registry == null) {
+                return invocation.proceed();
+            }
+            Timer.Sample sample = Timer.start(registry);
+            String exception = "none";
+            try {
+                return invocation.proceed();
+            } catch (Throwable e) {
+                exception = e.getClass().getSimpleName();
+                throw e;
+            } finally {
+                Class<?> service = serviceOf(AopUtils.getTargetClass(invocation.getThis())).orElseThrow();
+                sample.stop(Timer.builder(METRIC)
+                        .description("Calls to the service layer")
+                        .tag("service", service.getSimpleName())
+                        .tag("method", invocation.getMethod().getName())
+                        .tag("exception", exception)
+                        .register(registry));
+            }
+        }
+    }
+}
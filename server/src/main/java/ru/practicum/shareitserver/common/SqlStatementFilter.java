@@ -0,0 +1,79 @@
+package ru.practicum.shareitserver.common;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.Map;
+
+/**
+ * Counts the JDBC statements of every request into {@code shareit.sql.statements} and warns, with a
+ * {@code shareit.sql.repeated} count, when one statement shape runs {@code shareit.sql.repeat-threshold}
+ * times or more: the usual sign of an N+1 select.
+ */
+@Slf4j
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class SqlStatementFilter extends OncePerRequestFilter {
+
+    static final String STATEMENTS_METRIC = "shareit.sql.statements";
+    static final String REPEATED_METRIC = "shareit.sql.repeated";
+
+    private final ObjectProvider<MeterRegistry> meterRegistry;
+    private final int repeatThreshold;
+
+    public SqlStatementFilter(ObjectProvider<MeterRegistry> meterRegistry,
+                              @Value("${shareit.sql.repeat-threshold:5}") int repeatThreshold) {
+        this.meterRegistry = meterRegistry;
+        this.repeatThreshold = repeatThreshold;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        SqlStatements statements = SqlStatements.start();
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            SqlStatements.finish();
+            request.setAttribute(SqlStatements.ATTRIBUTE, statements);
+            report(request, statements);
+        }
+    }
+
+    private void report(HttpServletRequest request, SqlStatements statements) {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        String uri = pattern == null ? "UNKNOWN" : pattern.toString();
+        MeterRegistry registry = meterRegistry.getIfAvailable();
+        if (registry != null) {
+            DistributionSummary.builder(STATEMENTS_METRIC)
+                    .description("JDBC statements per HTTP request")
+                    .baseUnit("statements")
+                    .tag("method", request.getMethod())
+                    .tag("uri", uri)
+                    .register(registry)
+                    .record(statements.getTotal());
+        }
+        for (Map.Entry<String, Integer> shape : statements.getShapes().entrySet()) {
+            if (shape.getValue() >= repeatThreshold) {
+                log.warn("Repeated SQL statement: method={} uri={} statements={} repeats={} sql=\"{}\"",
+                        request.getMethod(), uri, statements.getTotal(), shape.getValue(), shape.getKey());
+                if (registry != null) {
+                    registry.counter(REPEATED_METRIC, "method", request.getMethod(), "uri", uri).increment();
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package ru.practicum.shareitserver.common;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * JDBC statements run while serving one HTTP request, counted by shape: the SQL with literals and
+ * {@code in} lists collapsed, so the same query for another id counts as a repeat. Filled by
+ * {@link Inspector} for the thread {@link SqlStatementFilter} opened it on.
+ */
+public class SqlStatements {
+
+    /**
+     * Request attribute the statements of a served request are left in.
+     */
+    public static final String ATTRIBUTE = SqlStatements.class.getName();
+
+    private static final ThreadLocal<SqlStatements> CURRENT = new ThreadLocal<>();
+    private static final Pattern STRING = Pattern.compile("'(?:[^']|'')*'");
+    private static final Pattern NUMBER = Pattern.compile("\\b\\d+(?:\\.\\d+)?\\b");
+    private static final Pattern LIST = Pattern.compile("\\(\\s*\\?(?:\\s*,\\s*\\?)*\\s*\\)");
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+    private final Map<String, Integer> shapes = new HashMap<>();
+    private int total;
+
+    static SqlStatements start() {
+        SqlStatements statements = new SqlStatements();
+        CURRENT.set(statements);
+        return statements;
+    }
+
+    static void finish() {
+        CURRENT.remove();
+    }
+
+    public int getTotal() {
+        return total;
+    }
+
+    /**
+     * How many times each shape ran.
+     */
+    public Map<String, Integer> getShapes() {
+        return Collections.unmodifiableMap(shapes);
+    }
+
+    public int getMaxRepeats() {
+        return shapes.values().stream().mapToInt(Integer::intValue).max().orElse(0);
+    }
+
+    static String shape(String sql) {
+        String shape = STRING.matcher(sql).replaceAll("?");
+        shape = NUMBER.matcher(shape).replaceAll("?");
+        shape = LIST.matcher(shape).replaceAll("(?)");
+        return WHITESPACE.matcher(shape).replaceAll(" ").trim();
+    }
+
+    private void add(String sql) {
+        total++;
+        shapes.merge(shape(sql), 1, Integer::sum);
+    }
+
+    /**
+     * Registered with {@code hibernate.session_factory.statement_inspector}; statements outside a request
+     * are not counted.
+     */
+    public static class Inspector implements StatementInspector {
+
+        @Override
+        public String inspect(String sql) {
+            SqlStatements statements = CURRENT.get();
+            if (statements != null) {
+                statements.add(sql);
+            }
+            return sql;
+        }
+    }
+}
@@ -2,6 +2,7 @@ package ru.practicum.shareitserver.exception;
 
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.HttpStatus;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.ResponseStatus;
@@ -58,4 +59,13 @@ public class ErrorHandler {
         );
     }
 
-}
\ No newline at end of file
+    @ExceptionHandler(ObjectOptimisticLockingFailureException.class)
+    @ResponseStatus(HttpStatus.CONFLICT)
+    public ErrorResponse handleConcurrentUpdate(final ObjectOptimisticLockingFailureException e) {
+        log.warn("Параллельное изменение: " + e.getMessage());
+        return new ErrorResponse(
+                "Объект был изменён параллельно, повторите запрос"
+        );
+    }
+
+}
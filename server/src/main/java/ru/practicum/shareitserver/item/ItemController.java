@@ -1,14 +1,20 @@
 package ru.practicum.shareitserver.item;
 
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import ru.practicum.shareitserver.common.BatchResultDto;
 import ru.practicum.shareitserver.item.dto.CommentDto;
+import ru.practicum.shareitserver.item.dto.ItemAvailabilityDto;
 import ru.practicum.shareitserver.item.dto.ItemDto;
 import ru.practicum.shareitserver.item.service.ItemService;
 
 import javax.validation.Valid;
 import javax.validation.constraints.Min;
+import java.time.LocalDateTime;
 import java.util.Collection;
+import java.util.List;
 
 @RestController
 @RequiredArgsConstructor
@@ -23,6 +29,11 @@ public class ItemController {
         return itemService.add(userId, itemDto);
     }
 
+    @PostMapping("/batch")
+    public BatchResultDto<ItemDto> addAll(@RequestHeader(HEADER_ID) Long userId, @RequestBody List<ItemDto> items) {
+        return itemService.addAll(userId, items);
+    }
+
     @PatchMapping("/{itemId}")
     public ItemDto change(@RequestHeader(HEADER_ID) Long userId,
                     @PathVariable @Min(value = 1, message = "id должен быть больше 0") Long itemId,
@@ -32,8 +43,9 @@ public class ItemController {
 
     @GetMapping("/{itemId}")
     public ItemDto getById(@RequestHeader(HEADER_ID) Long userId,
-                    @PathVariable @Min(value = 1, message = "id должен быть больше 0") Long itemId) {
-        return itemService.getById(userId, itemId);
+                    @PathVariable @Min(value = 1, message = "id должен быть больше 0") Long itemId,
+                    WebRequest request) {
+        return itemService.getById(userId, itemId, request::checkNotModified);
     }
 
     @GetMapping()
@@ -42,6 +54,13 @@ public class ItemController {
         return itemService.getAll(userId, from, size);
     }
 
+    @GetMapping("/{itemId}/availability")
+    public ItemAvailabilityDto getAvailability(@PathVariable @Min(value = 1, message = "id должен быть больше 0") Long itemId,
+                    @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+                    @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        return itemService.getAvailability(itemId, from, to);
+    }
+
     @GetMapping("/search")
     public Collection<ItemDto> getSearch(@RequestHeader(HEADER_ID) Long userId,
                     @RequestParam(defaultValue = "unread") String text,
@@ -0,0 +1,26 @@
+package ru.practicum.shareitserver.item.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+public class ItemAvailabilityDto {
+
+    private Long itemId;
+    private LocalDateTime from;
+    private LocalDateTime to;
+    private List<Interval> free;
+    private List<Interval> busy;
+
+    @Data
+    @AllArgsConstructor
+    public static class Interval {
+
+        private LocalDateTime start;
+        private LocalDateTime end;
+    }
+}
@@ -1,12 +1,21 @@
 package ru.practicum.shareitserver.item.repository;
 
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import ru.practicum.shareitserver.item.model.Comment;
 
 import java.util.Collection;
 
 public interface CommentRepository extends JpaRepository<Comment, Long> {
 
-    Collection<Comment> findAllByItemId(Long itemId);
+    @EntityGraph("Comment.author")
+    @Query("select c from Comment c where c.item.id = :itemId")
+    Collection<Comment> findAllByItemId(@Param("itemId") Long itemId);
+
+    @EntityGraph("Comment.author")
+    @Query("select c from Comment c where c.item.id in :itemIds")
+    Collection<Comment> findAllByItemIdIn(@Param("itemIds") Collection<Long> itemIds);
 
 }
@@ -1,15 +1,26 @@
 package ru.practicum.shareitserver.item.repository;
 
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import ru.practicum.shareitserver.item.model.Item;
 
 import java.util.Collection;
+import java.util.List;
 
-public interface ItemRepository extends JpaRepository<Item, Long> {
-    Collection<Item> findAllByOwnerId(Long ownerId, PageRequest of);
+public interface ItemRepository extends JpaRepository<Item, Long>, ItemRepositoryCustom {
+    @Query("select i from Item i where i.owner.id = :ownerId order by i.id")
+    Collection<Item> findAllByOwnerId(@Param("ownerId") Long ownerId, PageRequest of);
 
-    Collection<Item> findAllByNameOrDescriptionContainingIgnoreCase(String name, String desc, PageRequest of);
+    @Query(value = "SELECT * FROM items i WHERE i.is_available = TRUE "
+            + "AND (i.name ILIKE :pattern OR i.description ILIKE :pattern) ORDER BY i.id", nativeQuery = true)
+    List<Item> searchAvailable(@Param("pattern") String pattern, Pageable pageable);
 
-    Collection<Item> findAllByRequestId(Long id);
+    @Query("select i from Item i where i.request.id = :id")
+    Collection<Item> findAllByRequestId(@Param("id") Long id);
+
+    @Query("select i from Item i where i.request.id in :ids")
+    Collection<Item> findAllByRequestIdIn(@Param("ids") Collection<Long> ids);
 }
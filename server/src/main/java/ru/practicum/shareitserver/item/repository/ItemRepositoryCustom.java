@@ -0,0 +1,11 @@
+package ru.practicum.shareitserver.item.repository;
+
+import ru.practicum.shareitserver.item.model.Item;
+
+public interface ItemRepositoryCustom {
+
+    /**
+     * Bumps the version of an item whose bookings or comments changed, so its ETag changes too.
+     */
+    void incrementVersion(Item item);
+}
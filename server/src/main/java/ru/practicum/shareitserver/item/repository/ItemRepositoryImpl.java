@@ -0,0 +1,23 @@
+package ru.practicum.shareitserver.item.repository;
+
+import ru.practicum.shareitserver.item.model.Item;
+
+import javax.persistence.EntityManager;
+import javax.persistence.LockModeType;
+import javax.persistence.PersistenceContext;
+
+/**
+ * A bulk {@code update} would drop every item from the second-level cache, so the version is forced up
+ * through the entity instead: the {@code update} is issued at flush, without re-reading the row. A
+ * concurrent change of the same item fails on the stale version and is answered with 409.
+ */
+public class ItemRepositoryImpl implements ItemRepositoryCustom {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public void incrementVersion(Item item) {
+        entityManager.lock(item, LockModeType.OPTIMISTIC_FORCE_INCREMENT);
+    }
+}
@@ -0,0 +1,295 @@
+package ru.practicum.shareitserver.item.search;
+
+import lombok.Data;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.practicum.shareitserver.item.model.Item;
+import ru.practicum.shareitserver.item.repository.ItemRepository;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+/**
+ * In-process inverted index over item name and description. Every query token has to match the start
+ * of some item token; hits are ranked by where and how exactly they matched. The index is built from
+ * {@link ItemRepository} in the background on first use and then kept up to date by {@link #index} and
+ * {@link #remove}; until the first build finishes {@link #search} answers nothing and callers search
+ * with SQL. Those updates only see changes made by this instance; when several instances share the
+ * database set {@code shareit.item.search.ttl} so that the index is rebuilt and picks up everyone else's
+ * changes. The expired index keeps answering while its replacement is built.
+ */
+@Slf4j
+@Component
+public class ItemSearchIndex {
+
+    private static final int NAME_EXACT = 4;
+    private static final int NAME_PREFIX = 2;
+    private static final int DESCRIPTION_EXACT = 2;
+    private static final int DESCRIPTION_PREFIX = 1;
+
+    private final ItemRepository itemRepository;
+    private final TaskExecutor executor;
+    private final long ttlNanos;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final AtomicBoolean building = new AtomicBoolean();
+    private Postings postings;
+    private List<Consumer<Postings>> pendingUpdates;
+    private long generation;
+    private volatile long builtAt;
+
+    public ItemSearchIndex(ItemRepository itemRepository, TaskExecutor executor,
+                           @Value("${shareit.item.search.ttl:0s}") Duration ttl) {
+        this.itemRepository = itemRepository;
+        this.executor = executor;
+        this.ttlNanos = ttl.toNanos();
+    }
+
+    /**
+     * Ids of the matching available items, best first, or nothing until the index is built.
+     */
+    public Optional<List<Long>> search(String text, int from, int size) {
+        List<String> queryTokens = ItemTokenizer.tokenize(text);
+        if (queryTokens.isEmpty()) {
+            return Optional.of(List.of());
+        }
+        if (!isFresh()) {
+            rebuild();
+        }
+        lock.readLock().lock();
+        try {
+            return postings == null ? Optional.empty() : Optional.of(postings.search(queryTokens, from, size));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public void index(Item item) {
+        Long itemId = item.getId();
+        Document document = toDocument(item);
+        update(target -> {
+            target.removeDocument(itemId);
+            target.putDocument(itemId, document);
+        });
+    }
+
+    public void remove(Long itemId) {
+        update(target -> target.removeDocument(itemId));
+    }
+
+    /**
+     * Drops the index once the transaction commits, so it is built again on next use: used when items
+     * are deleted by cascade and cannot be removed one by one. A build already running is discarded.
+     */
+    public void invalidate() {
+        afterCommit(() -> {
+            lock.writeLock().lock();
+            try {
+                postings = null;
+                generation++;
+            } finally {
+                lock.writeLock().unlock();
+            }
+        });
+    }
+
+    /**
+     * Applies a change once the transaction commits, both to the index and to a build in progress, which
+     * may have read the items before the change.
+     */
+    private void update(Consumer<Postings> change) {
+        afterCommit(() -> {
+            lock.writeLock().lock();
+            try {
+                if (postings != null) {
+                    change.accept(postings);
+                }
+                if (pendingUpdates != null) {
+                    pendingUpdates.add(change);
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+        });
+    }
+
+    private void rebuild() {
+        if (!building.compareAndSet(false, true)) {
+            return;
+        }
+        long started;
+        lock.writeLock().lock();
+        try {
+            pendingUpdates = new ArrayList<>();
+            started = generation;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        try {
+            executor.execute(() -> build(started));
+        } catch (RejectedExecutionException e) {
+            log.warn("Item search index build rejected: {}", e.getMessage());
+            finishBuild(null, started);
+        }
+    }
+
+    private void build(long started) {
+        Postings built = new Postings();
+        try {
+            for (Item item : itemRepository.findAll()) {
+                built.putDocument(item.getId(), toDocument(item));
+            }
+        } catch (RuntimeException e) {
+            log.warn("Item search index build failed: {}", e.getMessage());
+            built = null;
+        }
+        finishBuild(built, started);
+    }
+
+    /**
+     * Replays the changes committed during the build and swaps the index in, unless it was invalidated
+     * meanwhile: then the build is started over.
+     */
+    private void finishBuild(@Nullable Postings built, long started) {
+        boolean stale;
+        lock.writeLock().lock();
+        try {
+            stale = started != generation;
+            if (built != null && !stale) {
+                pendingUpdates.forEach(change -> change.accept(built));
+                postings = built;
+                builtAt = System.nanoTime();
+                log.info("Item search index built: {} items, {} tokens", built.documents.size(), built.postings.size());
+            }
+            pendingUpdates = null;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        building.set(false);
+        if (built != null && stale) {
+            rebuild();
+        }
+    }
+
+    private boolean isFresh() {
+        lock.readLock().lock();
+        try {
+            return postings != null && (ttlNanos <= 0 || System.nanoTime() - builtAt < ttlNanos);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private static int score(int weight, boolean exact) {
+        boolean inName = weight >= NAME_EXACT;
+        if (inName) {
+            return exact ? NAME_EXACT : NAME_PREFIX;
+        }
+        return exact ? DESCRIPTION_EXACT : DESCRIPTION_PREFIX;
+    }
+
+    private static Document toDocument(Item item) {
+        Map<String, Integer> tokens = new HashMap<>();
+        ItemTokenizer.tokenize(item.getDescription()).forEach(token -> tokens.put(token, DESCRIPTION_EXACT));
+        ItemTokenizer.tokenize(item.getName()).forEach(token -> tokens.put(token, NAME_EXACT));
+        return new Document(Boolean.TRUE.equals(item.getAvailable()), tokens);
+    }
+
+    private void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    private static class Postings {
+
+        private final Map<Long, Document> documents = new HashMap<>();
+        private final NavigableMap<String, Map<Long, Integer>> postings = new TreeMap<>();
+
+        private List<Long> search(List<String> queryTokens, int from, int size) {
+            Map<Long, Integer> scores = null;
+            for (String queryToken : queryTokens) {
+                Map<Long, Integer> matches = match(queryToken);
+                if (scores == null) {
+                    scores = matches;
+                } else {
+                    scores.keySet().retainAll(matches.keySet());
+                    scores.replaceAll((id, score) -> score + matches.get(id));
+                }
+                if (scores.isEmpty()) {
+                    return List.of();
+                }
+            }
+            return scores.entrySet().stream()
+                    .filter(entry -> documents.get(entry.getKey()).isAvailable())
+                    .sorted(Map.Entry.<Long, Integer>comparingByValue(Comparator.reverseOrder())
+                            .thenComparing(Map.Entry.comparingByKey()))
+                    .skip((long) from / size * size)
+                    .limit(size)
+                    .map(Map.Entry::getKey)
+                    .collect(Collectors.toList());
+        }
+
+        private Map<Long, Integer> match(String queryToken) {
+            Map<Long, Integer> matches = new HashMap<>();
+            postings.subMap(queryToken, true, queryToken + Character.MAX_VALUE, false).forEach((token, items) -> {
+                boolean exact = token.equals(queryToken);
+                items.forEach((id, weight) -> matches.merge(id, score(weight, exact), Math::max));
+            });
+            return matches;
+        }
+
+        private void putDocument(Long itemId, Document document) {
+            documents.put(itemId, document);
+            document.getTokens().forEach((token, weight) ->
+                    postings.computeIfAbsent(token, t -> new HashMap<>()).put(itemId, weight));
+        }
+
+        private void removeDocument(Long itemId) {
+            Document document = documents.remove(itemId);
+            if (document == null) {
+                return;
+            }
+            document.getTokens().keySet().forEach(token -> {
+                Map<Long, Integer> items = postings.get(token);
+                if (items != null) {
+                    items.remove(itemId);
+                    if (items.isEmpty()) {
+                        postings.remove(token);
+                    }
+                }
+            });
+        }
+    }
+
+    @Data
+    private static class Document {
+
+        private final boolean available;
+        private final Map<String, Integer> tokens;
+    }
+}
@@ -0,0 +1,6 @@
+package ru.practicum.shareitserver.item.search;
+
+public enum ItemSearchMode {
+    INDEX,
+    SQL
+}
@@ -1,17 +1,34 @@
 package ru.practicum.shareitserver.item.service;
 
+import ru.practicum.shareitserver.common.BatchResultDto;
 import ru.practicum.shareitserver.item.dto.CommentDto;
+import ru.practicum.shareitserver.item.dto.ItemAvailabilityDto;
 import ru.practicum.shareitserver.item.dto.ItemDto;
 
+import java.time.LocalDateTime;
 import java.util.Collection;
+import java.util.List;
+import java.util.function.Predicate;
 
 public interface ItemService {
     ItemDto add(Long id, ItemDto itemDto);
 
+    BatchResultDto<ItemDto> addAll(Long userId, List<ItemDto> items);
+
     ItemDto change(Long userId, Long itemId, ItemDto itemDto);
 
     ItemDto getById(Long userId, Long itemId);
 
+    /**
+     * Loads the item once for both the ETag and the body; returns null when {@code notModified}
+     * accepts the ETag.
+     */
+    ItemDto getById(Long userId, Long itemId, Predicate<String> notModified);
+
+    String getETag(Long userId, Long itemId);
+
+    ItemAvailabilityDto getAvailability(Long itemId, LocalDateTime from, LocalDateTime to);
+
     Collection<ItemDto> getAll(Long userId, Integer from, Integer size);
 
     Collection<ItemDto> getSearch(String text, Integer from, Integer size);
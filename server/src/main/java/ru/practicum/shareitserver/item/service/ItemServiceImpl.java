@@ -2,30 +2,49 @@ package ru.practicum.shareitserver.item.service;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareitserver.booking.dto.BookingPeriod;
 import ru.practicum.shareitserver.booking.model.Booking;
 import ru.practicum.shareitserver.booking.model.Status;
 import ru.practicum.shareitserver.booking.repository.BookingRepository;
+import ru.practicum.shareitserver.booking.service.BookingIntervalIndex;
+import ru.practicum.shareitserver.common.BatchResultDto;
+import ru.practicum.shareitserver.common.BatchValidator;
+import ru.practicum.shareitserver.common.ETags;
 import ru.practicum.shareitserver.exception.ForbiddenException;
 import ru.practicum.shareitserver.exception.NotFoundException;
 import ru.practicum.shareitserver.exception.ValidationException;
 import ru.practicum.shareitserver.item.dto.CommentDto;
+import ru.practicum.shareitserver.item.dto.ItemAvailabilityDto;
 import ru.practicum.shareitserver.item.dto.ItemDto;
 import ru.practicum.shareitserver.item.model.Comment;
 import ru.practicum.shareitserver.item.model.Item;
 import ru.practicum.shareitserver.item.repository.CommentRepository;
 import ru.practicum.shareitserver.item.repository.ItemRepository;
+import ru.practicum.shareitserver.item.search.ItemSearchIndex;
+import ru.practicum.shareitserver.item.search.ItemSearchMode;
 import ru.practicum.shareitserver.request.model.ItemRequest;
 import ru.practicum.shareitserver.request.repository.ItemRequestRepository;
 import ru.practicum.shareitserver.user.model.User;
 import ru.practicum.shareitserver.user.repository.UserRepository;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.BinaryOperator;
+import java.util.function.Function;
+import java.util.function.Predicate;
 import java.util.stream.Collectors;
 
 import static ru.practicum.shareitserver.booking.BookingMapper.mapToBookingDto;
@@ -44,6 +63,15 @@ public class ItemServiceImpl implements ItemService {
     private final BookingRepository bookingRepository;
     private final CommentRepository commentRepository;
     private final ItemRequestRepository itemRequestRepository;
+    private final ItemSearchIndex itemSearchIndex;
+    private final BatchValidator batchValidator;
+    private final BookingIntervalIndex bookingIntervalIndex;
+
+    @Value("${shareit.item.search.mode:SQL}")
+    private ItemSearchMode searchMode;
+
+    @Value("${shareit.item.availability.default-days:30}")
+    private int availabilityDefaultDays;
 
 
     @Override
@@ -56,11 +84,55 @@ public class ItemServiceImpl implements ItemService {
         if (itemDto.getRequestId() != null) {
             ItemRequest itemRequest = chackItemReq(itemDto.getRequestId());
             item.setRequest(itemRequest);
+            touchRequests(List.of(itemRequest));
         }
 
         item.setOwner(user);
+        Item saved = itemRepository.save(item);
+        itemSearchIndex.index(saved);
+
+        return mapToItemDto(saved);
+    }
+
+    @Override
+    @Transactional
+    public BatchResultDto<ItemDto> addAll(Long userId, List<ItemDto> items) {
+        log.info("User: {}. Add {} items", userId, items.size());
+        batchValidator.checkSize(items);
+        User user = checkUser(userId);
+        Set<Long> requestIds = items.stream()
+                .filter(Objects::nonNull)
+                .map(ItemDto::getRequestId)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+        Map<Long, ItemRequest> requests = itemRequestRepository.findAllById(requestIds).stream()
+                .collect(Collectors.toMap(ItemRequest::getId, Function.identity()));
+
+        List<Item> valid = new ArrayList<>();
+        List<BatchResultDto.RowError> errors = new ArrayList<>();
+        for (int i = 0; i < items.size(); i++) {
+            ItemDto itemDto = items.get(i);
+            Optional<String> error = batchValidator.validate(itemDto);
+            if (error.isEmpty() && itemDto.getRequestId() != null && !requests.containsKey(itemDto.getRequestId())) {
+                error = Optional.of("Запрос " + itemDto.getRequestId() + " не найден");
+            }
+            if (error.isPresent()) {
+                errors.add(new BatchResultDto.RowError(i, error.get()));
+                continue;
+            }
+            Item item = mapToItem(itemDto);
+            item.setId(null);
+            item.setOwner(user);
+            if (itemDto.getRequestId() != null) {
+                item.setRequest(requests.get(itemDto.getRequestId()));
+            }
+            valid.add(item);
+        }
 
-        return mapToItemDto(itemRepository.save(item));
+        List<Item> saved = itemRepository.saveAll(valid);
+        saved.forEach(itemSearchIndex::index);
+        touchRequests(saved.stream().map(Item::getRequest).collect(Collectors.toList()));
+        return new BatchResultDto<>(mapToItemDto(saved), errors);
     }
 
     @Override
@@ -81,37 +153,91 @@ public class ItemServiceImpl implements ItemService {
         if (itemDto.getAvailable() != null) {
             itemChange.setAvailable(itemDto.getAvailable());
         }
+        // Requests show their items, so both the old and the new request change with the item.
+        ItemRequest previousRequest = itemChange.getRequest();
         if (itemDto.getRequestId() != null) {
-            ItemRequest itemRequest = chackItemReq(itemDto.getRequestId());
-            itemChange.setRequest(itemRequest);
+            itemChange.setRequest(chackItemReq(itemDto.getRequestId()));
         }
-        return mapToItemDto(itemRepository.save(itemChange));
+        touchRequests(Arrays.asList(previousRequest, itemChange.getRequest()));
+        Item saved = itemRepository.save(itemChange);
+        itemSearchIndex.index(saved);
+        return mapToItemDto(saved);
     }
 
     @Override
     public ItemDto getById(Long userId, Long itemId) {
+        return getById(userId, itemId, eTag -> false);
+    }
+
+    @Override
+    public ItemDto getById(Long userId, Long itemId, Predicate<String> notModified) {
         log.info("Get item by id: {}", itemId);
         Item item = checkItem(itemId);
+        boolean owner = Objects.equals(item.getOwner().getId(), userId);
+        LocalDateTime now = LocalDateTime.now();
+        Booking next = owner ? findNextBooking(itemId, now) : null;
+        if (notModified.test(eTag(item, owner, next))) {
+            return null;
+        }
         ItemDto itemDto = mapToItemDto(item);
-        if (Objects.equals(item.getOwner().getId(), userId)) {
-            findLastAndNextBooking(itemDto);
+        if (owner) {
+            Booking last = bookingRepository.findFirstByItemIdAndStatusAndStartBeforeOrderByStartDesc(itemId, Status.APPROVED, now);
+            itemDto.setLastBooking(mapToBookingDto(last));
+            itemDto.setNextBooking(mapToBookingDto(next));
         }
         Collection<Comment> comments = commentRepository.findAllByItemId(itemId);
         itemDto.setComments(mapToCommentDto(comments));
         return itemDto;
     }
 
+    @Override
+    public String getETag(Long userId, Long itemId) {
+        Item item = checkItem(itemId);
+        boolean owner = Objects.equals(item.getOwner().getId(), userId);
+        return eTag(item, owner, owner ? findNextBooking(itemId, LocalDateTime.now()) : null);
+    }
+
+    @Override
+    public ItemAvailabilityDto getAvailability(Long itemId, LocalDateTime from, LocalDateTime to) {
+        log.info("Get availability of item {} from {} to {}", itemId, from, to);
+        if (from != null && to != null && !to.isAfter(from)) {
+            throw new ValidationException("Дата окончания периода раньше начала периода");
+        }
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime start = from == null || from.isBefore(now) ? now : from;
+        LocalDateTime end = to != null ? to : start.plusDays(availabilityDefaultDays);
+        if (!end.isAfter(start)) {
+            throw new ValidationException("Период уже прошёл");
+        }
+        // Served from the second-level cache, unlike an existence query.
+        checkItem(itemId);
+
+        List<ItemAvailabilityDto.Interval> busy = new ArrayList<>();
+        List<ItemAvailabilityDto.Interval> free = new ArrayList<>();
+        LocalDateTime freeFrom = start;
+        for (BookingPeriod period : bookingIntervalIndex.busyBetween(itemId, start, end)) {
+            if (period.getStart().isAfter(freeFrom)) {
+                free.add(new ItemAvailabilityDto.Interval(freeFrom, period.getStart()));
+            }
+            busy.add(new ItemAvailabilityDto.Interval(period.getStart(), period.getEnd()));
+            freeFrom = period.getEnd();
+        }
+        if (end.isAfter(freeFrom)) {
+            free.add(new ItemAvailabilityDto.Interval(freeFrom, end));
+        }
+        return new ItemAvailabilityDto(itemId, start, end, free, busy);
+    }
+
     @Override
     public Collection<ItemDto> getAll(Long userId, Integer from, Integer size) {
         log.info("Get all items user: {}", userId);
         checkUser(userId);
         Collection<ItemDto> items =
                 mapToItemDto(itemRepository.findAllByOwnerId(userId, PageRequest.of(from / size, size)));
-        items.forEach(itemDto -> {
-            findLastAndNextBooking(itemDto);
-            Collection<Comment> comments = commentRepository.findAllByItemId(itemDto.getId());
-            itemDto.setComments(mapToCommentDto(comments));
-        });
+        if (!items.isEmpty()) {
+            findLastAndNextBookings(items);
+            findComments(items);
+        }
         return items.stream()
                 .sorted(Comparator.comparing(ItemDto::getId))
                 .collect(Collectors.toList());
@@ -120,9 +246,25 @@ public class ItemServiceImpl implements ItemService {
     @Override
     public Collection<ItemDto> getSearch(String text, Integer from, Integer size) {
         log.info("Search: '{}'", text);
-        Collection<Item> items = itemRepository
-                .findAllByNameOrDescriptionContainingIgnoreCase(text, text, PageRequest.of(from / size, size));
-        return mapToItemDto(items.stream().filter(Item::getAvailable).collect(Collectors.toList()));
+        if (text.isBlank()) {
+            return List.of();
+        }
+        Optional<List<Long>> found = searchMode == ItemSearchMode.INDEX
+                ? itemSearchIndex.search(text, from, size)
+                : Optional.empty();
+        if (found.isEmpty()) {
+            return mapToItemDto(itemRepository.searchAvailable(toLikePattern(text), PageRequest.of(from / size, size)));
+        }
+        List<Long> itemIds = found.get();
+        if (itemIds.isEmpty()) {
+            return List.of();
+        }
+        Map<Long, Item> items = itemRepository.findAllById(itemIds).stream()
+                .collect(Collectors.toMap(Item::getId, Function.identity()));
+        return mapToItemDto(itemIds.stream()
+                .map(items::get)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList()));
     }
 
     @Override
@@ -135,6 +277,9 @@ public class ItemServiceImpl implements ItemService {
             throw new ForbiddenException("Удалять вещь может только её владелец!");
         }
         itemRepository.deleteById(itemId);
+        itemSearchIndex.remove(itemId);
+        bookingIntervalIndex.invalidate(itemId);
+        touchRequests(Collections.singletonList(item.getRequest()));
     }
 
     @Override
@@ -143,16 +288,60 @@ public class ItemServiceImpl implements ItemService {
         checkBooking(userId, itemId);
         commentDto.setCreated(LocalDateTime.now());
         Comment comment = mapToComment(commentDto, checkUser(userId), checkItem(itemId));
+        itemRepository.incrementVersion(comment.getItem());
         return mapToCommentDto(commentRepository.save(comment));
     }
 
-    private void findLastAndNextBooking(ItemDto itemDto) {
-        Booking last = bookingRepository
-                .findFirstByItemIdAndStatusAndStartBeforeOrderByStartDesc(itemDto.getId(), Status.APPROVED, LocalDateTime.now());
-        Booking next = bookingRepository
-                .findFirstByItemIdAndStatusAndStartAfterOrderByStartAsc(itemDto.getId(), Status.APPROVED, LocalDateTime.now());
-        itemDto.setLastBooking(mapToBookingDto(last));
-        itemDto.setNextBooking(mapToBookingDto(next));
+    private Booking findNextBooking(Long itemId, LocalDateTime now) {
+        return bookingRepository.findFirstByItemIdAndStatusAndStartAfterOrderByStartAsc(itemId, Status.APPROVED, now);
+    }
+
+    private static String eTag(Item item, boolean owner, Booking next) {
+        if (!owner) {
+            return ETags.of(item.getVersion());
+        }
+        return ETags.of(item.getVersion(), next == null ? 0 : next.getId());
+    }
+
+    private static String toLikePattern(String text) {
+        return "%" + text.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_") + "%";
+    }
+
+    private void findLastAndNextBookings(Collection<ItemDto> itemDtos) {
+        Collection<Long> itemIds = itemDtos.stream().map(ItemDto::getId).collect(Collectors.toList());
+        LocalDateTime now = LocalDateTime.now();
+        Map<Long, Booking> last = groupByItemId(bookingRepository.findAllLastByItemIdIn(itemIds, Status.APPROVED, now));
+        Map<Long, Booking> next = groupByItemId(bookingRepository.findAllNextByItemIdIn(itemIds, Status.APPROVED, now));
+        itemDtos.forEach(itemDto -> {
+            itemDto.setLastBooking(mapToBookingDto(last.get(itemDto.getId())));
+            itemDto.setNextBooking(mapToBookingDto(next.get(itemDto.getId())));
+        });
+    }
+
+    private static Map<Long, Booking> groupByItemId(Collection<Booking> bookings) {
+        return bookings.stream().collect(Collectors.toMap(booking -> booking.getItem().getId(), Function.identity(),
+                BinaryOperator.maxBy(Comparator.comparing(Booking::getId))));
+    }
+
+    private void findComments(Collection<ItemDto> itemDtos) {
+        Collection<Long> itemIds = itemDtos.stream().map(ItemDto::getId).collect(Collectors.toList());
+        Map<Long, List<Comment>> comments = commentRepository.findAllByItemIdIn(itemIds).stream()
+                .collect(Collectors.groupingBy(comment -> comment.getItem().getId()));
+        itemDtos.forEach(itemDto ->
+                itemDto.setComments(mapToCommentDto(comments.getOrDefault(itemDto.getId(), List.of()))));
+    }
+
+    /**
+     * Request representations embed their items, so a change to the items of a request bumps its version.
+     */
+    private void touchRequests(Collection<ItemRequest> requests) {
+        Set<Long> requestIds = requests.stream()
+                .filter(Objects::nonNull)
+                .map(ItemRequest::getId)
+                .collect(Collectors.toSet());
+        if (!requestIds.isEmpty()) {
+            itemRequestRepository.incrementVersions(requestIds);
+        }
     }
 
     private void checkBooking(Long userId, Long itemId) {
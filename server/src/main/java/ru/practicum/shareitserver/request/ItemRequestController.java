@@ -2,6 +2,7 @@ package ru.practicum.shareitserver.request;
 
 import lombok.RequiredArgsConstructor;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import ru.practicum.shareitserver.request.dto.ItemRequestDto;
 import ru.practicum.shareitserver.request.model.ItemRequest;
 import ru.practicum.shareitserver.request.service.ItemRequestService;
@@ -36,8 +37,9 @@ public class ItemRequestController {
 
     @GetMapping("/{requestId}")
     public ItemRequestDto getById(@RequestHeader(HEADER_ID) Long userId,
-                                    @PathVariable @Min(value = 1, message = "id должен быть больше 0") Long requestId) {
-        return itemRequestService.getById(userId, requestId);
+                                    @PathVariable @Min(value = 1, message = "id должен быть больше 0") Long requestId,
+                                    WebRequest request) {
+        return itemRequestService.getById(userId, requestId, request::checkNotModified);
     }
 
 }
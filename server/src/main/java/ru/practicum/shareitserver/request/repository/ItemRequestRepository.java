@@ -3,13 +3,23 @@ package ru.practicum.shareitserver.request.repository;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import ru.practicum.shareitserver.request.model.ItemRequest;
 import ru.practicum.shareitserver.user.model.User;
 import java.util.Collection;
 
 public interface ItemRequestRepository extends JpaRepository<ItemRequest, Long> {
 
-    Collection<ItemRequest> findAllByRequestorIdOrderByCreatedAsc(Long userId);
+    @Query("select r from ItemRequest r where r.requestor.id = :userId order by r.created")
+    Collection<ItemRequest> findAllByRequestorIdOrderByCreatedAsc(@Param("userId") Long userId);
 
-    Page<ItemRequest> findAllByRequestorIsNot(User user, PageRequest of);
+    @Query(value = "select r from ItemRequest r where r.requestor <> :user",
+            countQuery = "select count(r) from ItemRequest r where r.requestor <> :user")
+    Page<ItemRequest> findAllByRequestorIsNot(@Param("user") User user, PageRequest of);
+
+    @Modifying
+    @Query("update ItemRequest r set r.version = r.version + 1 where r.id in :ids")
+    void incrementVersions(@Param("ids") Collection<Long> ids);
 }
@@ -4,6 +4,7 @@ import ru.practicum.shareitserver.request.dto.ItemRequestDto;
 import ru.practicum.shareitserver.request.model.ItemRequest;
 
 import java.util.Collection;
+import java.util.function.Predicate;
 
 public interface ItemRequestService {
     ItemRequestDto add(Long userId, ItemRequest itemRequest);
@@ -13,4 +14,12 @@ public interface ItemRequestService {
     Collection<ItemRequestDto> getAllFrom(Long userId, Integer from, Integer size);
 
     ItemRequestDto getById(Long userId, Long requestId);
+
+    /**
+     * Loads the request once for both the ETag and the body; returns null when {@code notModified}
+     * accepts the ETag.
+     */
+    ItemRequestDto getById(Long userId, Long requestId, Predicate<String> notModified);
+
+    String getETag(Long userId, Long requestId);
 }
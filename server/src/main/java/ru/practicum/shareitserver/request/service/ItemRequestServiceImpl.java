@@ -6,6 +6,7 @@ import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareitserver.common.ETags;
 import ru.practicum.shareitserver.exception.NotFoundException;
 import ru.practicum.shareitserver.exception.ValidationException;
 import ru.practicum.shareitserver.item.model.Item;
@@ -18,6 +19,9 @@ import ru.practicum.shareitserver.user.repository.UserRepository;
 
 import java.time.LocalDateTime;
 import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Predicate;
 import java.util.stream.Collectors;
 
 import static ru.practicum.shareitserver.item.mapper.ItemMapper.mapToItemDto;
@@ -52,7 +56,7 @@ public class ItemRequestServiceImpl implements ItemRequestService {
         checkUser(userId);
         Collection<ItemRequestDto> itemRequestDtos =
                 mapToItemRequestDto(itemRequestRepository.findAllByRequestorIdOrderByCreatedAsc(userId));
-        itemRequestDtos.forEach(this::findItemsForRequest);
+        findItemsForRequests(itemRequestDtos);
 
         return itemRequestDtos;
     }
@@ -67,21 +71,35 @@ public class ItemRequestServiceImpl implements ItemRequestService {
                 .findAllByRequestorIsNot(user, PageRequest.of(from / size, size, sortByCreated)).stream()
                 .collect(Collectors.toList());
         Collection<ItemRequestDto> itemRequestDtos = mapToItemRequestDto(itemRequests);
-        itemRequestDtos.forEach(this::findItemsForRequest);
+        findItemsForRequests(itemRequestDtos);
 
         return itemRequestDtos;
     }
 
     @Override
     public ItemRequestDto getById(Long userId, Long requestId) {
+        return getById(userId, requestId, eTag -> false);
+    }
+
+    @Override
+    public ItemRequestDto getById(Long userId, Long requestId, Predicate<String> notModified) {
         log.info("Get requests by id: {}", requestId);
         checkUser(userId);
         ItemRequest itemRequest = checkItemReq(requestId);
+        if (notModified.test(ETags.of(itemRequest.getVersion()))) {
+            return null;
+        }
         ItemRequestDto itemRequestDto = mapToItemRequestDto(itemRequest);
         findItemsForRequest(itemRequestDto);
         return itemRequestDto;
     }
 
+    @Override
+    public String getETag(Long userId, Long requestId) {
+        checkUser(userId);
+        return ETags.of(checkItemReq(requestId).getVersion());
+    }
+
     private User checkUser(Long userId) {
         return userRepository.findById(userId).orElseThrow(() -> new NotFoundException("Пользователь не найден"));
     }
@@ -100,6 +118,17 @@ public class ItemRequestServiceImpl implements ItemRequestService {
         itemRequestDto.setItems(mapToItemDto(items));
     }
 
+    private void findItemsForRequests(Collection<ItemRequestDto> itemRequestDtos) {
+        if (itemRequestDtos.isEmpty()) {
+            return;
+        }
+        Collection<Long> requestIds = itemRequestDtos.stream().map(ItemRequestDto::getId).collect(Collectors.toList());
+        Map<Long, List<Item>> items = itemRepository.findAllByRequestIdIn(requestIds).stream()
+                .collect(Collectors.groupingBy(item -> item.getRequest().getId()));
+        itemRequestDtos.forEach(itemRequestDto ->
+                itemRequestDto.setItems(mapToItemDto(items.getOrDefault(itemRequestDto.getId(), List.of()))));
+    }
+
     private ItemRequest checkItemReq(Long requestId) {
         return itemRequestRepository.findById(requestId).orElseThrow(() -> new NotFoundException("Запрос не найден"));
     }
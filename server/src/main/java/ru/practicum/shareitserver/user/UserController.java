@@ -2,6 +2,8 @@ package ru.practicum.shareitserver.user;
 
 import lombok.RequiredArgsConstructor;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import ru.practicum.shareitserver.common.BatchResultDto;
 import ru.practicum.shareitserver.user.dto.UserDto;
 import ru.practicum.shareitserver.user.model.User;
 import ru.practicum.shareitserver.user.service.UserService;
@@ -9,6 +11,7 @@ import ru.practicum.shareitserver.user.service.UserService;
 import javax.validation.Valid;
 import javax.validation.constraints.Min;
 import java.util.Collection;
+import java.util.List;
 
 @RestController
 @RequiredArgsConstructor
@@ -23,8 +26,9 @@ public class UserController {
     }
 
     @GetMapping("/{id}")
-    public UserDto getById(@PathVariable @Min(value = 1, message = "id должен быть больше 0") Long id) {
-        return userServiceImpl.getById(id);
+    public UserDto getById(@PathVariable @Min(value = 1, message = "id должен быть больше 0") Long id,
+                           WebRequest request) {
+        return userServiceImpl.getById(id, request::checkNotModified);
     }
 
     @PostMapping
@@ -32,6 +36,11 @@ public class UserController {
         return userServiceImpl.add(user);
     }
 
+    @PostMapping("/batch")
+    public BatchResultDto<UserDto> addAll(@RequestBody List<User> users) {
+        return userServiceImpl.addAll(users);
+    }
+
     @PatchMapping("/{id}")
     public UserDto change(@PathVariable @Min(value = 1, message = "id должен быть больше 0") Long id,
                 @RequestBody User user) {
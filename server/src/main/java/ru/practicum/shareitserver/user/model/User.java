@@ -1,8 +1,10 @@
 package ru.practicum.shareitserver.user.model;
 
-import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import ru.practicum.shareitserver.common.EntityCacheConfig;
 
 import javax.persistence.*;
 import javax.validation.constraints.Email;
@@ -10,13 +12,14 @@ import javax.validation.constraints.NotBlank;
 
 @Data
 @Entity
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = EntityCacheConfig.USERS)
 @Table(name = "users")
-@AllArgsConstructor
 @NoArgsConstructor
 public class User {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "users_seq")
+    @SequenceGenerator(name = "users_seq", sequenceName = "users_seq", allocationSize = 50)
     private Long id;
 
     @NotBlank
@@ -27,4 +30,14 @@ public class User {
     @NotBlank
     @Column(unique = true, length = 253, nullable = false)
     private String email;
+
+    @Version
+    @Column(nullable = false)
+    private Long version;
+
+    public User(Long id, String name, String email) {
+        this.id = id;
+        this.name = name;
+        this.email = email;
+    }
 }
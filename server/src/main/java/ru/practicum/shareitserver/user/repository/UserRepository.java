@@ -3,5 +3,9 @@ package ru.practicum.shareitserver.user.repository;
 import org.springframework.data.jpa.repository.JpaRepository;
 import ru.practicum.shareitserver.user.model.User;
 
+import java.util.Collection;
+
 public interface UserRepository extends JpaRepository<User, Long> {
+
+    Collection<User> findAllByEmailIn(Collection<String> emails);
 }
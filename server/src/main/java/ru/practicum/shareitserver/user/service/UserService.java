@@ -1,17 +1,30 @@
 package ru.practicum.shareitserver.user.service;
 
+import ru.practicum.shareitserver.common.BatchResultDto;
 import ru.practicum.shareitserver.user.dto.UserDto;
 import ru.practicum.shareitserver.user.model.User;
 
 import java.util.Collection;
+import java.util.List;
+import java.util.function.Predicate;
 
 public interface UserService {
     Collection<UserDto> getAll();
 
     UserDto getById(Long id);
 
+    /**
+     * Loads the user once for both the ETag and the body; returns null when {@code notModified}
+     * accepts the ETag.
+     */
+    UserDto getById(Long id, Predicate<String> notModified);
+
+    String getETag(Long id);
+
     UserDto add(User user);
 
+    BatchResultDto<UserDto> addAll(List<User> users);
+
     UserDto change(Long id, User user);
 
     void deleteById(Long id);
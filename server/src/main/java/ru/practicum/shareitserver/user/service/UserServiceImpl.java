@@ -4,12 +4,27 @@ import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareitserver.booking.service.BookingIntervalIndex;
+import ru.practicum.shareitserver.common.BatchResultDto;
+import ru.practicum.shareitserver.common.BatchValidator;
+import ru.practicum.shareitserver.common.ETags;
+import ru.practicum.shareitserver.common.EntityCaches;
 import ru.practicum.shareitserver.exception.NotFoundException;
+import ru.practicum.shareitserver.item.model.Item;
+import ru.practicum.shareitserver.item.search.ItemSearchIndex;
 import ru.practicum.shareitserver.user.dto.UserDto;
 import ru.practicum.shareitserver.user.model.User;
 import ru.practicum.shareitserver.user.repository.UserRepository;
 
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
 
 import static ru.practicum.shareitserver.user.UserMapper.mapToUserDto;
 
@@ -20,6 +35,10 @@ import static ru.practicum.shareitserver.user.UserMapper.mapToUserDto;
 public class UserServiceImpl implements UserService {
 
     private final UserRepository userRepository;
+    private final BatchValidator batchValidator;
+    private final EntityCaches entityCaches;
+    private final ItemSearchIndex itemSearchIndex;
+    private final BookingIntervalIndex bookingIntervalIndex;
 
     @Override
     public Collection<UserDto> getAll() {
@@ -30,10 +49,7 @@ public class UserServiceImpl implements UserService {
 
     @Override
     public UserDto getById(Long id) {
-        log.info("Get user by id {}", id);
-        User user = checkUser(id);
-
-        return mapToUserDto(user);
+        return getById(id, eTag -> false);
     }
 
     @Override
@@ -44,6 +60,39 @@ public class UserServiceImpl implements UserService {
         return mapToUserDto(userRepository.save(user));
     }
 
+    @Override
+    @Transactional
+    public BatchResultDto<UserDto> addAll(List<User> users) {
+        log.info("Add {} users", users.size());
+        batchValidator.checkSize(users);
+        Set<String> emails = users.stream()
+                .filter(Objects::nonNull)
+                .map(User::getEmail)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+        Set<String> takenEmails = userRepository.findAllByEmailIn(emails).stream()
+                .map(User::getEmail)
+                .collect(Collectors.toCollection(HashSet::new));
+
+        List<User> valid = new ArrayList<>();
+        List<BatchResultDto.RowError> errors = new ArrayList<>();
+        for (int i = 0; i < users.size(); i++) {
+            User user = users.get(i);
+            Optional<String> error = batchValidator.validate(user);
+            if (error.isEmpty() && !takenEmails.add(user.getEmail())) {
+                error = Optional.of("Пользователь с email " + user.getEmail() + " уже существует");
+            }
+            if (error.isPresent()) {
+                errors.add(new BatchResultDto.RowError(i, error.get()));
+            } else {
+                user.setId(null);
+                valid.add(user);
+            }
+        }
+
+        return new BatchResultDto<>(mapToUserDto(userRepository.saveAll(valid)), errors);
+    }
+
     @Override
     @Transactional
     public UserDto change(Long id, User user) {
@@ -60,12 +109,31 @@ public class UserServiceImpl implements UserService {
         return mapToUserDto(userRepository.save(userChange));
     }
 
+    @Override
+    public UserDto getById(Long id, Predicate<String> notModified) {
+        log.info("Get user by id {}", id);
+        User user = checkUser(id);
+        if (notModified.test(ETags.of(user.getVersion()))) {
+            return null;
+        }
+        return mapToUserDto(user);
+    }
+
+    @Override
+    public String getETag(Long id) {
+        return ETags.of(checkUser(id).getVersion());
+    }
+
     @Override
     @Transactional
     public void deleteById(Long id) {
         log.info("Delete user by id {}", id);
         checkUser(id);
         userRepository.deleteById(id);
+        // The user's items and the items offered for the user's requests go by cascade.
+        entityCaches.evictAll(Item.class);
+        itemSearchIndex.invalidate();
+        bookingIntervalIndex.invalidateAll();
     }
 
     private User checkUser(Long userChange) {
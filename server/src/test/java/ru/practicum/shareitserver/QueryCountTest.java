@@ -0,0 +1,231 @@
+package ru.practicum.shareitserver;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultMatcher;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import ru.practicum.shareitserver.booking.model.Booking;
+import ru.practicum.shareitserver.booking.model.Status;
+import ru.practicum.shareitserver.booking.repository.BookingRepository;
+import ru.practicum.shareitserver.item.model.Comment;
+import ru.practicum.shareitserver.item.model.Item;
+import ru.practicum.shareitserver.item.repository.CommentRepository;
+import ru.practicum.shareitserver.item.repository.ItemRepository;
+import ru.practicum.shareitserver.request.model.ItemRequest;
+import ru.practicum.shareitserver.request.repository.ItemRequestRepository;
+import ru.practicum.shareitserver.user.model.User;
+import ru.practicum.shareitserver.user.repository.UserRepository;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+import static ru.practicum.shareitserver.common.SqlStatementMatchers.repeatsAtMost;
+import static ru.practicum.shareitserver.common.SqlStatementMatchers.statements;
+import static ru.practicum.shareitserver.common.SqlStatementMatchers.statementsAtMost;
+
+@AutoConfigureMockMvc
+@SpringBootTest
+class QueryCountTest {
+
+    private static final String HEADER_ID = "X-Sharer-User-Id";
+
+    @Autowired
+    private MockMvc mvc;
+
+    @Autowired
+    private ObjectMapper mapper;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ItemRequestRepository itemRequestRepository;
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Autowired
+    private CommentRepository commentRepository;
+
+    private final LocalDateTime dateTime = LocalDateTime.now();
+    private User owner;
+    private User booker;
+    private ItemRequest itemRequest;
+    private Item item;
+    private Booking waiting;
+
+    @BeforeEach
+    void beforeEach() {
+        owner = userRepository.save(new User(null, "Owner", "owner@email.com"));
+        booker = userRepository.save(new User(null, "Booker", "booker@email.com"));
+        itemRequest = itemRequestRepository.save(ItemRequest.builder()
+                .description("Need an item")
+                .created(dateTime)
+                .requestor(booker)
+                .build());
+        item = itemRepository.save(Item.builder()
+                .name("Item")
+                .description("Item for you")
+                .available(true)
+                .owner(owner)
+                .request(itemRequest)
+                .build());
+        for (int i = 1; i <= 3; i++) {
+            bookingRepository.save(booking(dateTime.minusDays(2 * i), Status.APPROVED));
+            commentRepository.save(Comment.builder()
+                    .text("Comment " + i)
+                    .item(item)
+                    .author(booker)
+                    .created(dateTime)
+                    .build());
+        }
+        bookingRepository.save(booking(dateTime.plusDays(1), Status.APPROVED));
+        waiting = bookingRepository.save(booking(dateTime.plusDays(3), Status.WAITING));
+    }
+
+    @AfterEach
+    void afterEach() {
+        commentRepository.deleteAll();
+        bookingRepository.deleteAll();
+        itemRepository.deleteAll();
+        itemRequestRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+
+    @Test
+    void testBookingEndpoints() throws Exception {
+        expect(statements(1), get("/bookings/" + waiting.getId()).header(HEADER_ID, booker.getId()));
+        expect(statements(1), get("/bookings").header(HEADER_ID, booker.getId()).param("size", "10"));
+        expect(statements(1), get("/bookings/owner").header(HEADER_ID, owner.getId()).param("size", "10"));
+        expect(statements(3), patch("/bookings/" + waiting.getId())
+                .header(HEADER_ID, owner.getId()).param("approved", "true"));
+    }
+
+    @Test
+    void testItemEndpoints() throws Exception {
+        expect(statements(3), get("/items/" + item.getId()).header(HEADER_ID, owner.getId()));
+        expect(statements(1), get("/items/" + item.getId()).header(HEADER_ID, booker.getId()));
+        expect(statements(4), get("/items").header(HEADER_ID, owner.getId()));
+        expect(statements(1), get("/items/" + item.getId() + "/availability"));
+        expect(statements(0), get("/items/" + item.getId() + "/availability"));
+    }
+
+    @Test
+    void testUserEndpoints() throws Exception {
+        expect(statements(0), get("/users/" + owner.getId()));
+    }
+
+    @Test
+    void testRequestEndpoints() throws Exception {
+        expect(statements(2), get("/requests/" + itemRequest.getId()).header(HEADER_ID, booker.getId()));
+        expect(statements(2), get("/requests").header(HEADER_ID, booker.getId()));
+
+        for (int i = 0; i < 5; i++) {
+            itemRequestRepository.save(ItemRequest.builder()
+                    .description("Need more " + i)
+                    .created(dateTime.plusMinutes(i))
+                    .requestor(booker)
+                    .build());
+        }
+        expect(statements(2), get("/requests").header(HEADER_ID, booker.getId()));
+        expect(statements(2), get("/requests/all").header(HEADER_ID, owner.getId()).param("size", "10"));
+    }
+
+    @Test
+    void testListsDoNotRepeatStatementsPerRow() throws Exception {
+        for (int i = 0; i < 5; i++) {
+            ItemRequest request = itemRequestRepository.save(ItemRequest.builder()
+                    .description("Need more " + i)
+                    .created(dateTime.plusMinutes(i))
+                    .requestor(booker)
+                    .build());
+            Item other = itemRepository.save(Item.builder()
+                    .name("Item " + i)
+                    .description("Another item")
+                    .available(true)
+                    .owner(owner)
+                    .request(request)
+                    .build());
+            bookingRepository.save(booking(dateTime.minusDays(1), Status.APPROVED).toBuilder().item(other).build());
+            commentRepository.save(Comment.builder()
+                    .text("Comment on " + i)
+                    .item(other)
+                    .author(booker)
+                    .created(dateTime)
+                    .build());
+        }
+
+        expect(repeatsAtMost(1), get("/items").header(HEADER_ID, owner.getId()).param("size", "10"));
+        expect(repeatsAtMost(1), get("/requests").header(HEADER_ID, booker.getId()));
+        expect(repeatsAtMost(1), get("/requests/all").header(HEADER_ID, owner.getId()).param("size", "10"));
+        expect(repeatsAtMost(1), get("/items/" + item.getId()).header(HEADER_ID, owner.getId()));
+        expect(repeatsAtMost(1), get("/items/search").header(HEADER_ID, booker.getId())
+                .param("text", "item").param("size", "10"));
+        for (String state : List.of("ALL", "PAST", "FUTURE", "WAITING")) {
+            expect(repeatsAtMost(1), get("/bookings").header(HEADER_ID, booker.getId())
+                    .param("state", state).param("size", "10"));
+            expect(repeatsAtMost(1), get("/bookings/owner").header(HEADER_ID, owner.getId())
+                    .param("state", state).param("size", "10"));
+        }
+    }
+
+    @Test
+    void testConditionalGetsSkipLoadingTheRepresentation() throws Exception {
+        expectNotModified(statements(1), get("/bookings/" + waiting.getId()).header(HEADER_ID, booker.getId()));
+        expectNotModified(statements(1), get("/items/" + item.getId()).header(HEADER_ID, owner.getId()));
+        expectNotModified(statements(0), get("/items/" + item.getId()).header(HEADER_ID, booker.getId()));
+        expectNotModified(statements(1), get("/requests/" + itemRequest.getId()).header(HEADER_ID, booker.getId()));
+        expectNotModified(statements(0), get("/users/" + owner.getId()));
+    }
+
+    @Test
+    void testUserBatchInsertIsBatched() throws Exception {
+        List<User> users = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            users.add(new User(null, "User " + i, "user" + i + "@email.com"));
+        }
+
+        expect(statementsAtMost(6), post("/users/batch")
+                .content(mapper.writeValueAsString(users))
+                .contentType(MediaType.APPLICATION_JSON));
+    }
+
+    private void expect(ResultMatcher budget, MockHttpServletRequestBuilder request) throws Exception {
+        mvc.perform(request).andExpect(status().isOk()).andExpect(budget);
+    }
+
+    private void expectNotModified(ResultMatcher budget, MockHttpServletRequestBuilder request) throws Exception {
+        String eTag = mvc.perform(request).andExpect(status().isOk()).andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        mvc.perform(request.header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""))
+                .andExpect(budget);
+    }
+
+    private Booking booking(LocalDateTime start, Status status) {
+        return Booking.builder()
+                .start(start)
+                .end(start.plusDays(1))
+                .item(item)
+                .booker(booker)
+                .status(status)
+                .build();
+    }
+}
@@ -0,0 +1,177 @@
+package ru.practicum.shareitserver;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import ru.practicum.shareitserver.booking.dto.BookingCursor;
+import ru.practicum.shareitserver.booking.model.Status;
+import ru.practicum.shareitserver.booking.repository.BookingRepository;
+import ru.practicum.shareitserver.item.repository.CommentRepository;
+import ru.practicum.shareitserver.item.repository.ItemRepository;
+import ru.practicum.shareitserver.request.repository.ItemRequestRepository;
+import ru.practicum.shareitserver.user.repository.UserRepository;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+        + "ru.practicum.shareitserver.QueryPlanTest$SqlRecorder")
+class QueryPlanTest {
+
+    private static final int USERS = 200;
+    private static final int ITEMS = 2_000;
+    private static final int BOOKINGS = 20_000;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Autowired
+    private CommentRepository commentRepository;
+
+    @Autowired
+    private ItemRequestRepository itemRequestRepository;
+
+    private final LocalDateTime now = LocalDateTime.now();
+
+    @BeforeEach
+    void beforeEach() {
+        // ANALYZE commits the seed, so later tests find it already in place.
+        if (userRepository.count() == 0) {
+            seed();
+        }
+        SqlRecorder.STATEMENTS.clear();
+    }
+
+    @Test
+    void testRepositoryQueriesUseIndexes() {
+        PageRequest byStart = PageRequest.of(0, 10);
+
+        bookingRepository.findAllByBookerId(1L, BookingCursor.FIRST.getStart(), BookingCursor.FIRST.getId(), byStart);
+        bookingRepository.findAllByBookerIdAndStartBeforeAndEndAfter(1L, now, now, BookingCursor.FIRST.getStart(), BookingCursor.FIRST.getId(), byStart);
+        bookingRepository.findAllByBookerIdAndEndBefore(1L, now, BookingCursor.FIRST.getStart(), BookingCursor.FIRST.getId(), byStart);
+        bookingRepository.findAllByBookerIdAndStartAfter(1L, now, BookingCursor.FIRST.getStart(), BookingCursor.FIRST.getId(), byStart);
+        bookingRepository.findAllByBookerIdAndStatus(1L, Status.WAITING, BookingCursor.FIRST.getStart(), BookingCursor.FIRST.getId(), byStart);
+        bookingRepository.findAllByItemOwnerId(1L, BookingCursor.FIRST.getStart(), BookingCursor.FIRST.getId(), byStart);
+        bookingRepository.findAllByItemOwnerIdAndStartBeforeAndEndAfter(1L, now, now, BookingCursor.FIRST.getStart(), BookingCursor.FIRST.getId(), byStart);
+        bookingRepository.findAllByItemOwnerIdAndEndBefore(1L, now, BookingCursor.FIRST.getStart(), BookingCursor.FIRST.getId(), byStart);
+        bookingRepository.findAllByItemOwnerIdAndStartAfter(1L, now, BookingCursor.FIRST.getStart(), BookingCursor.FIRST.getId(), byStart);
+        bookingRepository.findAllByItemOwnerIdAndStatus(1L, Status.WAITING, BookingCursor.FIRST.getStart(), BookingCursor.FIRST.getId(), byStart);
+        bookingRepository.findFirstByItemIdAndStatusAndStartBeforeOrderByStartDesc(1L, Status.APPROVED, now);
+        bookingRepository.findFirstByItemIdAndStatusAndStartAfterOrderByStartAsc(1L, Status.APPROVED, now);
+        bookingRepository.findAllLastByItemIdIn(List.of(1L, 2L), Status.APPROVED, now);
+        bookingRepository.findAllNextByItemIdIn(List.of(1L, 2L), Status.APPROVED, now);
+        bookingRepository.findAllByBookerIdAndItemIdAndStatusEqualsAndEndIsBefore(1L, 1L, Status.APPROVED, now);
+        bookingRepository.findAllByItemIdAndStatusInAndEndAfter(1L, List.of(Status.WAITING, Status.APPROVED), now);
+        bookingRepository.existsByItemIdAndStatusInAndStartBeforeAndEndAfter(1L,
+                List.of(Status.WAITING, Status.APPROVED), now.plusDays(1), now);
+
+        userRepository.findAllByEmailIn(List.of("user1@email.com", "user2@email.com"));
+
+        itemRepository.findAllByOwnerId(1L, PageRequest.of(0, 10));
+        itemRepository.findAllByRequestId(1L);
+        itemRepository.findAllByRequestIdIn(List.of(1L, 2L));
+
+        commentRepository.findAllByItemId(1L);
+        commentRepository.findAllByItemIdIn(List.of(1L, 2L));
+
+        itemRequestRepository.findAllByRequestorIdOrderByCreatedAsc(1L);
+        itemRequestRepository.findAllByRequestorIsNot(userRepository.getReferenceById(1L),
+                PageRequest.of(0, 10, Sort.by(Sort.Direction.ASC, "created")));
+
+        assertFalse(SqlRecorder.STATEMENTS.isEmpty());
+        Map<String, String> tableScans = SqlRecorder.STATEMENTS.stream()
+                .collect(Collectors.toMap(sql -> sql, this::explain))
+                .entrySet().stream()
+                .filter(entry -> entry.getValue().contains(".tableScan"))
+                .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue));
+        assertTrue(tableScans.isEmpty(), () -> "Queries fall back to a table scan: " + tableScans.values());
+    }
+
+    @Test
+    void testOwnerBookingsSeekByItemAndStart() {
+        bookingRepository.findAllByItemOwnerId(1L, now, Long.MAX_VALUE, PageRequest.of(0, 10));
+
+        assertEquals(1, SqlRecorder.STATEMENTS.size());
+        String plan = explain(SqlRecorder.STATEMENTS.iterator().next());
+        assertTrue(plan.toLowerCase().contains("idx_bookings_item_start"), plan);
+    }
+
+    private String explain(String sql) {
+        return jdbcTemplate.queryForObject("EXPLAIN " + sql, String.class);
+    }
+
+    private void seed() {
+        List<Object[]> users = new ArrayList<>();
+        for (long i = 1; i <= USERS; i++) {
+            users.add(new Object[]{i, "User " + i, "user" + i + "@email.com"});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO users (id, name, email) VALUES (?, ?, ?)", users);
+
+        List<Object[]> requests = new ArrayList<>();
+        for (long i = 1; i <= USERS; i++) {
+            requests.add(new Object[]{i, "Request " + i, Timestamp.valueOf(now.minusHours(i)), i % USERS + 1});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO requests (id, description, created_date, requestor_id) "
+                + "VALUES (?, ?, ?, ?)", requests);
+
+        List<Object[]> items = new ArrayList<>();
+        for (long i = 1; i <= ITEMS; i++) {
+            items.add(new Object[]{i, "Item " + i, "Description " + i, i % 3 != 0, i % USERS + 1,
+                    i % 10 == 0 ? i / 10 % USERS + 1 : null});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO items (id, name, description, is_available, owner_id, request_id) "
+                + "VALUES (?, ?, ?, ?, ?, ?)", items);
+
+        List<Object[]> bookings = new ArrayList<>();
+        List<Object[]> comments = new ArrayList<>();
+        Status[] statuses = Status.values();
+        for (long i = 1; i <= BOOKINGS; i++) {
+            LocalDateTime start = now.plusHours(i - BOOKINGS / 2);
+            bookings.add(new Object[]{i, Timestamp.valueOf(start), Timestamp.valueOf(start.plusHours(2)),
+                    i % ITEMS + 1, i % USERS + 1, statuses[(int) (i % statuses.length)].name()});
+            if (i % 4 == 0) {
+                comments.add(new Object[]{i, "Comment " + i, i % ITEMS + 1, i % USERS + 1, Timestamp.valueOf(start)});
+            }
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO bookings (id, start_date, end_date, item_id, booker_id, status) "
+                + "VALUES (?, ?, ?, ?, ?, ?)", bookings);
+        jdbcTemplate.batchUpdate("INSERT INTO comments (id, text, item_id, author_id, created) "
+                + "VALUES (?, ?, ?, ?, ?)", comments);
+        jdbcTemplate.execute("ANALYZE");
+    }
+
+    public static class SqlRecorder implements StatementInspector {
+
+        static final Set<String> STATEMENTS = new CopyOnWriteArraySet<>();
+
+        @Override
+        public String inspect(String sql) {
+            if (sql.trim().toLowerCase().startsWith("select")) {
+                STATEMENTS.add(sql);
+            }
+            return sql;
+        }
+    }
+}
@@ -7,7 +7,9 @@ import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import ru.practicum.shareitserver.booking.dto.BookingCursor;
 import ru.practicum.shareitserver.booking.dto.BookingDto;
+import ru.practicum.shareitserver.booking.dto.BookingResponseDto;
 import ru.practicum.shareitserver.booking.model.Booking;
 import ru.practicum.shareitserver.booking.model.Status;
 import ru.practicum.shareitserver.booking.service.BookingService;
@@ -19,10 +21,13 @@ import java.time.LocalDateTime;
 import java.util.List;
 
 import static org.hamcrest.Matchers.containsString;
+import static ru.practicum.shareitserver.booking.BookingMapper.mapToBookingResponseDto;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @WebMvcTest(controllers = BookingController.class)
@@ -50,6 +55,8 @@ class BookingControllerTest {
             .status(Status.WAITING)
             .build();
 
+    private final BookingResponseDto bookingResponse = mapToBookingResponseDto(booking);
+
     private final BookingDto bookingDto = BookingDto
             .builder()
             .start(dateTime.plusDays(1).plusSeconds(1))
@@ -60,7 +67,7 @@ class BookingControllerTest {
     @Test
     void testAddCorrect() throws Exception {
         when(bookingService.add(anyLong(), any()))
-                .thenReturn(booking);
+                .thenReturn(bookingResponse);
 
         mvc.perform(post("/bookings")
                         .header(HEADER_ID, USER_ID)
@@ -74,7 +81,7 @@ class BookingControllerTest {
     @Test
     void testAddWithoutUserId() throws Exception {
         when(bookingService.add(anyLong(), any()))
-                .thenReturn(booking);
+                .thenReturn(bookingResponse);
 
         mvc.perform(post("/bookings")
                         .content(mapper.writeValueAsString(bookingDto))
@@ -88,7 +95,7 @@ class BookingControllerTest {
     @Test
     void testAddWithoutBody() throws Exception {
         when(bookingService.add(anyLong(), any()))
-                .thenReturn(booking);
+                .thenReturn(bookingResponse);
 
         mvc.perform(post("/bookings")
                         .header(HEADER_ID, USER_ID)
@@ -101,7 +108,7 @@ class BookingControllerTest {
     @Test
     void testApprove() throws Exception {
         when(bookingService.approve(anyLong(), any(), any()))
-                .thenReturn(booking);
+                .thenReturn(bookingResponse);
 
         mvc.perform(patch("/bookings/1")
                         .header(HEADER_ID, USER_ID)
@@ -112,10 +119,25 @@ class BookingControllerTest {
                 .andExpect(status().isOk());
     }
 
+    @Test
+    void testFindByIdReturnsFlatBooking() throws Exception {
+        when(bookingService.findById(anyLong(), anyLong(), any()))
+                .thenReturn(bookingResponse);
+
+        mvc.perform(get("/bookings/1")
+                        .header(HEADER_ID, USER_ID)
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.item.id").value(booking.getItem().getId()))
+                .andExpect(jsonPath("$.booker.id").value(USER_ID))
+                .andExpect(jsonPath("$.booker.email").doesNotExist())
+                .andExpect(jsonPath("$.item.owner").doesNotExist());
+    }
+
     @Test
     void testApproveWithoutUserId() throws Exception {
         when(bookingService.approve(anyLong(), any(), any()))
-                .thenReturn(booking);
+                .thenReturn(bookingResponse);
 
         mvc.perform(patch("/bookings/1")
                         .param("approved", "true")
@@ -129,7 +151,7 @@ class BookingControllerTest {
     @Test
     void testApproveWithoutRequestParam() throws Exception {
         when(bookingService.approve(anyLong(), any(), any()))
-                .thenReturn(booking);
+                .thenReturn(bookingResponse);
 
         mvc.perform(patch("/bookings/1")
                         .header(HEADER_ID, USER_ID)
@@ -142,8 +164,8 @@ class BookingControllerTest {
 
     @Test
     void testFindById() throws Exception {
-        when(bookingService.findById(anyLong(), anyLong()))
-                .thenReturn(booking);
+        when(bookingService.findById(anyLong(), anyLong(), any()))
+                .thenReturn(bookingResponse);
 
         mvc.perform(get("/bookings/1")
                         .header(HEADER_ID, USER_ID)
@@ -155,8 +177,8 @@ class BookingControllerTest {
 
     @Test
     void testFindByIdWithoutUserId() throws Exception {
-        when(bookingService.findById(anyLong(), anyLong()))
-                .thenReturn(booking);
+        when(bookingService.findById(anyLong(), anyLong(), any()))
+                .thenReturn(bookingResponse);
 
         mvc.perform(get("/bookings/1")
                         .characterEncoding(StandardCharsets.UTF_8)
@@ -168,8 +190,8 @@ class BookingControllerTest {
 
     @Test
     void testFindAllByUser() throws Exception {
-        when(bookingService.findAllByUser(anyLong(), any(), any(), any()))
-                .thenReturn(List.of(booking));
+        when(bookingService.findAllByUser(anyLong(), any(), any(), any(), any()))
+                .thenReturn(List.of(bookingResponse));
 
         mvc.perform(get("/bookings")
                         .header(HEADER_ID, USER_ID)
@@ -182,10 +204,24 @@ class BookingControllerTest {
                 .andExpect(status().isOk());
     }
 
+    @Test
+    void testFindAllByUserReturnsNextCursor() throws Exception {
+        when(bookingService.findAllByUser(anyLong(), any(), any(), any(), any()))
+                .thenReturn(List.of(bookingResponse));
+
+        mvc.perform(get("/bookings")
+                        .header(HEADER_ID, USER_ID)
+                        .param("size", "1")
+                        .param("cursor", BookingCursor.FIRST.encode())
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(header().string("X-Next-Cursor", BookingCursor.of(bookingResponse).encode()));
+    }
+
     @Test
     void testFindAllByUserWithoutUserId() throws Exception {
-        when(bookingService.findAllByUser(anyLong(), any(), any(), any()))
-                .thenReturn(List.of(booking));
+        when(bookingService.findAllByUser(anyLong(), any(), any(), any(), any()))
+                .thenReturn(List.of(bookingResponse));
 
         mvc.perform(get("/bookings")
                         .param("state", "ALL")
@@ -200,8 +236,8 @@ class BookingControllerTest {
 
     @Test
     void testFindAllByUserWithoutParam() throws Exception {
-        when(bookingService.findAllByUser(anyLong(), any(), any(), any()))
-                .thenReturn(List.of(booking));
+        when(bookingService.findAllByUser(anyLong(), any(), any(), any(), any()))
+                .thenReturn(List.of(bookingResponse));
 
         mvc.perform(get("/bookings")
                         .header(HEADER_ID, USER_ID)
@@ -213,8 +249,8 @@ class BookingControllerTest {
 
     @Test
     void testFindAllByOwner() throws Exception {
-        when(bookingService.findAllByUser(anyLong(), any(), any(), any()))
-                .thenReturn(List.of(booking));
+        when(bookingService.findAllByUser(anyLong(), any(), any(), any(), any()))
+                .thenReturn(List.of(bookingResponse));
 
         mvc.perform(get("/bookings/owner")
                         .header(HEADER_ID, USER_ID)
@@ -229,8 +265,8 @@ class BookingControllerTest {
 
     @Test
     void testFindAllByOwnerWithoutUserId() throws Exception {
-        when(bookingService.findAllByUser(anyLong(), any(), any(), any()))
-                .thenReturn(List.of(booking));
+        when(bookingService.findAllByUser(anyLong(), any(), any(), any(), any()))
+                .thenReturn(List.of(bookingResponse));
 
         mvc.perform(get("/bookings/owner")
                         .param("state", "ALL")
@@ -245,8 +281,8 @@ class BookingControllerTest {
 
     @Test
     void testFindAllByOwnerWithoutParam() throws Exception {
-        when(bookingService.findAllByUser(anyLong(), any(), any(), any()))
-                .thenReturn(List.of(booking));
+        when(bookingService.findAllByUser(anyLong(), any(), any(), any(), any()))
+                .thenReturn(List.of(bookingResponse));
 
         mvc.perform(get("/bookings/owner")
                         .header(HEADER_ID, USER_ID)
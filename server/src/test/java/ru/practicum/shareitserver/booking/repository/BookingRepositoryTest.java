@@ -5,7 +5,11 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
 import org.springframework.data.domain.PageRequest;
+import ru.practicum.shareitserver.booking.dto.BookingCursor;
+import ru.practicum.shareitserver.booking.dto.BookingPeriod;
+import ru.practicum.shareitserver.booking.dto.BookingResponseDto;
 import ru.practicum.shareitserver.booking.model.Booking;
 import ru.practicum.shareitserver.booking.model.Status;
 import ru.practicum.shareitserver.item.model.Item;
@@ -15,6 +19,8 @@ import ru.practicum.shareitserver.user.repository.UserRepository;
 
 import java.time.LocalDateTime;
 import java.util.Collection;
+import java.util.List;
+import java.util.stream.Collectors;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -30,6 +36,9 @@ class BookingRepositoryTest {
     @Autowired
     private ItemRepository itemRepository;
 
+    @Autowired
+    private TestEntityManager entityManager;
+
     private final LocalDateTime dateTime = LocalDateTime.now();
     private final User booker = new User(null, "Booker", "booker@email.com");
     private final User owner = new User(null, "Owner", "owner@email.com");
@@ -66,62 +75,79 @@ class BookingRepositoryTest {
 
     @Test
     void testFindAllByBookerId() {
-        Collection<Booking> bookings = bookingRepository.findAllByBookerId(booker.getId(), PageRequest.of(0, 10));
-        checkAsserts(bookings);
+        Collection<BookingResponseDto> bookings = bookingRepository.findAllByBookerId(booker.getId(), BookingCursor.FIRST.getStart(), BookingCursor.FIRST.getId(), PageRequest.of(0, 10));
+        checkResponseAsserts(bookings);
+    }
+
+    @Test
+    void testFindAllByBookerIdSeeksPastCursor() {
+        Booking later = bookingRepository.save(booking.toBuilder().id(null).start(dateTime.plusDays(3)).end(dateTime.plusDays(4)).build());
+        Booking sameStart = bookingRepository.save(booking.toBuilder().id(null).build());
+        entityManager.flush();
+        entityManager.clear();
+
+        List<BookingResponseDto> firstPage = bookingRepository.findAllByBookerId(booker.getId(),
+                BookingCursor.FIRST.getStart(), BookingCursor.FIRST.getId(), PageRequest.of(0, 2));
+        assertEquals(List.of(later.getId(), sameStart.getId()), ids(firstPage));
+
+        BookingCursor cursor = BookingCursor.decode(BookingCursor.of(firstPage.get(1)).encode());
+        List<BookingResponseDto> secondPage = bookingRepository.findAllByBookerId(booker.getId(),
+                cursor.getStart(), cursor.getId(), PageRequest.of(0, 2));
+        assertEquals(List.of(booking.getId()), ids(secondPage));
     }
 
     @Test
     void testFindAllByBookerIdAndStartBeforeAndEndAfter() {
-        Collection<Booking> bookings = bookingRepository.findAllByBookerIdAndStartBeforeAndEndAfter(booker.getId(), dateTime.plusDays(2), dateTime, PageRequest.of(0, 10));
-        checkAsserts(bookings);
+        Collection<BookingResponseDto> bookings = bookingRepository.findAllByBookerIdAndStartBeforeAndEndAfter(booker.getId(), dateTime.plusDays(2), dateTime, BookingCursor.FIRST.getStart(), BookingCursor.FIRST.getId(), PageRequest.of(0, 10));
+        checkResponseAsserts(bookings);
     }
 
     @Test
     void testFindAllByBookerIdAndEndBefore() {
-        Collection<Booking> bookings = bookingRepository.findAllByBookerIdAndEndBefore(booker.getId(), dateTime.plusDays(3), PageRequest.of(0, 10));
-        checkAsserts(bookings);
+        Collection<BookingResponseDto> bookings = bookingRepository.findAllByBookerIdAndEndBefore(booker.getId(), dateTime.plusDays(3), BookingCursor.FIRST.getStart(), BookingCursor.FIRST.getId(), PageRequest.of(0, 10));
+        checkResponseAsserts(bookings);
     }
 
     @Test
     void testFindAllByBookerIdAndStartAfter() {
-        Collection<Booking> bookings = bookingRepository.findAllByBookerIdAndStartAfter(booker.getId(), dateTime, PageRequest.of(0, 10));
-        checkAsserts(bookings);
+        Collection<BookingResponseDto> bookings = bookingRepository.findAllByBookerIdAndStartAfter(booker.getId(), dateTime, BookingCursor.FIRST.getStart(), BookingCursor.FIRST.getId(), PageRequest.of(0, 10));
+        checkResponseAsserts(bookings);
     }
 
     @Test
     void testFindAllByBookerIdAndStatusApproved() {
-        Collection<Booking> bookings = bookingRepository.findAllByBookerIdAndStatus(booker.getId(), Status.APPROVED, PageRequest.of(0, 10));
-        checkAsserts(bookings);
+        Collection<BookingResponseDto> bookings = bookingRepository.findAllByBookerIdAndStatus(booker.getId(), Status.APPROVED, BookingCursor.FIRST.getStart(), BookingCursor.FIRST.getId(), PageRequest.of(0, 10));
+        checkResponseAsserts(bookings);
     }
 
     @Test
     void testFindAllByItemOwnerId() {
-        Collection<Booking> bookings = bookingRepository.findAllByItemOwnerId(owner.getId(), PageRequest.of(0, 10));
-        checkAsserts(bookings);
+        Collection<BookingResponseDto> bookings = bookingRepository.findAllByItemOwnerId(owner.getId(), BookingCursor.FIRST.getStart(), BookingCursor.FIRST.getId(), PageRequest.of(0, 10));
+        checkResponseAsserts(bookings);
     }
 
     @Test
     void testFindAllByItemOwnerIdAndStartBeforeAndEndAfter() {
-        Collection<Booking> bookings = bookingRepository.findAllByItemOwnerIdAndStartBeforeAndEndAfter(owner.getId(), dateTime.plusDays(2), dateTime, PageRequest.of(0, 10));
-        checkAsserts(bookings);
+        Collection<BookingResponseDto> bookings = bookingRepository.findAllByItemOwnerIdAndStartBeforeAndEndAfter(owner.getId(), dateTime.plusDays(2), dateTime, BookingCursor.FIRST.getStart(), BookingCursor.FIRST.getId(), PageRequest.of(0, 10));
+        checkResponseAsserts(bookings);
     }
 
     @Test
     void testFindAllByItemOwnerIdAndEndBefore() {
-        Collection<Booking> bookings = bookingRepository.findAllByItemOwnerIdAndEndBefore(owner.getId(), dateTime.plusDays(3), PageRequest.of(0, 10));
-        checkAsserts(bookings);
+        Collection<BookingResponseDto> bookings = bookingRepository.findAllByItemOwnerIdAndEndBefore(owner.getId(), dateTime.plusDays(3), BookingCursor.FIRST.getStart(), BookingCursor.FIRST.getId(), PageRequest.of(0, 10));
+        checkResponseAsserts(bookings);
     }
 
     @Test
     void testFindAllByItemOwnerIdAndStartAfter() {
-        Collection<Booking> bookings = bookingRepository.findAllByItemOwnerIdAndStartAfter(owner.getId(), dateTime, PageRequest.of(0, 10));
-        checkAsserts(bookings);
+        Collection<BookingResponseDto> bookings = bookingRepository.findAllByItemOwnerIdAndStartAfter(owner.getId(), dateTime, BookingCursor.FIRST.getStart(), BookingCursor.FIRST.getId(), PageRequest.of(0, 10));
+        checkResponseAsserts(bookings);
     }
 
     @Test
     void testFindAllByItemOwnerIdAndStatusApproved() {
-        Collection<Booking> bookings = bookingRepository.findAllByItemOwnerIdAndStatus(owner.getId(), Status.APPROVED, PageRequest.of(0, 10));
-        checkAsserts(bookings);
+        Collection<BookingResponseDto> bookings = bookingRepository.findAllByItemOwnerIdAndStatus(owner.getId(), Status.APPROVED, BookingCursor.FIRST.getStart(), BookingCursor.FIRST.getId(), PageRequest.of(0, 10));
+        checkResponseAsserts(bookings);
     }
 
     @Test
@@ -137,12 +163,40 @@ class BookingRepositoryTest {
         assertNull(bookings);
     }
 
+    @Test
+    void testFindAllNextByItemIdIn() {
+        Collection<Booking> bookings = bookingRepository.findAllNextByItemIdIn(List.of(item.getId()), Status.APPROVED, dateTime);
+        checkAsserts(bookings);
+    }
+
+    @Test
+    void testFindAllLastByItemIdIn() {
+        Collection<Booking> bookings = bookingRepository.findAllLastByItemIdIn(List.of(item.getId()), Status.APPROVED, dateTime);
+        assertTrue(bookings.isEmpty());
+    }
+
     @Test
     void testFindAllByBookerIdAndItemIdAndStatusEqualsAndEndIsBeforeIfStatusApproved() {
         Collection<Booking> bookings = bookingRepository.findAllByBookerIdAndItemIdAndStatusEqualsAndEndIsBefore(booker.getId(), item.getId(), Status.APPROVED, dateTime.plusDays(3));
         checkAsserts(bookings);
     }
 
+    @Test
+    void testFindAllByItemIdAndStatusInAndEndAfter() {
+        Collection<BookingPeriod> periods = bookingRepository.findAllByItemIdAndStatusInAndEndAfter(item.getId(),
+                List.of(Status.WAITING, Status.APPROVED), dateTime);
+        assertEquals(1, periods.size());
+        assertTrue(periods.iterator().next().getEnd().isAfter(periods.iterator().next().getStart()));
+    }
+
+    @Test
+    void testExistsByItemIdAndStatusInAndStartBeforeAndEndAfter() {
+        assertTrue(bookingRepository.existsByItemIdAndStatusInAndStartBeforeAndEndAfter(item.getId(),
+                List.of(Status.WAITING, Status.APPROVED), dateTime.plusDays(3), dateTime.plusDays(1).plusHours(1)));
+        assertFalse(bookingRepository.existsByItemIdAndStatusInAndStartBeforeAndEndAfter(item.getId(),
+                List.of(Status.WAITING, Status.APPROVED), dateTime.plusDays(4), dateTime.plusDays(2).plusHours(1)));
+    }
+
     private void checkAsserts(Collection<Booking> bookings) {
         assertNotNull(bookings);
         assertFalse(bookings.isEmpty());
@@ -150,4 +204,14 @@ class BookingRepositoryTest {
         assertTrue(bookings.contains(booking));
     }
 
-}
\ No newline at end of file
+    private void checkResponseAsserts(Collection<BookingResponseDto> bookings) {
+        assertNotNull(bookings);
+        assertFalse(bookings.isEmpty());
+        assertEquals(bookings.size(), 1);
+        assertEquals(booking.getId(), bookings.iterator().next().getId());
+    }
+
+    private static List<Long> ids(List<BookingResponseDto> bookings) {
+        return bookings.stream().map(BookingResponseDto::getId).collect(Collectors.toList());
+    }
+}
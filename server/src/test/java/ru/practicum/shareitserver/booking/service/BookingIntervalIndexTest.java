@@ -0,0 +1,144 @@
+package ru.practicum.shareitserver.booking.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import ru.practicum.shareitserver.booking.dto.BookingPeriod;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.practicum.shareitserver.booking.repository.BookingRepository;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.when;
+
+class BookingIntervalIndexTest {
+
+    private static final Long ITEM_ID = 1L;
+
+    private final BookingRepository bookingRepository = Mockito.mock(BookingRepository.class);
+    private final LocalDateTime start = LocalDateTime.now().plusDays(1).withNano(0);
+    private BookingIntervalIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new BookingIntervalIndex(bookingRepository, Duration.ofMinutes(1), false, 100);
+        when(bookingRepository.findAllByItemIdAndStatusInAndEndAfter(eq(ITEM_ID), any(), any()))
+                .thenReturn(List.of(period(start, start.plusDays(1)), period(start.plusHours(12), start.plusDays(2))));
+    }
+
+    @Test
+    void testIsOverlappingLoadsOnce() {
+        assertTrue(index.isOverlapping(ITEM_ID, start.plusDays(1).plusHours(1), start.plusDays(3)));
+        assertFalse(index.isOverlapping(ITEM_ID, start.plusDays(2), start.plusDays(3)));
+        assertFalse(index.isOverlapping(ITEM_ID, start.minusDays(1), start));
+
+        Mockito.verify(bookingRepository, Mockito.times(1))
+                .findAllByItemIdAndStatusInAndEndAfter(eq(ITEM_ID), any(), any());
+    }
+
+    @Test
+    void testInvalidateAllReloadsEveryItem() {
+        assertTrue(index.isOverlapping(ITEM_ID, start, start.plusDays(1)));
+        when(bookingRepository.findAllByItemIdAndStatusInAndEndAfter(eq(ITEM_ID), any(), any()))
+                .thenReturn(List.of());
+
+        index.invalidateAll();
+
+        assertFalse(index.isOverlapping(ITEM_ID, start, start.plusDays(1)));
+        Mockito.verify(bookingRepository, Mockito.times(2))
+                .findAllByItemIdAndStatusInAndEndAfter(eq(ITEM_ID), any(), any());
+    }
+
+    @Test
+    void testReserve() {
+        assertTrue(index.reserve(ITEM_ID, start.plusDays(3), start.plusDays(4)));
+        assertFalse(index.reserve(ITEM_ID, start.plusDays(3).plusHours(1), start.plusDays(3).plusHours(2)));
+        assertTrue(index.reserve(ITEM_ID, start.plusDays(2), start.plusDays(3)));
+    }
+
+    @Test
+    void testReleaseKeepsOtherIntervals() {
+        index.release(ITEM_ID, start, start.plusDays(1));
+        assertTrue(index.isOverlapping(ITEM_ID, start, start.plusDays(1)));
+
+        index.release(ITEM_ID, start, start.plusDays(1));
+        assertFalse(index.isOverlapping(ITEM_ID, start, start.plusHours(12)));
+        assertTrue(index.isOverlapping(ITEM_ID, start.plusHours(12), start.plusDays(1)));
+    }
+
+    @Test
+    void testBusyBetweenClipsMergedIntervals() {
+        List<BookingPeriod> busy = index.busyBetween(ITEM_ID, start.plusDays(1), start.plusDays(3));
+        assertEquals(1, busy.size());
+        assertEquals(start.plusDays(1), busy.get(0).getStart());
+        assertEquals(start.plusDays(2), busy.get(0).getEnd());
+
+        busy = index.busyBetween(ITEM_ID, start.minusDays(1), start.plusDays(1));
+        assertEquals(1, busy.size());
+        assertEquals(start, busy.get(0).getStart());
+        assertEquals(start.plusDays(1), busy.get(0).getEnd());
+
+        assertTrue(index.busyBetween(ITEM_ID, start.plusDays(2), start.plusDays(3)).isEmpty());
+    }
+
+    @Test
+    void testVerifyAgainstRepository() {
+        index = new BookingIntervalIndex(bookingRepository, Duration.ofMinutes(1), true, 100);
+        when(bookingRepository.existsByItemIdAndStatusInAndStartBeforeAndEndAfter(eq(ITEM_ID), any(), any(), any()))
+                .thenReturn(true);
+
+        assertFalse(index.reserve(ITEM_ID, start.plusDays(5), start.plusDays(6)));
+        Mockito.verify(bookingRepository, Mockito.times(2))
+                .findAllByItemIdAndStatusInAndEndAfter(eq(ITEM_ID), any(), any());
+    }
+
+    @Test
+    void testReloadKeepsUncommittedReservations() {
+        index = new BookingIntervalIndex(bookingRepository, Duration.ZERO, false, 100);
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            assertTrue(index.reserve(ITEM_ID, start.plusDays(3), start.plusDays(4)));
+
+            assertFalse(index.reserve(ITEM_ID, start.plusDays(3), start.plusDays(4)));
+            Mockito.verify(bookingRepository, Mockito.times(2))
+                    .findAllByItemIdAndStatusInAndEndAfter(eq(ITEM_ID), any(), any());
+
+            TransactionSynchronizationManager.getSynchronizations()
+                    .forEach(sync -> sync.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        assertTrue(index.reserve(ITEM_ID, start.plusDays(3), start.plusDays(4)));
+    }
+
+    @Test
+    void testVerifyReloadsStaleBusyInterval() {
+        index = new BookingIntervalIndex(bookingRepository, Duration.ofMinutes(1), true, 100);
+        assertTrue(index.isOverlapping(ITEM_ID, start, start.plusHours(1)));
+        when(bookingRepository.findAllByItemIdAndStatusInAndEndAfter(eq(ITEM_ID), any(), any()))
+                .thenReturn(List.of());
+
+        assertTrue(index.reserve(ITEM_ID, start, start.plusHours(1)));
+        assertFalse(index.isOverlapping(ITEM_ID, start.plusDays(1), start.plusDays(2)));
+    }
+
+    private static BookingPeriod period(LocalDateTime start, LocalDateTime end) {
+        return new BookingPeriod() {
+            @Override
+            public LocalDateTime getStart() {
+                return start;
+            }
+
+            @Override
+            public LocalDateTime getEnd() {
+                return end;
+            }
+        };
+    }
+}
@@ -13,8 +13,9 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.data.domain.PageRequest;
-import org.springframework.data.domain.Sort;
+import ru.practicum.shareitserver.booking.dto.BookingCursor;
 import ru.practicum.shareitserver.booking.dto.BookingDto;
+import ru.practicum.shareitserver.booking.dto.BookingResponseDto;
 import ru.practicum.shareitserver.booking.model.Booking;
 import ru.practicum.shareitserver.booking.model.State;
 import ru.practicum.shareitserver.booking.model.Status;
@@ -32,12 +33,13 @@ import java.util.List;
 import java.util.Optional;
 
 import static org.hamcrest.Matchers.*;
+import static ru.practicum.shareitserver.booking.BookingMapper.mapToBookingResponseDto;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.when;
 import static org.hamcrest.MatcherAssert.assertThat;
 
 @ExtendWith(MockitoExtension.class)
-@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE)
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE, properties = "shareit.booking.index.verify=true")
 @RequiredArgsConstructor(onConstructor_ = @Autowired)
 class BookingServiceImplTest {
 
@@ -49,6 +51,7 @@ class BookingServiceImplTest {
     private final BookingRepository bookingRepository;
     @InjectMocks
     private final BookingService bookingService;
+    private final BookingIntervalIndex bookingIntervalIndex;
 
     private final LocalDateTime dateTime = LocalDateTime.now();
     private final User userReturn = new User(1L, "name", "email@email.com");
@@ -71,27 +74,27 @@ class BookingServiceImplTest {
                 .thenReturn(Optional.of(itemReturn));
         when(bookingRepository.save(any(Booking.class)))
                 .thenReturn(bookingReturn);
-        when(bookingRepository.findById(bookingReturn.getId()))
+        when(bookingRepository.findWithItemById(bookingReturn.getId()))
                 .thenReturn(Optional.of(bookingReturn));
-        when(bookingRepository.findAllByBookerId(Mockito.anyLong(), any(PageRequest.class)))
-                .thenReturn(List.of(bookingReturn));
-        when(bookingRepository.findAllByItemOwnerId(Mockito.anyLong(), any(PageRequest.class)))
-                .thenReturn(List.of(bookingReturn));
-        when(bookingRepository.findAllByBookerIdAndStartBeforeAndEndAfter(any(), any(), any(), any()))
+        when(bookingRepository.findAllByBookerId(Mockito.anyLong(), any(), any(), any(PageRequest.class)))
+                .thenReturn(List.of(mapToBookingResponseDto(bookingReturn)));
+        when(bookingRepository.findAllByItemOwnerId(Mockito.anyLong(), any(), any(), any(PageRequest.class)))
+                .thenReturn(List.of(mapToBookingResponseDto(bookingReturn)));
+        when(bookingRepository.findAllByBookerIdAndStartBeforeAndEndAfter(any(), any(), any(), any(), any(), any()))
                 .thenReturn(List.of());
-        when(bookingRepository.findAllByBookerIdAndEndBefore(any(), any(), any()))
+        when(bookingRepository.findAllByBookerIdAndEndBefore(any(), any(), any(), any(), any()))
                 .thenReturn(List.of());
-        when(bookingRepository.findAllByBookerIdAndStartAfter(any(), any(), any()))
+        when(bookingRepository.findAllByBookerIdAndStartAfter(any(), any(), any(), any(), any()))
                 .thenReturn(List.of());
-        when(bookingRepository.findAllByBookerIdAndStatus(any(), any(), any()))
+        when(bookingRepository.findAllByBookerIdAndStatus(any(), any(), any(), any(), any()))
                 .thenReturn(List.of());
-        when(bookingRepository.findAllByItemOwnerIdAndStartBeforeAndEndAfter(any(), any(), any(), any()))
+        when(bookingRepository.findAllByItemOwnerIdAndStartBeforeAndEndAfter(any(), any(), any(), any(), any(), any()))
                 .thenReturn(List.of());
-        when(bookingRepository.findAllByItemOwnerIdAndEndBefore(any(), any(), any()))
+        when(bookingRepository.findAllByItemOwnerIdAndEndBefore(any(), any(), any(), any(), any()))
                 .thenReturn(List.of());
-        when(bookingRepository.findAllByItemOwnerIdAndStartAfter(any(), any(), any()))
+        when(bookingRepository.findAllByItemOwnerIdAndStartAfter(any(), any(), any(), any(), any()))
                 .thenReturn(List.of());
-        when(bookingRepository.findAllByItemOwnerIdAndStatus(any(), any(), any()))
+        when(bookingRepository.findAllByItemOwnerIdAndStatus(any(), any(), any(), any(), any()))
                 .thenReturn(List.of());
     }
 
@@ -99,6 +102,7 @@ class BookingServiceImplTest {
     void tearDown() {
         bookingReturn.setStatus(Status.WAITING);
         itemReturn.setAvailable(true);
+        bookingIntervalIndex.clear();
     }
 
     @Test
@@ -109,7 +113,7 @@ class BookingServiceImplTest {
                 .itemId(1L)
                 .build();
 
-        Booking booking = bookingService.add(userReturn.getId(), bookingDto);
+        BookingResponseDto booking = bookingService.add(userReturn.getId(), bookingDto);
 
         assertThat(booking.getId(), notNullValue());
         assertThat(booking.getStart(), equalTo(bookingDto.getStart()));
@@ -122,160 +126,195 @@ class BookingServiceImplTest {
 
     @Test
     void testApproveIfApproveTrue() {
-        Booking booking = bookingService.approve(bookingReturn.getId(), ownerReturn.getId(), true);
+        BookingResponseDto booking = bookingService.approve(bookingReturn.getId(), ownerReturn.getId(), true);
 
         assertThat(booking.getId(), notNullValue());
         assertThat(booking.getStatus(), equalTo(Status.APPROVED));
         Mockito.verify(userRepository, Mockito.times(1))
                 .findById(ownerReturn.getId());
         Mockito.verify(bookingRepository, Mockito.times(1))
-                .findById(bookingReturn.getId());
+                .findWithItemById(bookingReturn.getId());
+        Mockito.verify(itemRepository, Mockito.times(1))
+                .incrementVersion(itemReturn);
     }
 
     @Test
     void testApproveRejectedIfApproveFalse() {
-        Booking booking = bookingService.approve(bookingReturn.getId(), ownerReturn.getId(), false);
+        BookingResponseDto booking = bookingService.approve(bookingReturn.getId(), ownerReturn.getId(), false);
 
         assertThat(booking.getId(), notNullValue());
         assertThat(booking.getStatus(), equalTo(Status.REJECTED));
         Mockito.verify(userRepository, Mockito.times(1))
                 .findById(ownerReturn.getId());
         Mockito.verify(bookingRepository, Mockito.times(1))
-                .findById(bookingReturn.getId());
+                .findWithItemById(bookingReturn.getId());
+        Mockito.verify(itemRepository, Mockito.never())
+                .incrementVersion(Mockito.any());
     }
 
     @Test
     void testFindById() {
-        Booking booking = bookingService.findById(bookingReturn.getId(), userReturn.getId());
+        BookingResponseDto booking = bookingService.findById(bookingReturn.getId(), userReturn.getId());
 
         assertThat(booking.getId(), equalTo(bookingReturn.getId()));
         Mockito.verify(bookingRepository, Mockito.times(1))
-                .findById(bookingReturn.getId());
+                .findWithItemById(bookingReturn.getId());
         Mockito.verify(userRepository, Mockito.times(1))
                 .findById(userReturn.getId());
 
     }
 
+    @Test
+    void testGetETag() {
+        bookingReturn.setVersion(3L);
+        itemReturn.setVersion(5L);
+
+        assertThat(bookingService.getETag(bookingReturn.getId(), userReturn.getId()), equalTo("W/\"3-5\""));
+    }
+
+    @Test
+    void testGetETagIfUserIsNotBookerOrOwner() {
+        Assertions.assertThrows(NotFoundException.class, () -> bookingService.getETag(bookingReturn.getId(), 3L));
+    }
+
     @Test
     void testFindAllByUserIfStateAll() {
-        Collection<Booking> bookings = bookingService.findAllByUser(userReturn.getId(), State.ALL.toString(), 1, 10);
+        Collection<BookingResponseDto> bookings = bookingService.findAllByUser(userReturn.getId(), State.ALL.toString(), 1, 10, null);
 
         assertThat(bookings, is(not(empty())));
         assertThat(bookings, hasSize(1));
         Mockito.verify(bookingRepository, Mockito.times(1))
-                .findAllByBookerId(userReturn.getId(), PageRequest.of(0, 10, Sort.by(Sort.Direction.DESC, "start")));
+                .findAllByBookerId(userReturn.getId(), BookingCursor.FIRST.getStart(), BookingCursor.FIRST.getId(), PageRequest.of(0, 10));
         Mockito.verify(userRepository, Mockito.times(1))
                 .findById(userReturn.getId());
     }
 
+    @Test
+    void testFindAllByUserWithCursor() {
+        BookingCursor cursor = BookingCursor.of(mapToBookingResponseDto(bookingReturn));
+        bookingService.findAllByUser(userReturn.getId(), State.ALL.toString(), 30, 10, cursor.encode());
+
+        Mockito.verify(bookingRepository, Mockito.times(1))
+                .findAllByBookerId(userReturn.getId(), cursor.getStart(), cursor.getId(), PageRequest.of(0, 10));
+    }
+
+    @Test
+    void testFindAllByUserWithInvalidCursor() {
+        final ValidationException exception = Assertions.assertThrows(
+                ValidationException.class,
+                () -> bookingService.findAllByUser(userReturn.getId(), State.ALL.toString(), 0, 10, "not a cursor"));
+
+        assertThat(exception.getMessage(), is("Некорректный курсор: not a cursor"));
+    }
+
     @Test
     void testFindCurrentByUserIfStateCurrent() {
-        bookingService.findAllByUser(userReturn.getId(), State.CURRENT.toString(), 1, 10);
+        bookingService.findAllByUser(userReturn.getId(), State.CURRENT.toString(), 1, 10, null);
 
         Mockito.verify(bookingRepository, Mockito.times(1))
-                .findAllByBookerIdAndStartBeforeAndEndAfter(any(), any(), any(), any());
+                .findAllByBookerIdAndStartBeforeAndEndAfter(any(), any(), any(), any(), any(), any());
         Mockito.verify(userRepository, Mockito.times(1))
                 .findById(userReturn.getId());
     }
 
     @Test
     void testFindPastByUserIfStatePast() {
-        bookingService.findAllByUser(userReturn.getId(), State.PAST.toString(), 1, 10);
+        bookingService.findAllByUser(userReturn.getId(), State.PAST.toString(), 1, 10, null);
 
         Mockito.verify(bookingRepository, Mockito.times(1))
-                .findAllByBookerIdAndEndBefore(any(), any(), any());
+                .findAllByBookerIdAndEndBefore(any(), any(), any(), any(), any());
         Mockito.verify(userRepository, Mockito.times(1))
                 .findById(userReturn.getId());
     }
 
     @Test
     void testFindFutureByUserIfStateFuture() {
-        bookingService.findAllByUser(userReturn.getId(), State.FUTURE.toString(), 1, 10);
+        bookingService.findAllByUser(userReturn.getId(), State.FUTURE.toString(), 1, 10, null);
 
         Mockito.verify(bookingRepository, Mockito.times(1))
-                .findAllByBookerIdAndStartAfter(any(), any(), any());
+                .findAllByBookerIdAndStartAfter(any(), any(), any(), any(), any());
         Mockito.verify(userRepository, Mockito.times(1))
                 .findById(userReturn.getId());
     }
 
     @Test
     void testFindWaitingByUserIfStateWaiting() {
-        bookingService.findAllByUser(userReturn.getId(), State.WAITING.toString(), 1, 10);
+        bookingService.findAllByUser(userReturn.getId(), State.WAITING.toString(), 1, 10, null);
 
         Mockito.verify(bookingRepository, Mockito.times(1))
-                .findAllByBookerIdAndStatus(any(), any(), any());
+                .findAllByBookerIdAndStatus(any(), any(), any(), any(), any());
         Mockito.verify(userRepository, Mockito.times(1))
                 .findById(userReturn.getId());
     }
 
     @Test
     void testFindRejectedByUserIfStateRejected() {
-        bookingService.findAllByUser(userReturn.getId(), State.REJECTED.toString(), 1, 10);
+        bookingService.findAllByUser(userReturn.getId(), State.REJECTED.toString(), 1, 10, null);
 
         Mockito.verify(bookingRepository, Mockito.times(1))
-                .findAllByBookerIdAndStatus(any(), any(), any());
+                .findAllByBookerIdAndStatus(any(), any(), any(), any(), any());
         Mockito.verify(userRepository, Mockito.times(1))
                 .findById(userReturn.getId());
     }
 
     @Test
     void testFindAllByOwnerIfStateAll() {
-        Collection<Booking> bookings = bookingService.findAllByOwner(ownerReturn.getId(), State.ALL.toString(), 1, 10);
+        Collection<BookingResponseDto> bookings = bookingService.findAllByOwner(ownerReturn.getId(), State.ALL.toString(), 1, 10, null);
 
         assertThat(bookings, is(not(empty())));
         assertThat(bookings, hasSize(1));
         Mockito.verify(bookingRepository, Mockito.times(1))
-                .findAllByItemOwnerId(ownerReturn.getId(), PageRequest.of(0, 10, Sort.by(Sort.Direction.DESC, "start")));
+                .findAllByItemOwnerId(ownerReturn.getId(), BookingCursor.FIRST.getStart(), BookingCursor.FIRST.getId(), PageRequest.of(0, 10));
         Mockito.verify(userRepository, Mockito.times(1))
                 .findById(ownerReturn.getId());
     }
 
     @Test
     void testFindCurrentByOwnerIfStateCurrent() {
-        bookingService.findAllByOwner(ownerReturn.getId(), State.CURRENT.toString(), 1, 10);
+        bookingService.findAllByOwner(ownerReturn.getId(), State.CURRENT.toString(), 1, 10, null);
 
         Mockito.verify(bookingRepository, Mockito.times(1))
-                .findAllByItemOwnerIdAndStartBeforeAndEndAfter(any(), any(), any(), any());
+                .findAllByItemOwnerIdAndStartBeforeAndEndAfter(any(), any(), any(), any(), any(), any());
         Mockito.verify(userRepository, Mockito.times(1))
                 .findById(ownerReturn.getId());
     }
 
     @Test
     void testFindPastByOwnerIfStatePast() {
-        bookingService.findAllByOwner(ownerReturn.getId(), State.PAST.toString(), 1, 10);
+        bookingService.findAllByOwner(ownerReturn.getId(), State.PAST.toString(), 1, 10, null);
 
         Mockito.verify(bookingRepository, Mockito.times(1))
-                .findAllByItemOwnerIdAndEndBefore(any(), any(), any());
+                .findAllByItemOwnerIdAndEndBefore(any(), any(), any(), any(), any());
         Mockito.verify(userRepository, Mockito.times(1))
                 .findById(ownerReturn.getId());
     }
 
     @Test
     void testFindFutureByOwnerIfStateFuture() {
-        bookingService.findAllByOwner(ownerReturn.getId(), State.FUTURE.toString(), 1, 10);
+        bookingService.findAllByOwner(ownerReturn.getId(), State.FUTURE.toString(), 1, 10, null);
 
         Mockito.verify(bookingRepository, Mockito.times(1))
-                .findAllByItemOwnerIdAndStartAfter(any(), any(), any());
+                .findAllByItemOwnerIdAndStartAfter(any(), any(), any(), any(), any());
         Mockito.verify(userRepository, Mockito.times(1))
                 .findById(ownerReturn.getId());
     }
 
     @Test
     void testFindWaitingByOwnerIfStateWaiting() {
-        bookingService.findAllByOwner(ownerReturn.getId(), State.WAITING.toString(), 1, 10);
+        bookingService.findAllByOwner(ownerReturn.getId(), State.WAITING.toString(), 1, 10, null);
 
         Mockito.verify(bookingRepository, Mockito.times(1))
-                .findAllByItemOwnerIdAndStatus(any(), any(), any());
+                .findAllByItemOwnerIdAndStatus(any(), any(), any(), any(), any());
         Mockito.verify(userRepository, Mockito.times(1))
                 .findById(ownerReturn.getId());
     }
 
     @Test
     void testFindRejectedByOwnerIfStateRejected() {
-        bookingService.findAllByOwner(ownerReturn.getId(), State.REJECTED.toString(), 1, 10);
+        bookingService.findAllByOwner(ownerReturn.getId(), State.REJECTED.toString(), 1, 10, null);
 
         Mockito.verify(bookingRepository, Mockito.times(1))
-                .findAllByItemOwnerIdAndStatus(any(), any(), any());
+                .findAllByItemOwnerIdAndStatus(any(), any(), any(), any(), any());
         Mockito.verify(userRepository, Mockito.times(1))
                 .findById(ownerReturn.getId());
     }
@@ -353,4 +392,76 @@ class BookingServiceImplTest {
 
         Assertions.assertEquals("Вещь не найдена", exception.getMessage());
     }
-}
\ No newline at end of file
+
+    @Test
+    void testAddIfItemAlreadyBooked() {
+        BookingDto bookingDto = BookingDto.builder()
+                .start(dateTime.plusDays(1))
+                .end(dateTime.plusDays(2))
+                .itemId(1L)
+                .build();
+        BookingDto overlapping = BookingDto.builder()
+                .start(dateTime.plusDays(1).plusHours(12))
+                .end(dateTime.plusDays(3))
+                .itemId(1L)
+                .build();
+        bookingService.add(userReturn.getId(), bookingDto);
+        when(bookingRepository.existsByItemIdAndStatusInAndStartBeforeAndEndAfter(any(), any(), any(), any()))
+                .thenReturn(true);
+
+        final ValidationException exception = Assertions.assertThrows(
+                ValidationException.class,
+                () -> bookingService.add(userReturn.getId(), overlapping));
+
+        Assertions.assertEquals("Вещь уже забронирована на эти даты", exception.getMessage());
+        Mockito.verify(bookingRepository, Mockito.times(1))
+                .save(any(Booking.class));
+    }
+
+    @Test
+    void testAddIfPreviousBookingRejected() {
+        BookingDto bookingDto = BookingDto.builder()
+                .start(bookingReturn.getStart())
+                .end(bookingReturn.getEnd())
+                .itemId(1L)
+                .build();
+        bookingService.add(userReturn.getId(), bookingDto);
+        bookingService.approve(bookingReturn.getId(), ownerReturn.getId(), false);
+
+        BookingResponseDto booking = bookingService.add(userReturn.getId(), bookingDto);
+
+        assertThat(booking.getId(), notNullValue());
+    }
+
+    @Test
+    void testAddIfBookedByAnotherInstance() {
+        BookingDto bookingDto = BookingDto.builder()
+                .start(dateTime.plusDays(1))
+                .end(dateTime.plusDays(2))
+                .itemId(1L)
+                .build();
+        when(bookingRepository.existsByItemIdAndStatusInAndStartBeforeAndEndAfter(any(), any(), any(), any()))
+                .thenReturn(true);
+
+        final ValidationException exception = Assertions.assertThrows(
+                ValidationException.class,
+                () -> bookingService.add(userReturn.getId(), bookingDto));
+
+        Assertions.assertEquals("Вещь уже забронирована на эти даты", exception.getMessage());
+    }
+
+    @Test
+    void testAddIfEndBeforeStart() {
+        BookingDto bookingDto = BookingDto.builder()
+                .start(dateTime.plusDays(2))
+                .end(dateTime.plusDays(1))
+                .itemId(1L)
+                .build();
+
+        final ValidationException exception = Assertions.assertThrows(
+                ValidationException.class,
+                () -> bookingService.add(userReturn.getId(), bookingDto));
+
+        Assertions.assertEquals("Дата окончания бронирования раньше начала бронирования", exception.getMessage());
+    }
+}
@@ -0,0 +1,114 @@
+package ru.practicum.shareitserver.common;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.search.Search;
+import lombok.RequiredArgsConstructor;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.metrics.AutoConfigureMetrics;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+import ru.practicum.shareitserver.booking.dto.BookingDto;
+import ru.practicum.shareitserver.booking.dto.BookingResponseDto;
+import ru.practicum.shareitserver.booking.service.BookingService;
+import ru.practicum.shareitserver.exception.NotFoundException;
+import ru.practicum.shareitserver.item.dto.ItemDto;
+import ru.practicum.shareitserver.item.model.Item;
+import ru.practicum.shareitserver.item.service.ItemService;
+import ru.practicum.shareitserver.user.dto.UserDto;
+import ru.practicum.shareitserver.user.model.User;
+import ru.practicum.shareitserver.user.service.UserService;
+
+import javax.persistence.EntityManagerFactory;
+import java.time.LocalDateTime;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+import static ru.practicum.shareitserver.common.SqlStatementMatchers.statements;
+
+@AutoConfigureMetrics
+@AutoConfigureMockMvc
+@SpringBootTest
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+class EntityCacheTest {
+
+    private static final String HEADER_ID = "X-Sharer-User-Id";
+
+    private final MockMvc mvc;
+    private final MeterRegistry meterRegistry;
+    private final EntityManagerFactory entityManagerFactory;
+    private final UserService userService;
+    private final ItemService itemService;
+    private final BookingService bookingService;
+
+    @Test
+    void testUserIsReadFromCache() throws Exception {
+        UserDto user = userService.add(new User(null, "Cached", "cached@email.com"));
+        double hits = gets(EntityCacheConfig.USERS, "hit");
+        double misses = gets(EntityCacheConfig.USERS, "miss");
+
+        mvc.perform(get("/users/" + user.getId())).andExpect(status().isOk()).andExpect(statements(0));
+
+        Assertions.assertTrue(gets(EntityCacheConfig.USERS, "hit") > hits);
+        Assertions.assertEquals(misses, gets(EntityCacheConfig.USERS, "miss"));
+    }
+
+    @Test
+    void testChangedAndDeletedEntitiesAreNotServedFromCache() {
+        UserDto owner = userService.add(new User(null, "Owner", "cache-owner@email.com"));
+        ItemDto item = itemService.add(owner.getId(), item("Item"));
+        itemService.getById(owner.getId(), item.getId());
+
+        userService.change(owner.getId(), new User(null, "Renamed", null));
+        itemService.change(owner.getId(), item.getId(), ItemDto.builder().name("Renamed item").build());
+
+        Assertions.assertEquals("Renamed", userService.getById(owner.getId()).getName());
+        Assertions.assertEquals("Renamed item", itemService.getById(owner.getId(), item.getId()).getName());
+
+        itemService.deleteById(owner.getId(), item.getId());
+
+        Assertions.assertThrows(NotFoundException.class, () -> itemService.getById(owner.getId(), item.getId()));
+    }
+
+    @Test
+    void testCascadedItemsAreEvictedWithTheirOwner() {
+        UserDto owner = userService.add(new User(null, "Owner", "cascade-owner@email.com"));
+        UserDto viewer = userService.add(new User(null, "Viewer", "cascade-viewer@email.com"));
+        ItemDto item = itemService.add(owner.getId(), item("Item"));
+        itemService.getById(viewer.getId(), item.getId());
+
+        userService.deleteById(owner.getId());
+
+        Assertions.assertThrows(NotFoundException.class, () -> itemService.getById(viewer.getId(), item.getId()));
+    }
+
+    @Test
+    void testBookingApprovalEvictsOnlyTheBookedItem() {
+        UserDto owner = userService.add(new User(null, "Owner", "approve-owner@email.com"));
+        UserDto booker = userService.add(new User(null, "Booker", "approve-booker@email.com"));
+        ItemDto booked = itemService.add(owner.getId(), item("Booked"));
+        ItemDto other = itemService.add(owner.getId(), item("Other"));
+        String eTag = itemService.getETag(owner.getId(), booked.getId());
+        BookingResponseDto booking = bookingService.add(booker.getId(), BookingDto.builder()
+                .itemId(booked.getId())
+                .start(LocalDateTime.now().plusDays(1))
+                .end(LocalDateTime.now().plusDays(2))
+                .build());
+
+        bookingService.approve(booking.getId(), owner.getId(), true);
+
+        Assertions.assertTrue(entityManagerFactory.getCache().contains(Item.class, other.getId()));
+        Assertions.assertNotEquals(eTag, itemService.getETag(owner.getId(), booked.getId()));
+    }
+
+    private static ItemDto item(String name) {
+        return ItemDto.builder().name(name).description("Description").available(true).build();
+    }
+
+    private double gets(String cache, String result) {
+        return Search.in(meterRegistry).name("cache.gets").tags("cache", cache, "result", result)
+                .functionCounter().count();
+    }
+}
@@ -0,0 +1,65 @@
+package ru.practicum.shareitserver.common;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.search.Search;
+import lombok.RequiredArgsConstructor;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.metrics.AutoConfigureMetrics;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+import ru.practicum.shareitserver.exception.NotFoundException;
+import ru.practicum.shareitserver.user.model.User;
+import ru.practicum.shareitserver.user.service.UserService;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@AutoConfigureMetrics
+@AutoConfigureMockMvc
+@SpringBootTest
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+class ServiceMetricsTest {
+
+    private final UserService userService;
+    private final MeterRegistry meterRegistry;
+    private final MockMvc mvc;
+
+    @Test
+    void testServiceCallsAreTimedWithTheirOutcome() {
+        long added = count(Search.in(meterRegistry).name(ServiceMetrics.METRIC)
+                .tags("service", "UserService", "method", "add", "exception", "none"));
+        long notFound = count(Search.in(meterRegistry).name(ServiceMetrics.METRIC)
+                .tags("service", "UserService", "method", "getById", "exception", "NotFoundException"));
+
+        userService.add(new User(null, "Metrics", "metrics@email.com"));
+        Assertions.assertThrows(NotFoundException.class, () -> userService.getById(999L));
+
+        Assertions.assertEquals(added + 1, count(Search.in(meterRegistry).name(ServiceMetrics.METRIC)
+                .tags("service", "UserService", "method", "add", "exception", "none")));
+        Assertions.assertEquals(notFound + 1, count(Search.in(meterRegistry).name(ServiceMetrics.METRIC)
+                .tags("service", "UserService", "method", "getById", "exception", "NotFoundException")));
+        Assertions.assertTrue(count(Search.in(meterRegistry).name("spring.data.repository.invocations")
+                .tags("repository", "UserRepository", "method", "findById")) > 0);
+    }
+
+    @Test
+    void testPrometheusEndpointPublishesHistograms() throws Exception {
+        userService.getAll();
+
+        mvc.perform(get("/actuator/prometheus"))
+                .andExpect(status().isOk())
+                .andExpect(content().string(containsString(
+                        "shareit_service_seconds_bucket{application=\"shareit-server\",exception=\"none\",method=\"getAll\",service=\"UserService\"")))
+                .andExpect(content().string(containsString(
+                        "spring_data_repository_invocations_seconds_bucket{application=\"shareit-server\",exception=\"None\",method=\"findAll\",repository=\"UserRepository\"")));
+    }
+
+    private static long count(Search search) {
+        return search.timer() == null ? 0 : search.timer().count();
+    }
+}
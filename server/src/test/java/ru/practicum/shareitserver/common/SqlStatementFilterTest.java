@@ -0,0 +1,80 @@
+package ru.practicum.shareitserver.common;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.servlet.HandlerMapping;
+
+import javax.servlet.FilterChain;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class SqlStatementFilterTest {
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final SqlStatements.Inspector inspector = new SqlStatements.Inspector();
+
+    @Test
+    void testShapeIgnoresLiteralsAndListSizes() {
+        assertEquals("select * from items i where i.id in (?) and i.name = ? and i0_.owner_id=?",
+                SqlStatements.shape("select *\n  from items i where i.id in (?, ?,?) and i.name = 'It''s' "
+                        + "and i0_.owner_id=42"));
+        assertEquals(SqlStatements.shape("select * from bookings where item_id in (?)"),
+                SqlStatements.shape("select * from bookings where item_id in (?, ?)"));
+    }
+
+    @Test
+    void testRepeatedStatementsAreCountedPerRoute() throws Exception {
+        MockHttpServletRequest request = perform(chain(
+                "select * from users where id=?",
+                "select * from comments where item_id=?",
+                "select * from comments where item_id=?",
+                "select * from comments where item_id=?"));
+
+        SqlStatements statements = (SqlStatements) request.getAttribute(SqlStatements.ATTRIBUTE);
+        assertEquals(4, statements.getTotal());
+        assertEquals(3, statements.getMaxRepeats());
+        assertEquals(4, meterRegistry.get(SqlStatementFilter.STATEMENTS_METRIC)
+                .tags("method", "GET", "uri", "/items").summary().totalAmount());
+        assertEquals(1, meterRegistry.get(SqlStatementFilter.REPEATED_METRIC)
+                .tags("method", "GET", "uri", "/items").counter().count());
+    }
+
+    @Test
+    void testStatementsUnderThresholdAreNotReported() throws Exception {
+        perform(chain("select * from users where id=?", "select * from users where id=?"));
+
+        assertEquals(1, meterRegistry.get(SqlStatementFilter.STATEMENTS_METRIC).summary().count());
+        assertNull(meterRegistry.find(SqlStatementFilter.REPEATED_METRIC).counter());
+    }
+
+    @Test
+    void testStatementsOutsideRequestAreNotCounted() throws Exception {
+        perform(chain());
+        inspector.inspect("select * from users");
+
+        assertEquals(0, meterRegistry.get(SqlStatementFilter.STATEMENTS_METRIC).summary().totalAmount());
+    }
+
+    private FilterChain chain(String... sql) {
+        return (request, response) -> {
+            request.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, "/items");
+            for (String statement : sql) {
+                inspector.inspect(statement);
+            }
+        };
+    }
+
+    private MockHttpServletRequest perform(FilterChain chain) throws Exception {
+        StaticListableBeanFactory beanFactory = new StaticListableBeanFactory();
+        beanFactory.addBean("meterRegistry", meterRegistry);
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/items");
+        new SqlStatementFilter(beanFactory.getBeanProvider(MeterRegistry.class), 3)
+                .doFilter(request, new MockHttpServletResponse(), chain);
+        return request;
+    }
+}
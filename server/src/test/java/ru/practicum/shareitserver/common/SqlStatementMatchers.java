@@ -0,0 +1,41 @@
+package ru.practicum.shareitserver.common;
+
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.ResultMatcher;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Statement budgets for MockMvc tests, checked against what {@link SqlStatementFilter} counted for the request.
+ */
+public final class SqlStatementMatchers {
+
+    private SqlStatementMatchers() {
+    }
+
+    public static ResultMatcher statements(int expected) {
+        return result -> assertEquals(expected, statementsOf(result).getTotal(),
+                () -> "Запросы к базе: " + statementsOf(result).getShapes());
+    }
+
+    public static ResultMatcher statementsAtMost(int budget) {
+        return result -> assertTrue(statementsOf(result).getTotal() <= budget,
+                () -> "Запросов к базе больше " + budget + ": " + statementsOf(result).getShapes());
+    }
+
+    /**
+     * Fails when any statement shape ran more than {@code repeats} times.
+     */
+    public static ResultMatcher repeatsAtMost(int repeats) {
+        return result -> assertTrue(statementsOf(result).getMaxRepeats() <= repeats,
+                () -> "Запрос к базе повторяется больше " + repeats + " раз: " + statementsOf(result).getShapes());
+    }
+
+    private static SqlStatements statementsOf(MvcResult result) {
+        SqlStatements statements = (SqlStatements) result.getRequest().getAttribute(SqlStatements.ATTRIBUTE);
+        assertNotNull(statements, "Запросы к базе не подсчитаны");
+        return statements;
+    }
+}
@@ -5,20 +5,29 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import ru.practicum.shareitserver.common.BatchResultDto;
 import ru.practicum.shareitserver.item.dto.CommentDto;
+import ru.practicum.shareitserver.item.dto.ItemAvailabilityDto;
 import ru.practicum.shareitserver.item.dto.ItemDto;
 import ru.practicum.shareitserver.item.service.ItemService;
 
 import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.function.Predicate;
 
 import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.is;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @WebMvcTest(controllers = ItemController.class)
@@ -86,6 +95,22 @@ class ItemControllerTest {
                 .andExpect(status().is(400));
     }
 
+    @Test
+    void testAddAll() throws Exception {
+        when(itemService.addAll(anyLong(), any()))
+                .thenReturn(new BatchResultDto<>(List.of(itemDto), List.of()));
+
+        mvc.perform(post("/items/batch")
+                        .header(HEADER_ID, USER_ID)
+                        .content(mapper.writeValueAsString(List.of(itemDto)))
+                        .characterEncoding(StandardCharsets.UTF_8)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.created[0].name", is(itemDto.getName())))
+                .andExpect(jsonPath("$.errors", hasSize(0)));
+    }
+
     @Test
     void testChange() throws Exception {
         when(itemService.change(anyLong(), any(),  any()))
@@ -129,7 +154,7 @@ class ItemControllerTest {
 
     @Test
     void testGetById() throws Exception {
-        when(itemService.getById(anyLong(), any()))
+        when(itemService.getById(anyLong(), anyLong(), any()))
                 .thenReturn(itemDto);
 
         mvc.perform(get("/items/1")
@@ -140,6 +165,35 @@ class ItemControllerTest {
                 .andExpect(status().isOk());
     }
 
+    @Test
+    void testGetAvailability() throws Exception {
+        LocalDateTime from = LocalDateTime.of(2030, 1, 1, 10, 0);
+        when(itemService.getAvailability(1L, from, from.plusDays(2)))
+                .thenReturn(new ItemAvailabilityDto(1L, from, from.plusDays(2),
+                        List.of(new ItemAvailabilityDto.Interval(from.plusDays(1), from.plusDays(2))),
+                        List.of(new ItemAvailabilityDto.Interval(from, from.plusDays(1)))));
+
+        mvc.perform(get("/items/1/availability")
+                        .param("from", "2030-01-01T10:00:00")
+                        .param("to", "2030-01-03T10:00:00"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.busy", hasSize(1)))
+                .andExpect(jsonPath("$.busy[0].start", is("2030-01-01T10:00:00")))
+                .andExpect(jsonPath("$.free[0].end", is("2030-01-03T10:00:00")));
+    }
+
+    @Test
+    void testGetByIdNotModified() throws Exception {
+        when(itemService.getById(anyLong(), anyLong(), any()))
+                .thenAnswer(invocation -> invocation.<Predicate<String>>getArgument(2).test("W/\"3-0\"") ? null : itemDto);
+
+        mvc.perform(get("/items/1")
+                        .header(HEADER_ID, USER_ID)
+                        .header(HttpHeaders.IF_NONE_MATCH, "W/\"3-0\""))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, "W/\"3-0\""));
+    }
+
     @Test
     void testGetByIdWithoutUserId() throws Exception {
         when(itemService.getById(anyLong(), any()))
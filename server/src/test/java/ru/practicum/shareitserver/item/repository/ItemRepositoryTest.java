@@ -14,6 +14,7 @@ import ru.practicum.shareitserver.user.repository.UserRepository;
 
 import java.time.LocalDateTime;
 import java.util.Collection;
+import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -69,17 +70,32 @@ class ItemRepositoryTest {
     }
 
     @Test
-    void testFindAllByNameOrDescriptionContainingIgnoreCase() {
-        Collection<Item> items = itemRepository.findAllByNameOrDescriptionContainingIgnoreCase("for you", "for you", PageRequest.of(0, 10));
+    void testSearchAvailable() {
+        Collection<Item> items = itemRepository.searchAvailable("%FOR yoU%", PageRequest.of(0, 10));
         checkAsserts(items);
     }
 
+    @Test
+    void testSearchAvailableIfItemUnavailable() {
+        item.setAvailable(false);
+        itemRepository.save(item);
+
+        Collection<Item> items = itemRepository.searchAvailable("%for you%", PageRequest.of(0, 10));
+        assertTrue(items.isEmpty());
+    }
+
     @Test
     void testFindAllByRequestId() {
         Collection<Item> items = itemRepository.findAllByRequestId(itemRequest.getId());
         checkAsserts(items);
     }
 
+    @Test
+    void testFindAllByRequestIdIn() {
+        Collection<Item> items = itemRepository.findAllByRequestIdIn(List.of(itemRequest.getId(), 404L));
+        checkAsserts(items);
+    }
+
     private void checkAsserts(Collection<Item> items) {
         assertNotNull(items);
         assertFalse(items.isEmpty());
@@ -0,0 +1,141 @@
+package ru.practicum.shareitserver.item.search;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import ru.practicum.shareitserver.item.model.Item;
+import ru.practicum.shareitserver.item.repository.ItemRepository;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.when;
+
+class ItemSearchIndexTest {
+
+    private final ItemRepository itemRepository = Mockito.mock(ItemRepository.class);
+    private final ItemSearchIndex index = new ItemSearchIndex(itemRepository, Runnable::run, Duration.ZERO);
+    private final List<Runnable> builds = new ArrayList<>();
+
+    private final Item drill = item(1L, "Дрель", "Простая дрель", true);
+    private final Item batteryDrill = item(2L, "Аккумуляторная дрель", "Аккумуляторная дрель + аккумулятор", true);
+    private final Item screwdriver = item(3L, "Отвёртка", "Аккумуляторная отвёртка", true);
+    private final Item hiddenDrill = item(4L, "Drill", "Дрель, которую не дают", false);
+
+    @BeforeEach
+    void setUp() {
+        when(itemRepository.findAll())
+                .thenReturn(List.of(drill, batteryDrill, screwdriver, hiddenDrill));
+    }
+
+    @Test
+    void testTokenize() {
+        assertEquals(List.of("аккумуляторная", "дрель", "2000", "w"), ItemTokenizer.tokenize("АккУМУлятОРНАЯ дРелЬ, 2000-W"));
+        assertEquals(List.of("отвертка"), ItemTokenizer.tokenize("ОТВЁРТКА"));
+        assertTrue(ItemTokenizer.tokenize("  ").isEmpty());
+    }
+
+    @Test
+    void testSearchRanksAndFiltersUnavailable() {
+        assertEquals(List.of(1L, 2L), search(index, "дРелЬ", 0, 10));
+        assertEquals(List.of(2L, 3L), search(index, "аккУМУлятОРНАЯ", 0, 10));
+        assertEquals(List.of(3L), search(index, "отвертка", 0, 10));
+        assertEquals(List.of(2L), search(index, "аккум дрель", 0, 10));
+        assertTrue(search(index, "drill", 0, 10).isEmpty());
+    }
+
+    @Test
+    void testSearchPagination() {
+        assertEquals(List.of(1L), search(index, "дрель", 0, 1));
+        assertEquals(List.of(2L), search(index, "дрель", 1, 1));
+        assertTrue(search(index, "дрель", 2, 1).isEmpty());
+    }
+
+    @Test
+    void testIncrementalUpdates() {
+        search(index, "дрель", 0, 10);
+
+        index.index(item(5L, "Перфоратор", "Мощная дрель", true));
+        index.index(item(1L, "Молоток", "Обычный", true));
+        index.remove(2L);
+
+        assertEquals(List.of(5L), search(index, "дрель", 0, 10));
+        assertEquals(List.of(1L), search(index, "молот", 0, 10));
+        Mockito.verify(itemRepository, Mockito.times(1))
+                .findAll();
+    }
+
+    @Test
+    void testRebuildsAfterTtl() {
+        ItemSearchIndex expiring = new ItemSearchIndex(itemRepository, Runnable::run, Duration.ofNanos(1));
+        assertEquals(List.of(1L, 2L), search(expiring, "дрель", 0, 10));
+
+        when(itemRepository.findAll())
+                .thenReturn(List.of(drill));
+
+        assertEquals(List.of(1L), search(expiring, "дрель", 0, 10));
+        Mockito.verify(itemRepository, Mockito.times(2))
+                .findAll();
+    }
+
+    @Test
+    void testInvalidateRebuildsOnNextSearch() {
+        search(index, "дрель", 0, 10);
+        when(itemRepository.findAll())
+                .thenReturn(List.of(screwdriver));
+
+        index.invalidate();
+
+        assertTrue(search(index, "дрель", 0, 10).isEmpty());
+        assertEquals(List.of(3L), search(index, "отвертка", 0, 10));
+        Mockito.verify(itemRepository, Mockito.times(2))
+                .findAll();
+    }
+
+    @Test
+    void testAnswersNothingUntilBuiltAndKeepsChangesMadeMeanwhile() {
+        ItemSearchIndex deferred = new ItemSearchIndex(itemRepository, builds::add, Duration.ZERO);
+
+        assertEquals(Optional.empty(), deferred.search("дрель", 0, 10));
+        deferred.index(item(5L, "Перфоратор", "Мощная дрель", true));
+        deferred.remove(2L);
+        assertEquals(Optional.empty(), deferred.search("дрель", 0, 10));
+        assertEquals(1, builds.size());
+
+        builds.remove(0).run();
+
+        assertEquals(List.of(1L, 5L), search(deferred, "дрель", 0, 10));
+    }
+
+    @Test
+    void testBuildInvalidatedMeanwhileIsStartedOver() {
+        ItemSearchIndex deferred = new ItemSearchIndex(itemRepository, builds::add, Duration.ZERO);
+        deferred.search("дрель", 0, 10);
+        deferred.invalidate();
+        when(itemRepository.findAll())
+                .thenReturn(List.of(screwdriver));
+
+        builds.remove(0).run();
+        assertEquals(Optional.empty(), deferred.search("дрель", 0, 10));
+        builds.remove(0).run();
+
+        assertTrue(search(deferred, "дрель", 0, 10).isEmpty());
+        assertEquals(List.of(3L), search(deferred, "отвертка", 0, 10));
+    }
+
+    private static List<Long> search(ItemSearchIndex index, String text, int from, int size) {
+        return index.search(text, from, size).orElseThrow();
+    }
+
+    private static Item item(Long id, String name, String description, boolean available) {
+        return Item.builder()
+                .id(id)
+                .name(name)
+                .description(description)
+                .available(available)
+                .build();
+    }
+}
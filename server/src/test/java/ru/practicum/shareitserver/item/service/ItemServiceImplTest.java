@@ -1,6 +1,7 @@
 package ru.practicum.shareitserver.item.service;
 
 import lombok.RequiredArgsConstructor;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -11,18 +12,28 @@ import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.core.task.TaskExecutor;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.test.util.AopTestUtils;
+import org.springframework.test.util.ReflectionTestUtils;
+import ru.practicum.shareitserver.booking.dto.BookingPeriod;
 import ru.practicum.shareitserver.booking.model.Booking;
 import ru.practicum.shareitserver.booking.model.Status;
 import ru.practicum.shareitserver.booking.repository.BookingRepository;
+import ru.practicum.shareitserver.common.BatchResultDto;
+import ru.practicum.shareitserver.common.ETags;
 import ru.practicum.shareitserver.exception.ForbiddenException;
 import ru.practicum.shareitserver.exception.NotFoundException;
+import ru.practicum.shareitserver.exception.ValidationException;
 import ru.practicum.shareitserver.item.dto.CommentDto;
+import ru.practicum.shareitserver.item.dto.ItemAvailabilityDto;
 import ru.practicum.shareitserver.item.dto.ItemDto;
 import ru.practicum.shareitserver.item.model.Comment;
 import ru.practicum.shareitserver.item.model.Item;
 import ru.practicum.shareitserver.item.repository.CommentRepository;
 import ru.practicum.shareitserver.item.repository.ItemRepository;
+import ru.practicum.shareitserver.item.search.ItemSearchIndex;
+import ru.practicum.shareitserver.item.search.ItemSearchMode;
 import ru.practicum.shareitserver.request.model.ItemRequest;
 import ru.practicum.shareitserver.request.repository.ItemRequestRepository;
 import ru.practicum.shareitserver.user.model.User;
@@ -31,13 +42,16 @@ import ru.practicum.shareitserver.user.repository.UserRepository;
 import javax.transaction.Transactional;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.when;
 
 @Transactional
@@ -58,6 +72,7 @@ class ItemServiceImplTest {
     private final ItemRequestRepository itemRequestRepository;
     @InjectMocks
     private final ItemService itemService;
+    private final ItemSearchIndex itemSearchIndex;
 
     private final User userRequestor = new User(1L, "name", "email@email.com");
     private final User userOwner = new User(2L, "name", "email@email.com");
@@ -91,6 +106,11 @@ class ItemServiceImplTest {
             .available(true)
             .build();
 
+    @AfterEach
+    void tearDown() {
+        itemSearchIndex.invalidate();
+    }
+
     @BeforeEach
     void setUp() {
         when(userRepository.findById(userRequestor.getId()))
@@ -103,12 +123,18 @@ class ItemServiceImplTest {
                 .thenReturn(Optional.ofNullable(itemReturn));
         when(itemRepository.findAllByOwnerId(userOwner.getId(), PageRequest.of(0, 10)))
                 .thenReturn(List.of(itemReturn));
-        when(itemRepository.findAllByNameOrDescriptionContainingIgnoreCase(Mockito.anyString(), Mockito.anyString(), Mockito.any()))
+        when(itemRepository.findAll())
+                .thenReturn(List.of(itemReturn));
+        when(itemRepository.findAllById(List.of(itemReturn.getId())))
                 .thenReturn(List.of(itemReturn));
         when(itemRepository.save(any(Item.class)))
                 .thenReturn(itemReturn);
         when(bookingRepository.findFirstByItemIdAndStatusAndStartBeforeOrderByStartDesc(any(), any(), any()))
                 .thenReturn(bookingReturn);
+        when(bookingRepository.findAllNextByItemIdIn(any(), any(), any()))
+                .thenReturn(List.of(bookingReturn));
+        when(commentRepository.findAllByItemIdIn(any()))
+                .thenReturn(List.of(Comment.builder().id(1L).text("норм").item(itemReturn).author(userRequestor).build()));
         when(bookingRepository.findAllByBookerIdAndItemIdAndStatusEqualsAndEndIsBefore(Mockito.anyLong(), Mockito.anyLong(), any(Status.class), any(LocalDateTime.class)))
                 .thenReturn(List.of(bookingReturn));
         when(commentRepository.save(any(Comment.class)))
@@ -130,6 +156,28 @@ class ItemServiceImplTest {
                 .save(itemReturn);
     }
 
+    @Test
+    void testAddAllReportsRowErrors() {
+        when(itemRequestRepository.findAllById(any()))
+                .thenReturn(List.of(itemRequest));
+        when(itemRepository.saveAll(any()))
+                .thenAnswer(invocation -> invocation.getArgument(0));
+        List<ItemDto> batch = List.of(
+                itemDto,
+                itemDto.toBuilder().requestId(404L).build(),
+                itemDto.toBuilder().name(" ").build(),
+                itemDto.toBuilder().requestId(null).build());
+
+        BatchResultDto<ItemDto> result = itemService.addAll(userOwner.getId(), batch);
+
+        assertThat(result.getCreated(), hasSize(2));
+        assertThat(result.getErrors(), contains(
+                allOf(hasProperty("index", equalTo(1)), hasProperty("message", equalTo("Запрос 404 не найден"))),
+                allOf(hasProperty("index", equalTo(2)), hasProperty("message", startsWith("name:")))));
+        Mockito.verify(itemRepository, Mockito.times(1)).saveAll(any());
+        Mockito.verify(itemRepository, Mockito.never()).save(any());
+    }
+
     @Test
     void testChange() {
         ItemDto itemDtoForChange = ItemDto.builder()
@@ -154,6 +202,19 @@ class ItemServiceImplTest {
                 .save(itemReturn);
     }
 
+    @Test
+    void testChangeTouchesRequestWithoutRequestId() {
+        ItemDto itemDtoForChange = ItemDto.builder()
+                .name("Cu Cuckoo")
+                .build();
+        itemService.change(userOwner.getId(), itemReturn.getId(), itemDtoForChange);
+
+        Mockito.verify(itemRequestRepository, Mockito.never())
+                .findById(any());
+        Mockito.verify(itemRequestRepository, Mockito.times(1))
+                .incrementVersions(Set.of(itemRequest.getId()));
+    }
+
     @Test
     void testGetById() {
         ItemDto itemDtoResponse = itemService.getById(userOwner.getId(), itemReturn.getId());
@@ -167,6 +228,62 @@ class ItemServiceImplTest {
                 .findAllByItemId(itemDtoResponse.getId());
     }
 
+    @Test
+    void testGetByIdIfNotModified() {
+        ItemDto itemDtoResponse = itemService.getById(userOwner.getId(), itemReturn.getId(),
+                eTag -> eTag.equals(ETags.of(itemReturn.getVersion(), 0)));
+
+        assertThat(itemDtoResponse, nullValue());
+        Mockito.verify(bookingRepository, Mockito.times(1))
+                .findFirstByItemIdAndStatusAndStartAfterOrderByStartAsc(any(), any(), any());
+        Mockito.verify(bookingRepository, Mockito.never())
+                .findFirstByItemIdAndStatusAndStartBeforeOrderByStartDesc(any(), any(), any());
+        Mockito.verify(commentRepository, Mockito.never())
+                .findAllByItemId(any());
+    }
+
+    @Test
+    void testGetAvailability() {
+        LocalDateTime from = LocalDateTime.now().plusDays(1).withNano(0);
+        BookingPeriod period = new BookingPeriod() {
+            @Override
+            public LocalDateTime getStart() {
+                return from.plusDays(1);
+            }
+
+            @Override
+            public LocalDateTime getEnd() {
+                return from.plusDays(2);
+            }
+        };
+        when(itemRepository.findById(99L))
+                .thenReturn(Optional.of(itemReturn));
+        when(bookingRepository.findAllByItemIdAndStatusInAndEndAfter(eq(99L), any(), any()))
+                .thenReturn(List.of(period));
+
+        ItemAvailabilityDto availability = itemService.getAvailability(99L, from, from.plusDays(3));
+
+        assertThat(availability.getBusy(), contains(new ItemAvailabilityDto.Interval(from.plusDays(1), from.plusDays(2))));
+        assertThat(availability.getFree(), contains(new ItemAvailabilityDto.Interval(from, from.plusDays(1)),
+                new ItemAvailabilityDto.Interval(from.plusDays(2), from.plusDays(3))));
+    }
+
+    @Test
+    void testGetAvailabilityIfPeriodIncorrect() {
+        LocalDateTime from = LocalDateTime.now().plusDays(1);
+
+        final ValidationException exception = Assertions.assertThrows(
+                ValidationException.class,
+                () -> itemService.getAvailability(itemReturn.getId(), from, from.minusHours(1)));
+
+        Assertions.assertEquals("Дата окончания периода раньше начала периода", exception.getMessage());
+    }
+
+    @Test
+    void testGetAvailabilityIfItemNotFound() {
+        Assertions.assertThrows(NotFoundException.class, () -> itemService.getAvailability(100L, null, null));
+    }
+
     @Test
     void testGetAll() {
         Collection<ItemDto> itemDtoResponses = itemService.getAll(userOwner.getId(), 1, 10);
@@ -176,21 +293,94 @@ class ItemServiceImplTest {
                 .findById(userOwner.getId());
         Mockito.verify(itemRepository, Mockito.times(1))
                 .findAllByOwnerId(userOwner.getId(), PageRequest.of(0, 10));
-        Mockito.verify(bookingRepository, Mockito.times(itemDtoResponses.size()))
+        Mockito.verify(bookingRepository, Mockito.times(1))
+                .findAllLastByItemIdIn(eq(List.of(itemReturn.getId())), eq(Status.APPROVED), any());
+        Mockito.verify(bookingRepository, Mockito.times(1))
+                .findAllNextByItemIdIn(eq(List.of(itemReturn.getId())), eq(Status.APPROVED), any());
+        Mockito.verify(commentRepository, Mockito.times(1))
+                .findAllByItemIdIn(List.of(itemReturn.getId()));
+        Mockito.verify(bookingRepository, Mockito.never())
                 .findFirstByItemIdAndStatusAndStartBeforeOrderByStartDesc(any(), any(), any());
-        Mockito.verify(commentRepository, Mockito.times(itemDtoResponses.size()))
-                .findAllByItemId(itemReturn.getId());
+        Mockito.verify(commentRepository, Mockito.never())
+                .findAllByItemId(any());
+        ItemDto itemDtoResponse = itemDtoResponses.iterator().next();
+        assertThat(itemDtoResponse.getLastBooking(), nullValue());
+        assertThat(itemDtoResponse.getNextBooking().getId(), equalTo(bookingReturn.getId()));
+        assertThat(itemDtoResponse.getComments(), hasSize(1));
+    }
+
+    @Test
+    void testGetAllIfNoItems() {
+        Collection<ItemDto> itemDtoResponses = itemService.getAll(userRequestor.getId(), 0, 10);
+
+        assertThat(itemDtoResponses, is(empty()));
+        Mockito.verify(bookingRepository, Mockito.never())
+                .findAllLastByItemIdIn(any(), any(), any());
+        Mockito.verify(commentRepository, Mockito.never())
+                .findAllByItemIdIn(any());
     }
 
     @Test
     void testGetSearch() {
-        String text = "Cuckoo";
-        Collection<ItemDto> itemDtoResponses = itemService.getSearch(text, 1, 10);
+        when(itemRepository.searchAvailable("%100\\%\\_off%", PageRequest.of(0, 10)))
+                .thenReturn(List.of(itemReturn));
 
-        assertThat(itemDtoResponses, is(not(empty())));
-        Mockito.verify(itemRepository, Mockito.times(itemDtoResponses.size()))
-                .findAllByNameOrDescriptionContainingIgnoreCase(text, text, PageRequest.of(0, 10));
+        Collection<ItemDto> itemDtoResponses = itemService.getSearch("100%_off", 1, 10);
+
+        assertThat(itemDtoResponses, hasSize(1));
+        Mockito.verify(itemRepository, Mockito.never())
+                .findAll();
+    }
+
+    @Test
+    void testGetSearchInIndexMode() {
+        Object target = AopTestUtils.getTargetObject(itemService);
+        Object executor = ReflectionTestUtils.getField(itemSearchIndex, "executor");
+        ReflectionTestUtils.setField(target, "searchMode", ItemSearchMode.INDEX);
+        ReflectionTestUtils.setField(itemSearchIndex, "executor", (TaskExecutor) Runnable::run);
+        try {
+            Collection<ItemDto> itemDtoResponses = itemService.getSearch("Cuckoo", 1, 10);
+
+            assertThat(itemDtoResponses, is(not(empty())));
+            Mockito.verify(itemRepository, Mockito.times(1))
+                    .findAll();
+            Mockito.verify(itemRepository, Mockito.times(1))
+                    .findAllById(List.of(itemReturn.getId()));
+        } finally {
+            ReflectionTestUtils.setField(target, "searchMode", ItemSearchMode.SQL);
+            ReflectionTestUtils.setField(itemSearchIndex, "executor", executor);
+        }
+    }
+
+    @Test
+    void testGetSearchInIndexModeFallsBackToSqlUntilBuilt() {
+        Object target = AopTestUtils.getTargetObject(itemService);
+        Object executor = ReflectionTestUtils.getField(itemSearchIndex, "executor");
+        ReflectionTestUtils.setField(target, "searchMode", ItemSearchMode.INDEX);
+        List<Runnable> builds = new ArrayList<>();
+        ReflectionTestUtils.setField(itemSearchIndex, "executor", (TaskExecutor) builds::add);
+        when(itemRepository.searchAvailable("%Cuckoo%", PageRequest.of(0, 10)))
+                .thenReturn(List.of(itemReturn));
+        try {
+            Collection<ItemDto> itemDtoResponses = itemService.getSearch("Cuckoo", 1, 10);
+
+            assertThat(itemDtoResponses, hasSize(1));
+            Mockito.verify(itemRepository, Mockito.never())
+                    .findAll();
+        } finally {
+            ReflectionTestUtils.setField(target, "searchMode", ItemSearchMode.SQL);
+            ReflectionTestUtils.setField(itemSearchIndex, "executor", executor);
+            builds.forEach(Runnable::run);
+        }
+    }
+
+    @Test
+    void testGetSearchIfTextBlank() {
+        Collection<ItemDto> itemDtoResponses = itemService.getSearch("", 0, 10);
 
+        assertThat(itemDtoResponses, is(empty()));
+        Mockito.verify(itemRepository, Mockito.never())
+                .findAll();
     }
 
     @Test
@@ -151,7 +151,7 @@ class ItemRequestControllerTest {
 
     @Test
     void testGetById() throws Exception {
-        when(itemRequestService.getById(anyLong(), anyLong()))
+        when(itemRequestService.getById(anyLong(), anyLong(), any()))
                 .thenReturn(itemRequestDto);
 
         mvc.perform(get("/requests/1")
@@ -164,7 +164,7 @@ class ItemRequestControllerTest {
 
     @Test
     void testGetByIdWithoutUserId() throws Exception {
-        when(itemRequestService.getById(anyLong(), anyLong()))
+        when(itemRequestService.getById(anyLong(), anyLong(), any()))
                 .thenReturn(itemRequestDto);
 
         mvc.perform(get("/requests/1")
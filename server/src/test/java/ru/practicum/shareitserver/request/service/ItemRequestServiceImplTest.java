@@ -82,6 +82,8 @@ class ItemRequestServiceImplTest {
                 .thenReturn(Optional.ofNullable(itemRequest));
         when(itemRepository.findAllByRequestId(itemRequest.getId()))
                 .thenReturn(List.of(itemReturn));
+        when(itemRepository.findAllByRequestIdIn(List.of(itemRequest.getId())))
+                .thenReturn(List.of(itemReturn));
     }
 
     @Test
@@ -103,6 +105,9 @@ class ItemRequestServiceImplTest {
                 .findById(userOwner.getId());
         Mockito.verify(itemRequestRepository, Mockito.times(1))
                 .findAllByRequestorIdOrderByCreatedAsc(userOwner.getId());
+        Mockito.verify(itemRepository, Mockito.times(1))
+                .findAllByRequestIdIn(List.of(itemRequest.getId()));
+        assertThat(itemRequestDtos.iterator().next().getItems(), hasSize(1));
     }
 
     @Test
@@ -115,7 +120,9 @@ class ItemRequestServiceImplTest {
         Mockito.verify(itemRequestRepository, Mockito.times(1))
                 .findAllByRequestorIsNot(userOwner, PageRequest.of(0, 10, Sort.by(Sort.Direction.ASC, "created")));
         Mockito.verify(itemRepository, Mockito.times(1))
-                .findAllByRequestId(itemRequest.getId());
+                .findAllByRequestIdIn(List.of(itemRequest.getId()));
+        Mockito.verify(itemRepository, Mockito.never())
+                .findAllByRequestId(Mockito.anyLong());
     }
 
     @Test
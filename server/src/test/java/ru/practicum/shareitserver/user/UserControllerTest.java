@@ -7,6 +7,7 @@ import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import ru.practicum.shareitserver.common.BatchResultDto;
 import ru.practicum.shareitserver.user.dto.UserDto;
 import ru.practicum.shareitserver.user.model.User;
 import ru.practicum.shareitserver.user.service.UserService;
@@ -54,7 +55,7 @@ class UserControllerTest {
 
     @Test
     void testGetById() throws Exception {
-        when(userServiceImpl.getById(anyLong()))
+        when(userServiceImpl.getById(anyLong(), any()))
                 .thenReturn(userDto);
 
         mvc.perform(get("/users/1")
@@ -80,6 +81,21 @@ class UserControllerTest {
                 .andExpect(status().isOk());
     }
 
+    @Test
+    void testAddAll() throws Exception {
+        when(userServiceImpl.addAll(any()))
+                .thenReturn(new BatchResultDto<>(List.of(userDto), List.of(new BatchResultDto.RowError(1, "email: must not be blank"))));
+
+        mvc.perform(post("/users/batch")
+                        .content(mapper.writeValueAsString(List.of(user, new User())))
+                        .characterEncoding(StandardCharsets.UTF_8)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.created[0].id", is(userDto.getId()), Long.class))
+                .andExpect(jsonPath("$.errors[0].index", is(1)));
+    }
+
     @Test
     void testAddWithoutBody() throws Exception {
         when(userServiceImpl.add(any()))
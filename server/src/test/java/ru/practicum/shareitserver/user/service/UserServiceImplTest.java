@@ -11,17 +11,24 @@ import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import ru.practicum.shareitserver.booking.service.BookingIntervalIndex;
+import ru.practicum.shareitserver.common.BatchResultDto;
 import ru.practicum.shareitserver.exception.NotFoundException;
+import ru.practicum.shareitserver.exception.ValidationException;
+import ru.practicum.shareitserver.item.search.ItemSearchIndex;
 import ru.practicum.shareitserver.user.dto.UserDto;
 import ru.practicum.shareitserver.user.model.User;
 import ru.practicum.shareitserver.user.repository.UserRepository;
 
 import javax.transaction.Transactional;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
 
 import static org.hamcrest.Matchers.*;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.when;
 import static org.hamcrest.MatcherAssert.assertThat;
 
@@ -33,6 +40,10 @@ class UserServiceImplTest {
 
     @MockBean
     private final UserRepository userRepository;
+    @MockBean
+    private final ItemSearchIndex itemSearchIndex;
+    @MockBean
+    private final BookingIntervalIndex bookingIntervalIndex;
     @InjectMocks
     private final UserService service;
 
@@ -97,6 +108,39 @@ class UserServiceImplTest {
                 .save(users.get(0));
     }
 
+    @Test
+    void testAddAllReportsRowErrors() {
+        when(userRepository.findAllByEmailIn(any()))
+                .thenReturn(List.of(users.get(1)));
+        when(userRepository.saveAll(any()))
+                .thenAnswer(invocation -> invocation.getArgument(0));
+        List<User> batch = Arrays.asList(
+                new User(5L, "New", "new@email.com"),
+                new User(null, "Taken", users.get(1).getEmail()),
+                new User(null, "", "broken"),
+                null,
+                new User(null, "Twin", "new@email.com"));
+
+        BatchResultDto<UserDto> result = service.addAll(batch);
+
+        assertThat(result.getCreated(), hasSize(1));
+        assertThat(result.getCreated().iterator().next().getEmail(), equalTo("new@email.com"));
+        assertThat(result.getErrors(), contains(
+                hasProperty("index", equalTo(1)),
+                hasProperty("index", equalTo(2)),
+                hasProperty("index", equalTo(3)),
+                hasProperty("index", equalTo(4))));
+        assertThat(batch.get(0).getId(), nullValue());
+    }
+
+    @Test
+    void testAddAllIfBatchTooLarge() {
+        List<User> batch = Collections.nCopies(1001, users.get(0));
+
+        Assertions.assertThrows(ValidationException.class, () -> service.addAll(batch));
+        Mockito.verify(userRepository, Mockito.never()).saveAll(any());
+    }
+
     @Test
     void testChange() {
         UserDto userDto =  service.change(users.get(0).getId(), userChange);
@@ -114,6 +158,10 @@ class UserServiceImplTest {
 
         Mockito.verify(userRepository, Mockito.times(1))
                 .deleteById(users.get(2).getId());
+        Mockito.verify(itemSearchIndex, Mockito.times(1))
+                .invalidate();
+        Mockito.verify(bookingIntervalIndex, Mockito.times(1))
+                .invalidateAll();
     }
 
     @Test